@@ -0,0 +1,56 @@
+package terminal.manager;
+
+import android.os.FileObserver;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public final class DirectoryCacheWatcher implements DirectoryCache.Observer {
+
+    private static final int MAX_WATCHED_DIRECTORIES = 1024;
+    private static final int EVENTS = FileObserver.CREATE | FileObserver.DELETE | FileObserver.MOVED_FROM
+            | FileObserver.MOVED_TO | FileObserver.MODIFY | FileObserver.ATTRIB | FileObserver.CLOSE_WRITE
+            | FileObserver.DELETE_SELF | FileObserver.MOVE_SELF;
+
+    private final DirectoryCache cache;
+    private final Map<String, FileObserver> observers = new HashMap<>();
+
+    public DirectoryCacheWatcher(DirectoryCache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    public synchronized boolean watch(String path) {
+        if (observers.containsKey(path)) {
+            return true;
+        }
+        if (observers.size() >= MAX_WATCHED_DIRECTORIES) {
+            return false;
+        }
+
+        FileObserver observer = new FileObserver(path, EVENTS) {
+            @Override
+            public void onEvent(int event, String name) {
+                cache.invalidate(path);
+            }
+        };
+        observer.startWatching();
+        observers.put(path, observer);
+        return true;
+    }
+
+    @Override
+    public synchronized void unwatch(String path) {
+        FileObserver observer = observers.remove(path);
+        if (observer != null) {
+            observer.stopWatching();
+        }
+    }
+
+    public synchronized void stop() {
+        for (FileObserver observer : observers.values()) {
+            observer.stopWatching();
+        }
+        observers.clear();
+    }
+}
@@ -0,0 +1,114 @@
+package terminal.manager;
+
+import android.os.FileObserver;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public final class FileIndexWatcher {
+
+    private static final int MAX_WATCHED_DIRECTORIES = 4096;
+    private static final int MAX_TREE_DEPTH = 32;
+    private static final int EVENTS = FileObserver.CREATE | FileObserver.DELETE | FileObserver.MOVED_FROM
+            | FileObserver.MOVED_TO | FileObserver.DELETE_SELF | FileObserver.MOVE_SELF;
+
+    private final FileIndex index;
+    private final Map<String, FileObserver> observers = new HashMap<>();
+    private boolean complete;
+
+    public FileIndexWatcher(FileIndex index) {
+        this.index = index;
+    }
+
+    public synchronized void start() {
+        stop();
+        complete = true;
+        watch(index.getRoot().getAbsolutePath());
+        for (String directory : index.directories()) {
+            watch(directory);
+        }
+        index.setWatching(complete);
+    }
+
+    public synchronized void stop() {
+        for (FileObserver observer : observers.values()) {
+            observer.stopWatching();
+        }
+        observers.clear();
+        index.setWatching(false);
+    }
+
+    private void watch(String directory) {
+        if (observers.containsKey(directory)) {
+            return;
+        }
+        if (observers.size() >= MAX_WATCHED_DIRECTORIES) {
+            complete = false;
+            return;
+        }
+
+        FileObserver observer = new FileObserver(directory, EVENTS) {
+            @Override
+            public void onEvent(int event, String name) {
+                handleEvent(directory, event & FileObserver.ALL_EVENTS, name);
+            }
+        };
+        observer.startWatching();
+        observers.put(directory, observer);
+    }
+
+    private synchronized void handleEvent(String directory, int event, String name) {
+        if ((event & (FileObserver.DELETE_SELF | FileObserver.MOVE_SELF)) != 0) {
+            unwatchTree(directory);
+            return;
+        }
+        if (name == null) {
+            return;
+        }
+
+        String path = directory + "/" + name;
+        if ((event & (FileObserver.CREATE | FileObserver.MOVED_TO)) != 0) {
+            File file = new File(path);
+            boolean isDirectory = file.isDirectory();
+            index.add(path, isDirectory);
+            if (isDirectory) {
+                addTree(file, 1);
+            }
+        } else if ((event & (FileObserver.DELETE | FileObserver.MOVED_FROM)) != 0) {
+            index.remove(path);
+            unwatchTree(path);
+        }
+        index.setWatching(complete);
+    }
+
+    private void addTree(File directory, int depth) {
+        watch(directory.getAbsolutePath());
+        File[] children = depth < MAX_TREE_DEPTH ? directory.listFiles() : null;
+        if (children == null) {
+            return;
+        }
+        for (File child : children) {
+            boolean isDirectory = child.isDirectory();
+            index.add(child.getAbsolutePath(), isDirectory);
+            if (isDirectory) {
+                addTree(child, depth + 1);
+            }
+        }
+    }
+
+    private void unwatchTree(String directory) {
+        String prefix = directory + "/";
+        List<String> stale = new ArrayList<>();
+        for (String watched : observers.keySet()) {
+            if (watched.equals(directory) || watched.startsWith(prefix)) {
+                stale.add(watched);
+            }
+        }
+        for (String watched : stale) {
+            observers.remove(watched).stopWatching();
+        }
+    }
+}
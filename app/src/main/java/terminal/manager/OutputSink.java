@@ -0,0 +1,107 @@
+package terminal.manager;
+
+import android.os.Looper;
+import android.view.Choreographer;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+public final class OutputSink implements Choreographer.FrameCallback {
+
+    public interface Target {
+        void write(CharSequence text);
+
+        void flushed(int chars, long elapsedNanos);
+    }
+
+    private static final int MAX_CHARS_PER_FRAME = 64 * 1024;
+    private static final long MAX_PENDING_CHARS = 1024 * 1024;
+
+    private final Target target;
+    private final Choreographer choreographer;
+    private final ConcurrentLinkedQueue<Object> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final AtomicLong pendingChars = new AtomicLong();
+    private final Object drained = new Object();
+    private final StringBuilder batch = new StringBuilder();
+
+    public OutputSink(Target target) {
+        this.target = target;
+        this.choreographer = Choreographer.getInstance();
+    }
+
+    public void write(String text) {
+        if (text.isEmpty()) {
+            return;
+        }
+        awaitCapacity();
+        pendingChars.addAndGet(text.length());
+        pending.offer(text);
+        schedule();
+    }
+
+    private void awaitCapacity() {
+        if (pendingChars.get() < MAX_PENDING_CHARS || Looper.getMainLooper().isCurrentThread()) {
+            return;
+        }
+        synchronized (drained) {
+            try {
+                while (pendingChars.get() >= MAX_PENDING_CHARS) {
+                    drained.wait();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    public void run(Runnable action) {
+        pending.offer(action);
+        schedule();
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        scheduled.set(false);
+        long started = System.nanoTime();
+
+        int written = 0;
+        Object item;
+        while (written < MAX_CHARS_PER_FRAME && (item = pending.poll()) != null) {
+            if (item instanceof Runnable) {
+                flushBatch();
+                ((Runnable) item).run();
+            } else {
+                String text = (String) item;
+                batch.append(text);
+                written += text.length();
+            }
+        }
+        flushBatch();
+        target.flushed(written, System.nanoTime() - started);
+
+        if (written > 0 && pendingChars.getAndAdd(-written) >= MAX_PENDING_CHARS) {
+            synchronized (drained) {
+                drained.notifyAll();
+            }
+        }
+
+        if (!pending.isEmpty()) {
+            schedule();
+        }
+    }
+
+    private void flushBatch() {
+        if (batch.length() > 0) {
+            target.write(batch);
+            batch.setLength(0);
+        }
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            choreographer.postFrameCallback(this);
+        }
+    }
+}
@@ -8,6 +8,12 @@ import android.Manifest;
 import android.content.pm.PackageManager;
 import android.os.Bundle;
 import android.os.Environment;
+import android.os.FileObserver;
+import android.system.ErrnoException;
+import android.system.Os;
+import android.system.StructStat;
+import android.text.Editable;
+import android.text.TextWatcher;
 import android.text.method.ScrollingMovementMethod;
 import android.view.KeyEvent;
 import android.view.View;
@@ -17,16 +23,34 @@ import android.view.inputmethod.InputMethodManager;
 import android.widget.EditText;
 import android.widget.TextView;
 import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.Locale;
 import java.util.Stack;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 import android.os.PowerManager;
 import android.content.Context;
@@ -39,16 +63,82 @@ public class terminal extends AppCompatActivity {
 
     private EditText commandInput;
     private TextView outputView;
-    private String currentDir;
+    private TextView promptLabel;
+    private volatile String currentDir;
     private static final int STORAGE_PERMISSION_CODE = 101;
+    private static final int SCROLLBACK_MAX_LINES = 5000;
+    private static final int SCROLLBACK_MAX_CHARS = 256 * 1024;
+    private static final long LOG_DRAIN_TIMEOUT_MS = 500;
+    private static final long LOG_MAX_BYTES = 1024 * 1024;
+    private static final long LOG_MAX_AGE_MS = 7L * 24 * 60 * 60 * 1000;
+    private static final int LOG_RETAINED_SEGMENTS = 5;
+    private static final int DEFAULT_LOG_LINES = 50;
+    private static final int CAT_PAGE_LINES = 100;
+    private static final int HEAD_TAIL_LINES = 10;
+    private static final long FOLLOW_FALLBACK_POLL_MS = 2000;
+    private static final int FOLLOW_EVENTS = FileObserver.MODIFY | FileObserver.CLOSE_WRITE | FileObserver.CREATE
+            | FileObserver.MOVED_FROM | FileObserver.MOVED_TO | FileObserver.DELETE;
+    private static final int DIRECTORY_CACHE_MAX_DIRECTORIES = 1024;
+    private static final int DIRECTORY_CACHE_MAX_ENTRIES = 100_000;
+    private static final int DISK_USAGE_MAX_SUMMARIES = 200_000;
+    private static final int JOB_BUFFER_CHARS = 1_000_000;
+    private static final int MAX_FINISHED_JOBS = 20;
+    private static final long PROCESS_OUTPUT_CHARS_PER_SECOND = 256 * 1024;
+    private static final int LS_PAGE_ENTRIES = 500;
+    private static final int COMPLETION_MAX_SHOWN = 100;
+    private static final int PIPE_CAPACITY_CHUNKS = 64;
+    private static final int STREAM_BUFFER_CHARS = 8192;
+    private static final int HISTORY_MAX_ENTRIES = 100_000;
+    private static final int DEFAULT_HISTORY_LINES = 500;
+    private static final int HISTORY_SEARCH_LABEL_CHARS = 40;
+    private static final int METRICS_MAX_COMMANDS = 128;
+    private static final long METRICS_DUMP_INTERVAL_MS = 60_000;
     private Stack<String> directoryHistory = new Stack<>();
-    private List<String> commandHistory = new ArrayList<>();
+    private CommandHistory commandHistory;
+    private final CommandExecutor historyWriter = new CommandExecutor();
+    private boolean historySearching;
+    private int historySearchMatch = -1;
+    private String historySearchSaved;
+    private String historySearchFailed;
+    private int historySearchGeneration;
+    private final CommandExecutor commandExecutor = new CommandExecutor();
+    private final CommandRegistry commandRegistry = new CommandRegistry();
+    private final ThreadLocal<Writer> stageOutput = new ThreadLocal<>();
+    private final ThreadLocal<BufferedReader> stageInput = new ThreadLocal<>();
+    private final ThreadLocal<Job> currentJob = new ThreadLocal<>();
+    private final ThreadLocal<CommandMetrics.Sample> currentSample = new ThreadLocal<>();
+    private final CommandMetrics commandMetrics = new CommandMetrics(METRICS_MAX_COMMANDS);
+    private final AtomicLong lastMetricsDump = new AtomicLong(System.currentTimeMillis());
+    private long dumpedMetricsUpdates = -1;
+    private final List<Job> jobs = new ArrayList<>();
+    private int nextJobId = 1;
+    private volatile ProcessRunner foregroundProcess;
+    private volatile FileFollower foregroundFollower;
+    private volatile ShellSession shellSession;
+    private final ScrollbackBuffer scrollback = new ScrollbackBuffer(SCROLLBACK_MAX_LINES, SCROLLBACK_MAX_CHARS);
+    private OutputSink outputSink;
+    private final AsyncLogWriter logWriter = new AsyncLogWriter(
+            new LogRotator(LOG_MAX_BYTES, LOG_MAX_AGE_MS, LOG_RETAINED_SEGMENTS, CommandExecutor.sharedPool()));
     private int commandHistoryIndex = -1;
     private boolean isViewInitialized = false;
     private File logDir;
     private File terminalLog;
     private File terminalAppLog;
     private File terminalAppErrorLog;
+    private PagedFile pagerFile;
+    private int pagerPageSize;
+    private Runnable pagerNext;
+    private final DirectoryLister directoryLister = new DirectoryLister(
+            android.os.Build.VERSION.SDK_INT >= android.os.Build.VERSION_CODES.O);
+    private final DirectoryCache directoryCache = new DirectoryCache(directoryLister,
+            DIRECTORY_CACHE_MAX_DIRECTORIES, DIRECTORY_CACHE_MAX_ENTRIES);
+    private final DiskUsage diskUsage = new DiskUsage(CommandExecutor.parallelPool(), DISK_USAGE_MAX_SUMMARIES);
+    private DirectoryCacheWatcher directoryCacheWatcher;
+    private final TabCompleter tabCompleter = new TabCompleter(commandRegistry, directoryCache);
+    private FileIndex fileIndex;
+    private FileIndexWatcher fileIndexWatcher;
+    private File fileIndexStore;
+    private final AtomicBoolean fileIndexUpdating = new AtomicBoolean();
 
     private Locale currentLocale;
 
@@ -65,11 +155,34 @@ public class terminal extends AppCompatActivity {
 
         commandInput = findViewById(R.id.command_input);
         outputView = findViewById(R.id.output_view);
+        promptLabel = findViewById(R.id.prompt_label);
 
         outputView.setTextColor(0xFF00FF00); 
 
         outputView.setMovementMethod(new ScrollingMovementMethod());
 
+        registerCommands();
+
+        commandHistory = new CommandHistory(new File(getFilesDir(), "command_history"), HISTORY_MAX_ENTRIES,
+                historyWriter::submit);
+        commandHistory.load(() -> tabCompleter.addHistory(commandHistory.tail(TabCompleter.MAX_HISTORY_LINES)));
+
+        directoryCacheWatcher = new DirectoryCacheWatcher(directoryCache);
+        directoryCache.setObserver(directoryCacheWatcher);
+
+        outputSink = new OutputSink(new OutputSink.Target() {
+            @Override
+            public void write(CharSequence text) {
+                appendOutput(text, false);
+            }
+
+            @Override
+            public void flushed(int chars, long elapsedNanos) {
+                scrollToBottom();
+                commandMetrics.recordFrame(elapsedNanos, chars);
+            }
+        });
+
         isViewInitialized = true;
 
         currentDir = getExternalFilesDir(null) != null ?
@@ -77,6 +190,8 @@ public class terminal extends AppCompatActivity {
                 Environment.getExternalStorageDirectory().getAbsolutePath();
         directoryHistory.push(currentDir);
 
+        commandExecutor.setListener(busy -> runOnUiThread(() -> setBusy(busy)));
+
         commandInput.requestFocus();
         showKeyboard();
 
@@ -101,11 +216,51 @@ public class terminal extends AppCompatActivity {
                 } else if (keyCode == KeyEvent.KEYCODE_TAB) {
                     autoCompleteCommand();
                     return true;
+                } else if (keyCode == KeyEvent.KEYCODE_R && event.isCtrlPressed()) {
+                    searchHistoryBackward();
+                    return true;
+                } else if (historySearching && (keyCode == KeyEvent.KEYCODE_ESCAPE
+                        || keyCode == KeyEvent.KEYCODE_G && event.isCtrlPressed())) {
+                    finishHistorySearch(keyCode == KeyEvent.KEYCODE_ESCAPE ? historySearchResult() : historySearchSaved);
+                    return true;
+                } else if (keyCode == KeyEvent.KEYCODE_D && event.isCtrlPressed()) {
+                    ProcessRunner process = foregroundProcess;
+                    if (process != null) {
+                        process.closeInput();
+                        return true;
+                    }
+                    return false;
+                } else if (keyCode == KeyEvent.KEYCODE_C && event.isCtrlPressed()) {
+                    if (historySearching) {
+                        finishHistorySearch(historySearchSaved);
+                        return true;
+                    }
+                    if (commandExecutor.interruptCurrent()) {
+                        print("^C\n");
+                    }
+                    return true;
                 }
             }
             return false;
         });
 
+        commandInput.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                if (historySearching) {
+                    updateHistorySearch(historySearchMatch + 1);
+                }
+            }
+        });
+
         outputView.setOnClickListener(v -> {
             commandInput.requestFocus();
             showKeyboard();
@@ -117,18 +272,21 @@ public class terminal extends AppCompatActivity {
         });
 
         if (isRussianLanguage()) {
-            outputView.setText("Terminal Manager v1.0.0 Патч: t.me/bkuzn\n");
-            outputView.append("Введите 'help' для списка команд\n\n");
+            scrollback.append("Terminal Manager v1.0.0 Патч: t.me/bkuzn\n");
+            scrollback.append("Введите 'help' для списка команд\n\n");
         } else {
-            outputView.setText("Terminal Manager v1.0.0 Path: t.me/bkuzn\n");
-            outputView.append("Type 'help' for command list\n\n");
+            scrollback.append("Terminal Manager v1.0.0 Path: t.me/bkuzn\n");
+            scrollback.append("Type 'help' for command list\n\n");
         }
+        renderScrollback();
 
         updatePrompt();
 
         requestStoragePermissions();
 
         initializeLogs();
+
+        initializeFileIndex();
     }
 
     private void showKeyboard() {
@@ -204,18 +362,69 @@ public class terminal extends AppCompatActivity {
         }
     }
 
-    private void logToFile(File logFile, String message) {
+    private void initializeFileIndex() {
+        fileIndex = new FileIndex(Environment.getExternalStorageDirectory());
+        fileIndexWatcher = new FileIndexWatcher(fileIndex);
+        fileIndexStore = new File(getFilesDir(), "file_index.bin");
+
+        CommandExecutor.sharedPool().execute(() -> {
+            if (!fileIndex.load(fileIndexStore)) {
+                updateFileIndex();
+                return;
+            }
+            boolean stale = !fileIndex.isFresh();
+            fileIndexWatcher.start();
+            if (stale) {
+                revalidateFileIndex();
+            }
+        });
+    }
+
+    private void revalidateFileIndex() {
+        if (!fileIndexUpdating.compareAndSet(false, true)) {
+            return;
+        }
         try {
-            if (logFile != null) {
-                try (FileWriter writer = new FileWriter(logFile, true)) {
-                    SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.getDefault());
-                    writer.write("[" + sdf.format(new Date()) + "] " + message + "\n");
-                }
+            int rescanned = fileIndex.revalidate();
+            if (rescanned > 0) {
+                fileIndexWatcher.start();
             }
+            fileIndex.save(fileIndexStore);
+            logAppInfo("Индекс файлов проверен: пересканировано директорий " + rescanned);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         } catch (IOException e) {
+            logAppError("Ошибка сохранения индекса файлов: " + e.getMessage());
+        } finally {
+            fileIndexUpdating.set(false);
         }
     }
 
+    private boolean updateFileIndex() {
+        if (!fileIndexUpdating.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            fileIndex.build();
+            fileIndex.save(fileIndexStore);
+            fileIndexWatcher.start();
+            logAppInfo("Индекс файлов обновлен: " + fileIndex.size() + " записей");
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (IOException e) {
+            logAppError("Ошибка сохранения индекса файлов: " + e.getMessage());
+            return true;
+        } finally {
+            fileIndexUpdating.set(false);
+        }
+    }
+
+    private void logToFile(File logFile, String message) {
+        logWriter.log(logFile, message);
+    }
+
     private void logTerminalError(String error) {
         logToFile(terminalLog, "ОШИБКА: " + error);
     }
@@ -229,23 +438,122 @@ public class terminal extends AppCompatActivity {
     }
 
     private void executeCurrentCommand() {
-        String command = commandInput.getText().toString().trim();
-        if (!command.isEmpty()) {
-            if (commandHistory.isEmpty() || !commandHistory.get(commandHistory.size() - 1).equals(command)) {
-                commandHistory.add(command);
-                logToFile(terminalLog, "КОМАНДА: " + command);
+        if (historySearching) {
+            finishHistorySearch(historySearchResult());
+        }
+
+        stopFollowing();
+        if (sendProcessInput(commandInput.getText().toString())) {
+            commandInput.setText("");
+            return;
+        }
+
+        String input = commandInput.getText().toString().trim();
+        if (!input.isEmpty()) {
+            String command = expandHistory(input);
+            if (command == null) {
+                commandInput.setText("");
+                commandExecutor.submit(() -> {
+                    outputSink.run(this::removePrompt);
+                    print("➜ " + input + "\n");
+                    printError(getStringResource("Событие не найдено: ", "Event not found: ") + input.split("\\s+", 2)[0] + "\n");
+                    logTerminalError("Событие истории не найдено: " + input);
+                    updatePrompt();
+                });
+                return;
             }
-            commandHistoryIndex = -1;
 
-            executeCommand(command);
+            boolean isNewCommand = commandHistory.add(command);
+            tabCompleter.addHistory(command);
+            commandHistoryIndex = -1;
             commandInput.setText("");
+
+            commandExecutor.submit(() -> {
+                if (isNewCommand) {
+                    logToFile(terminalLog, "КОМАНДА: " + command);
+                }
+                executeCommand(command);
+            });
         }
         commandInput.requestFocus();
         showKeyboard();
     }
 
+    private String expandHistory(String input) {
+        if (!input.startsWith("!") || input.length() < 2 || Character.isWhitespace(input.charAt(1))) {
+            return input;
+        }
+        int end = 1;
+        while (end < input.length() && !Character.isWhitespace(input.charAt(end))) {
+            end++;
+        }
+        String expanded = commandHistory.expand(input.substring(0, end));
+        return expanded != null ? expanded + input.substring(end) : null;
+    }
+
+    private void searchHistoryBackward() {
+        if (!historySearching) {
+            historySearching = true;
+            historySearchSaved = commandInput.getText().toString();
+            historySearchMatch = commandHistory.size();
+            commandInput.setText("");
+        }
+        updateHistorySearch(historySearchMatch);
+    }
+
+    private void updateHistorySearch(int before) {
+        String query = commandInput.getText().toString();
+        int generation = ++historySearchGeneration;
+        if (query.isEmpty() || (historySearchFailed != null && query.startsWith(historySearchFailed))) {
+            showHistorySearch(query, -1, null);
+            return;
+        }
+        CommandExecutor.sharedPool().execute(() -> {
+            int match = commandHistory.searchBackward(query, before);
+            String found = match >= 0 ? commandHistory.get(match) : null;
+            runOnUiThread(() -> {
+                if (historySearching && generation == historySearchGeneration) {
+                    showHistorySearch(query, match, found);
+                }
+            });
+        });
+    }
+
+    private void showHistorySearch(String query, int match, String found) {
+        if (match >= 0) {
+            historySearchMatch = match;
+            historySearchFailed = null;
+            if (found.length() > HISTORY_SEARCH_LABEL_CHARS) {
+                found = found.substring(0, HISTORY_SEARCH_LABEL_CHARS) + "…";
+            }
+            promptLabel.setText("(reverse-i-search) " + found + " :");
+        } else {
+            historySearchFailed = query.isEmpty() ? null : query;
+            promptLabel.setText(query.isEmpty() ? "(reverse-i-search):" : "(failed reverse-i-search):");
+        }
+    }
+
+    private String historySearchResult() {
+        String query = commandInput.getText().toString();
+        if (!query.isEmpty() && historySearchMatch >= 0 && historySearchMatch < commandHistory.size()
+                && commandHistory.get(historySearchMatch).contains(query)) {
+            return commandHistory.get(historySearchMatch);
+        }
+        return query;
+    }
+
+    private void finishHistorySearch(String text) {
+        historySearching = false;
+        historySearchMatch = -1;
+        historySearchFailed = null;
+        historySearchGeneration++;
+        promptLabel.setText(commandExecutor.isBusy() ? "…" : "$");
+        commandInput.setText(text);
+        commandInput.setSelection(text.length());
+    }
+
     private void navigateCommandHistory(int direction) {
-        if (commandHistory.isEmpty()) return;
+        if (commandHistory.size() == 0) return;
 
         if (direction == -1) {
             if (commandHistoryIndex < commandHistory.size() - 1) {
@@ -268,19 +576,39 @@ public class terminal extends AppCompatActivity {
     }
 
     private void autoCompleteCommand() {
-        String currentText = commandInput.getText().toString().trim();
-        if (currentText.isEmpty()) return;
-
-        String[] commands = {"help", "pwd", "ls", "dir", "cd", "cat", "rm", "mkdir",
-                "touch", "echo", "mv", "clear", "find", "date", "write", "bkuzn"};
+        String text = commandInput.getText().toString();
+        int cursor = commandInput.getSelectionStart() >= 0 ? commandInput.getSelectionStart() : text.length();
+        File directory = new File(currentDir);
 
-        for (String cmd : commands) {
-            if (cmd.startsWith(currentText)) {
-                commandInput.setText(cmd);
-                commandInput.setSelection(cmd.length());
+        CommandExecutor.sharedPool().execute(() -> {
+            TabCompleter.Result result = tabCompleter.complete(text, cursor, directory);
+            if (result == null) {
                 return;
             }
+            runOnUiThread(() -> {
+                if (commandInput.getText().toString().equals(text)) {
+                    commandInput.setText(result.text);
+                    commandInput.setSelection(result.cursor);
+                }
+            });
+            if (!result.candidates.isEmpty()) {
+                showCompletionCandidates(result.candidates);
+            }
+        });
+    }
+
+    private void showCompletionCandidates(List<String> candidates) {
+        StringBuilder output = new StringBuilder();
+        int shown = Math.min(candidates.size(), COMPLETION_MAX_SHOWN);
+        for (int i = 0; i < shown; i++) {
+            output.append(candidates.get(i)).append(i + 1 < shown ? "  " : "\n");
         }
+        if (candidates.size() > shown) {
+            output.append(getStringResource("... и еще ", "... and ")).append(candidates.size() - shown)
+                    .append(getStringResource("\n", " more\n"));
+        }
+
+        printNotice(output.toString());
     }
 
     public void checkPermission(String permission, int requestCode) {
@@ -307,11 +635,12 @@ public class terminal extends AppCompatActivity {
             }
 
             if (allGranted) {
-                outputView.append(getStringResource("Разрешения на хранилище предоставлены\n", "Storage permissions granted\n"));
+                print(getStringResource("Разрешения на хранилище предоставлены\n", "Storage permissions granted\n"));
                 logAppInfo("Разрешения на хранилище предоставлены");
                 initializeLogs();
+                CommandExecutor.sharedPool().execute(this::updateFileIndex);
             } else {
-                outputView.append(getStringResource("Некоторые разрешения на хранилище отклонены\n", "Some storage permissions denied\n"));
+                print(getStringResource("Некоторые разрешения на хранилище отклонены\n", "Some storage permissions denied\n"));
                 logAppError("Некоторые разрешения на хранилище отклонены");
                 initializeLogs();
             }
@@ -319,350 +648,1734 @@ public class terminal extends AppCompatActivity {
         }
     }
 
+    private void setBusy(boolean busy) {
+        if (!historySearching) {
+            promptLabel.setText(busy ? "…" : "$");
+        }
+        commandInput.setHint(busy ? getStringResource("выполняется...", "running...") : "");
+    }
+
+    private void print(String text) {
+        recordOutput(text);
+        Writer out = stageOutput.get();
+        if (out == null) {
+            sink().accept(text);
+            return;
+        }
+        try {
+            out.write(text);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void printError(String text) {
+        markFailed(currentSample.get());
+        printWarning(text);
+    }
+
+    private void printWarning(String text) {
+        recordOutput(text);
+        sink().accept(text);
+    }
+
+    private Consumer<String> sink() {
+        Job job = currentJob.get();
+        return job != null ? job::write : outputSink::write;
+    }
+
+    private Consumer<String> console() {
+        return metered(sink());
+    }
+
+    private Consumer<String> printer() {
+        Writer out = stageOutput.get();
+        if (out == null) {
+            return console();
+        }
+        return metered(text -> {
+            try {
+                out.write(text);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private Consumer<String> metered(Consumer<String> target) {
+        CommandMetrics.Sample sample = currentSample.get();
+        if (sample == null) {
+            return target;
+        }
+        return text -> {
+            sample.addOutput(text);
+            target.accept(text);
+        };
+    }
+
+    private void recordOutput(String text) {
+        CommandMetrics.Sample sample = currentSample.get();
+        if (sample != null) {
+            sample.addOutput(text);
+        }
+    }
+
+    private void markFailed(CommandMetrics.Sample sample) {
+        if (sample != null) {
+            sample.markFailed();
+        }
+    }
+
+    private void recordVisited(long entries) {
+        CommandMetrics.Sample sample = currentSample.get();
+        if (sample != null) {
+            sample.addVisited(entries);
+        }
+    }
+
+    private CommandMetrics.Sample beginSample(String command) {
+        CommandMetrics.Sample sample = commandMetrics.begin(command);
+        currentSample.set(sample);
+        return sample;
+    }
+
+    private void endSample(CommandMetrics.Sample sample, boolean failed) {
+        if (sample == null) {
+            return;
+        }
+        currentSample.remove();
+        commandMetrics.end(sample, failed);
+    }
+
+    private void printNotice(String text) {
+        outputSink.run(this::removePrompt);
+        outputSink.write(text);
+        outputSink.run(() -> {
+            if (!commandExecutor.isBusy()) {
+                appendOutput("$ ", true);
+            }
+        });
+    }
+
+    private boolean isOutputRedirected() {
+        return stageOutput.get() != null;
+    }
+
+    private void appendOutput(CharSequence text, boolean isPrompt) {
+        int evicted = isPrompt ? scrollback.appendPrompt(text.toString()) : scrollback.append(text);
+        Editable output = (Editable) outputView.getText();
+        output.append(text);
+        if (evicted > 0) {
+            output.delete(0, evicted);
+        }
+    }
+
+    private void renderScrollback() {
+        outputView.setText(scrollback.toString(), TextView.BufferType.EDITABLE);
+    }
+
+    private void removePrompt() {
+        int removed = scrollback.removePrompt();
+        if (removed > 0) {
+            Editable output = (Editable) outputView.getText();
+            output.delete(output.length() - removed, output.length());
+        }
+    }
+
+    private void scrollToBottom() {
+        outputView.post(() -> {
+            if (outputView.getLayout() == null) {
+                return;
+            }
+            int scrollAmount = outputView.getLayout().getLineTop(outputView.getLineCount()) - outputView.getHeight();
+            if (scrollAmount > 0) {
+                outputView.scrollTo(0, scrollAmount);
+            } else {
+                outputView.scrollTo(0, 0);
+            }
+        });
+    }
+
     private void executeCommand(String command) {
-        String currentText = outputView.getText().toString();
-        if (currentText.endsWith("$ ")) {
-            outputView.setText(currentText.substring(0, currentText.length() - 2));
-        }
-
-        outputView.append("➜ " + command + "\n");
-
-        try {
-            if (command.equals("help")) {
-                showHelp();
-            } else if (command.equals("pwd")) {
-                outputView.append(currentDir + "\n");
-            } else if (command.equals("ls") || command.equals("dir")) {
-                listFiles();
-            } else if (command.startsWith("cd ")) {
-                changeDirectory(command.substring(3).trim());
-            } else if (command.equals("cd")) {
-                changeDirectory(getExternalFilesDir(null) != null ?
-                        getExternalFilesDir(null).getAbsolutePath() :
-                        Environment.getExternalStorageDirectory().getAbsolutePath());
-            } else if (command.startsWith("cat ")) {
-                readFile(command.substring(4).trim());
-            } else if (command.startsWith("rm ")) {
-                removeFile(command.substring(3).trim());
-            } else if (command.startsWith("mkdir ")) {
-                createDirectory(command.substring(6).trim());
-            } else if (command.startsWith("touch ")) {
-                createFile(command.substring(6).trim());
-            } else if (command.startsWith("echo ")) {
-                echoText(command.substring(5).trim());
-            } else if (command.startsWith("mv ")) {
-                String[] parts = command.substring(3).trim().split("\\s+", 2);
-                if (parts.length == 2) {
-                    moveFile(parts[0], parts[1]);
+        outputSink.run(this::removePrompt);
+
+        print("➜ " + command + "\n");
+
+        Pipeline pipeline = parsePipeline(command);
+        if (pipeline != null && pipeline.isBackground()) {
+            startJob(pipeline, command);
+        } else if (pipeline != null) {
+            runCommand(pipeline, command);
+        }
+
+        updatePrompt();
+    }
+
+    private void runCommand(Pipeline pipeline, String command) {
+        CommandMetrics.Sample sample = null;
+        boolean failed = false;
+        try {
+            if (pipeline.isSimple()) {
+                CommandLine line = pipeline.getStages().get(0);
+                CommandRegistry.Command handler = commandRegistry.get(line.getName());
+                sample = beginSample(line.getName());
+                if (handler != null) {
+                    handler.getHandler().run(line);
                 } else {
-                    outputView.append(getStringResource("Использование: mv <источник> <назначение>\n", "Usage: mv <source> <destination>\n"));
-                    logTerminalError("Неверная команда mv: " + command);
+                    runExternal(line);
                 }
-            } else if (command.equals("clear")) {
-                outputView.setText("");
-            } else if (command.startsWith("find ")) {
-                findFile(command.substring(5).trim());
-            } else if (command.equals("date")) {
-                showDate();
-            } else if (command.startsWith("write ")) {
-                handleWriteCommand(command.substring(6).trim());
-            } else if (command.equals("history")) {
-                showCommandHistory();
-            } else if (command.equals("back")) {
-                goBackDirectory();
-            } else if (command.equals("bkuzn")) {
-                forceRebootDevice();
             } else {
-                outputView.append(getStringResource("Неизвестная команда: ", "Unknown command: ") + command + "\n");
-                logTerminalError("Неизвестная команда: " + command);
+                runPipeline(pipeline);
             }
         } catch (Exception e) {
+            failed = true;
             String errorMsg = getStringResource("Ошибка выполнения команды '", "Error executing command '") + command + "': " + e.getMessage();
-            outputView.append(errorMsg + "\n");
+            printError(errorMsg + "\n");
             logTerminalError(errorMsg);
             logAppError(errorMsg);
+        } finally {
+            endSample(sample, failed);
+            scheduleMetricsDump();
         }
+    }
 
-        updatePrompt();
+    private void scheduleMetricsDump() {
+        long now = System.currentTimeMillis();
+        long last = lastMetricsDump.get();
+        if (now - last >= METRICS_DUMP_INTERVAL_MS && lastMetricsDump.compareAndSet(last, now)) {
+            CommandExecutor.sharedPool().execute(this::dumpMetrics);
+        }
+    }
 
-        outputView.post(() -> {
-            int scrollAmount = outputView.getLayout().getLineTop(outputView.getLineCount()) - outputView.getHeight();
-            if (scrollAmount > 0) {
-                outputView.scrollTo(0, scrollAmount);
-            } else {
-                outputView.scrollTo(0, 0);
+    private File dumpMetrics() {
+        if (logDir == null) {
+            return null;
+        }
+        File file = new File(logDir, "metrics.bin");
+        synchronized (commandMetrics) {
+            long updates = commandMetrics.getUpdates();
+            if (updates == dumpedMetricsUpdates && file.exists()) {
+                return file;
             }
-        });
+            try {
+                commandMetrics.dump(file);
+                dumpedMetricsUpdates = updates;
+                return file;
+            } catch (IOException e) {
+                logAppError("Ошибка сохранения метрик: " + e.getMessage());
+                return null;
+            }
+        }
     }
 
-    private void forceRebootDevice() {
-        outputView.append(getStringResource("Попытка перезагрузки устройства...\n", "Attempting to reboot device...\n"));
-        logAppInfo("Попытка перезагрузки устройства");
+    private void runExternal(CommandLine line) {
+        List<String> command = new ArrayList<>(line.size() + 1);
+        command.add(line.getName());
+        command.addAll(line.getArguments());
+
+        BufferedReader input = stageInput.get();
+        boolean redirected = isOutputRedirected();
+        ShellSession session = shellSession;
+        if (session != null && input == null && runInSession(session, line)) {
+            return;
+        }
 
+        boolean interactive = input == null && currentJob.get() == null && foregroundProcess == null;
+        ProcessRunner runner = new ProcessRunner(command, new File(currentDir), CommandExecutor.stagePool(),
+                redirected ? 0 : PROCESS_OUTPUT_CHARS_PER_SECOND);
+        if (interactive) {
+            foregroundProcess = runner;
+        }
         try {
-            PowerManager powerManager = (PowerManager) getSystemService(Context.POWER_SERVICE);
-            if (powerManager != null) {
-                Method rebootMethod = powerManager.getClass().getMethod("reboot", String.class);
-                rebootMethod.invoke(powerManager, "recovery");
-                outputView.append(getStringResource("Команда перезагрузки отправлена успешно\n", "Reboot command sent successfully\n"));
-                logAppInfo("Команда перезагрузки отправлена успешно");
+            int exitCode = runner.run(input, interactive, printer(), console());
+            if (exitCode != 0) {
+                printError("[" + getStringResource("код выхода: ", "exit code: ") + exitCode + "]\n");
             }
-        } catch (Exception e1) {
-            String errorMsg1 = getStringResource("Метод 1 не удался: ", "Method 1 failed: ") + e1.getMessage();
-            outputView.append(errorMsg1 + "\n");
-            logAppError(errorMsg1);
+            logToFile(terminalLog, "PROCESS: " + String.join(" ", command) + " - код выхода " + exitCode
+                    + (runner.getThrottledNanos() > 0 ? ", вывод замедлен на " + TimeUnit.NANOSECONDS.toMillis(runner.getThrottledNanos()) + " мс" : ""));
+        } catch (IOException e) {
+            String message = String.valueOf(e.getMessage());
+            if (message.contains("error=2,") || message.contains("No such file")) {
+                printError(getStringResource("Неизвестная команда: ", "Unknown command: ") + line.getName() + "\n");
+                logTerminalError("Неизвестная команда: " + line.getName() + " - " + message);
+            } else {
+                String errorMsg = getStringResource("Ошибка запуска '", "Cannot run '") + line.getName() + "': " + message;
+                printError(errorMsg + "\n");
+                logTerminalError(errorMsg);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            printError(getStringResource("Процесс остановлен: ", "Process killed: ") + line.getName() + "\n");
+            logToFile(terminalLog, "PROCESS: " + String.join(" ", command) + " - прервано");
+        } finally {
+            if (interactive) {
+                foregroundProcess = null;
+            }
+        }
+    }
+
+    private boolean runInSession(ShellSession session, CommandLine line) {
+        StringBuilder script = new StringBuilder(ShellSession.quote(line.getName()));
+        for (String argument : line.getArguments()) {
+            script.append(' ').append(ShellSession.quote(argument));
+        }
+        String command = script.toString();
+        try {
+            Integer exitCode = session.tryExecute(command, new File(currentDir), printer(), console(),
+                    isOutputRedirected() ? 0 : PROCESS_OUTPUT_CHARS_PER_SECOND);
+            if (exitCode == null) {
+                return false;
+            }
+            if (exitCode != 0) {
+                printError("[" + getStringResource("код выхода: ", "exit code: ") + exitCode + "]\n");
+            }
+            logToFile(terminalLog, "SHELL: " + command + " - код выхода " + exitCode);
+        } catch (IOException e) {
+            String errorMsg = getStringResource("Ошибка оболочки: ", "Shell error: ") + e.getMessage();
+            printError(errorMsg + "\n");
+            logTerminalError(errorMsg);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            printError(getStringResource("Процесс остановлен: ", "Process killed: ") + line.getName() + "\n");
+            logToFile(terminalLog, "SHELL: " + command + " - прервано, оболочка будет перезапущена");
+        }
+        return true;
+    }
+
+    private void handleShellCommand(String args) {
+        ShellSession session = shellSession;
+        if (args.isEmpty() || args.equals("status")) {
+            if (session == null) {
+                print(getStringResource("Постоянная оболочка выключена (новый процесс на каждую команду)\n",
+                        "Persistent shell is off (one process per command)\n"));
+            } else {
+                print(getStringResource("Постоянная оболочка: ", "Persistent shell: ") + String.join(" ", session.getShell())
+                        + (session.isAlive() ? getStringResource(" (работает)", " (running)") : getStringResource(" (запустится при первой команде)", " (starts on first command)"))
+                        + "\n");
+                print(getStringResource("Команд: ", "Commands: ") + session.getCommands()
+                        + getStringResource(", перезапусков: ", ", restarts: ") + session.getRestarts() + "\n");
+            }
+        } else if (args.equals("sh") || args.equals("su")) {
+            if (session != null) {
+                session.destroy();
+            }
+            shellSession = new ShellSession(Collections.singletonList(args), CommandExecutor.stagePool());
+            print(getStringResource("Внешние команды выполняются в постоянной оболочке ", "External commands now run in a persistent ") + args + "\n");
+            logToFile(terminalLog, "SHELL: включена " + args);
+        } else if (args.equals("off")) {
+            shellSession = null;
+            if (session != null) {
+                session.destroy();
+            }
+            print(getStringResource("Постоянная оболочка выключена\n", "Persistent shell disabled\n"));
+            logToFile(terminalLog, "SHELL: выключена");
+        } else {
+            printError(getStringResource("Использование: shell [sh|su|off|status]\n", "Usage: shell [sh|su|off|status]\n"));
+            logTerminalError("Неверная команда shell: " + args);
+        }
+    }
+
+    private void stopFollowing() {
+        FileFollower follower = foregroundFollower;
+        if (follower != null) {
+            follower.stop();
+        }
+    }
 
+    private boolean sendProcessInput(String text) {
+        ProcessRunner process = foregroundProcess;
+        if (process == null || !process.isRunning()) {
+            return false;
+        }
+        outputSink.write(text + "\n");
+        CommandExecutor.sharedPool().execute(() -> {
             try {
-                Runtime.getRuntime().exec(new String[]{"su", "-c", "reboot"});
-                outputView.append(getStringResource("Команда перезагрузки через root выполнена\n", "Root reboot command executed\n"));
-                logAppInfo("Команда перезагрузки через root выполнена");
-            } catch (Exception e2) {
-                String errorMsg2 = getStringResource("Метод 2 не удался: ", "Method 2 failed: ") + e2.getMessage();
-                outputView.append(errorMsg2 + "\n");
-                logAppError(errorMsg2);
+                process.writeInput(text + "\n");
+            } catch (IOException e) {
+                printError(getStringResource("Ввод процесса закрыт\n", "Process input is closed\n"));
+            }
+        });
+        return true;
+    }
+
+    private void startJob(Pipeline pipeline, String command) {
+        String jobCommand = command.substring(0, command.lastIndexOf('&')).trim();
+        if (rejectForegroundOnly(pipeline.getStages())) {
+            return;
+        }
+        Job job;
+        synchronized (jobs) {
+            job = new Job(nextJobId++, jobCommand, JOB_BUFFER_CHARS);
+            jobs.add(job);
+            pruneFinishedJobs();
+        }
+        print("[" + job.getId() + "] " + jobCommand + "\n");
+        logToFile(terminalLog, "JOB " + job.getId() + ": запущено - " + jobCommand);
 
+        CommandExecutor.stagePool().execute(() -> {
+            if (job.start()) {
+                currentJob.set(job);
                 try {
-                    Runtime.getRuntime().exec("reboot");
-                    outputView.append(getStringResource("Стандартная команда перезагрузки выполнена\n", "Standard reboot command executed\n"));
-                    logAppInfo("Стандартная команда перезагрузки выполнена");
-                } catch (Exception e3) {
-                    String errorMsg3 = getStringResource("Все методы перезагрузки не удались: ", "All reboot methods failed: ") + e3.getMessage();
-                    outputView.append(errorMsg3 + "\n");
-                    outputView.append(getStringResource("Устройство, вероятно, не рутировано или приложение не подписано системным сертификатом\n", "Device is probably not rooted or app not signed with system certificate\n"));
-                    logAppError(errorMsg3);
+                    runCommand(pipeline, jobCommand);
+                } finally {
+                    currentJob.remove();
                 }
             }
-        }
+            job.finish();
+            onJobFinished(job);
+        });
     }
 
-    private void handleWriteCommand(String args) {
-        if (args == null || args.isEmpty()) {
-            outputView.append(getStringResource("Использование: write имя_файла \"текст\"\n", "Usage: write filename \"text\"\n"));
-            logTerminalError("Неверный формат команды write: " + args);
+    private void onJobFinished(Job job) {
+        logToFile(terminalLog, "JOB " + job.getId() + ": " + job.getState() + " за "
+                + TimeUnit.NANOSECONDS.toMillis(job.getElapsedNanos()) + " мс");
+        if (job.isAttached()) {
+            synchronized (jobs) {
+                jobs.remove(job);
+            }
             return;
         }
+        printNotice("[" + job.getId() + "] " + jobStateLabel(job.getState()) + "  " + job.getCommand()
+                + (job.getBufferedChars() > 0 ? getStringResource("  (вывод: fg %", "  (output: fg %") + job.getId() + ")" : "") + "\n");
+    }
 
-        int quoteIndex = args.indexOf("\"");
-        if (quoteIndex == -1) {
-            outputView.append(getStringResource("Использование: write имя_файла \"текст\"\n", "Usage: write filename \"text\"\n"));
-            logTerminalError("Неверный формат команда write: " + args);
-            return;
+    private void pruneFinishedJobs() {
+        int finished = 0;
+        for (int i = jobs.size() - 1; i >= 0; i--) {
+            if (jobs.get(i).getState() != Job.State.RUNNING && ++finished > MAX_FINISHED_JOBS) {
+                jobs.remove(i);
+            }
         }
+    }
 
-        String filename = args.substring(0, quoteIndex).trim();
-        String text = args.substring(quoteIndex + 1);
+    private String jobStateLabel(Job.State state) {
+        switch (state) {
+            case RUNNING:
+                return getStringResource("Выполняется", "Running");
+            case KILLED:
+                return getStringResource("Прервано", "Killed");
+            default:
+                return getStringResource("Завершено", "Done");
+        }
+    }
 
-        int endQuoteIndex = text.lastIndexOf("\"");
-        if (endQuoteIndex == -1) {
-            outputView.append(getStringResource("Использование: write имя_файла \"текст\"\n", "Usage: write filename \"text\"\n"));
-            logTerminalError("Неверный формат команда write: " + args);
+    private void listJobs() {
+        List<Job> snapshot;
+        synchronized (jobs) {
+            snapshot = new ArrayList<>(jobs);
+        }
+        if (snapshot.isEmpty()) {
+            print(getStringResource("Нет фоновых задач\n", "No background jobs\n"));
             return;
         }
-
-        text = text.substring(0, endQuoteIndex);
-        writeToFile(filename, text);
+        StringBuilder output = new StringBuilder();
+        for (Job job : snapshot) {
+            output.append(String.format(Locale.US, "[%d] %-12s %8.1fs  %s", job.getId(), jobStateLabel(job.getState()),
+                    job.getElapsedNanos() / 1e9, job.getCommand()));
+            if (job.getBufferedChars() > 0) {
+                output.append(getStringResource("  (буфер: ", "  (buffered: ")).append(job.getBufferedChars())
+                        .append(getStringResource(" симв.)", " chars)"));
+            }
+            output.append('\n');
+        }
+        print(output.toString());
     }
 
-    private void showHelp() {
-        if (isRussianLanguage()) {
-            outputView.append("Доступные команды:\n");
-            outputView.append("pwd        - Показать текущую директорию\n");
-            outputView.append("ls/dir     - Список файлов\n");
-            outputView.append("cd [dir]   - Сменить директорию\n");
-            outputView.append("cat [file] - Прочитать файл\n");
-            outputView.append("rm [file]  - Удалить файл\n");
-            outputView.append("mkdir [dir]- Создать директорию\n");
-            outputView.append("touch [file]- Создать пустой файл\n");
-            outputView.append("echo [text]- Вывести текст\n");
-            outputView.append("mv [src] [dest] - Переместить/переименовать файл\n");
-            outputView.append("clear      - Очистить экран\n");
-            outputView.append("find [name]- Найти файл\n");
-            outputView.append("date       - Показать текущую дату/время\n");
-            outputView.append("write [file] \"[text]\" - Записать текст в файл\n");
-            outputView.append("history    - Показать истории команд\n");
-            outputView.append("back       - Вернуться к предыдущей директории\n");
-            outputView.append("bkuzn      - Принудительная перезагрузка устройства\n");
-        } else {
-            outputView.append("Available commands:\n");
-            outputView.append("pwd        - Show current directory\n");
-            outputView.append("ls/dir     - List files\n");
-            outputView.append("cd [dir]   - Change directory\n");
-            outputView.append("cat [file] - Read file\n");
-            outputView.append("rm [file]  - Remove file\n");
-            outputView.append("mkdir [dir]- Create directory\n");
-            outputView.append("touch [file]- Create empty file\n");
-            outputView.append("echo [text]- Output text\n");
-            outputView.append("mv [src] [dest] - Move/rename file\n");
-            outputView.append("clear      - Clear screen\n");
-            outputView.append("find [name]- Find file\n");
-            outputView.append("date       - Show current date/time\n");
-            outputView.append("write [file] \"[text]\" - Write text to file\n");
-            outputView.append("history    - Show command history\n");
-            outputView.append("back       - Go back to previous directory\n");
-            outputView.append("bkuzn      - Force reboot device\n");
+    private Job findJob(List<String> args) {
+        synchronized (jobs) {
+            if (args.isEmpty()) {
+                for (int i = jobs.size() - 1; i >= 0; i--) {
+                    if (jobs.get(i).getState() == Job.State.RUNNING) {
+                        return jobs.get(i);
+                    }
+                }
+                return jobs.isEmpty() ? null : jobs.get(jobs.size() - 1);
+            }
+            String spec = args.get(0).startsWith("%") ? args.get(0).substring(1) : args.get(0);
+            try {
+                int id = Integer.parseInt(spec);
+                for (Job job : jobs) {
+                    if (job.getId() == id) {
+                        return job;
+                    }
+                }
+            } catch (NumberFormatException e) {
+                return null;
+            }
+            return null;
+        }
+    }
+
+    private void foregroundJob(CommandLine line) {
+        Job job = findJob(line.getArguments());
+        if (job == null) {
+            printError(getStringResource("Задача не найдена\n", "No such job\n"));
+            return;
+        }
+        print("[" + job.getId() + "] " + job.getCommand() + "\n");
+        job.attach(console(), getStringResource("… пропущено символов: %d\n", "… %d chars dropped\n"));
+        try {
+            job.awaitFinished();
+        } catch (InterruptedException e) {
+            job.cancel();
+            printError(getStringResource("Задача прервана: ", "Job killed: ") + "[" + job.getId() + "]\n");
+            logToFile(terminalLog, "JOB " + job.getId() + ": прервано из fg");
+            return;
+        }
+        synchronized (jobs) {
+            jobs.remove(job);
+        }
+        if (job.getState() == Job.State.KILLED) {
+            printError(getStringResource("Задача прервана: ", "Job killed: ") + "[" + job.getId() + "]\n");
+        }
+    }
+
+    private void killJob(CommandLine line) {
+        if (line.size() != 1) {
+            printError(getStringResource("Использование: kill %n\n", "Usage: kill %n\n"));
+            return;
+        }
+        Job job = findJob(line.getArguments());
+        if (job == null) {
+            printError(getStringResource("Задача не найдена: ", "No such job: ") + line.get(0) + "\n");
+            return;
+        }
+        if (job.cancel()) {
+            print(getStringResource("Прерывание задачи ", "Killing job ") + "[" + job.getId() + "] " + job.getCommand() + "\n");
+            logToFile(terminalLog, "JOB " + job.getId() + ": kill");
+        } else {
+            print("[" + job.getId() + "] " + getStringResource("уже завершена\n", "already finished\n"));
+        }
+    }
+
+    private Pipeline parsePipeline(String command) {
+        try {
+            return Pipeline.parse(command);
+        } catch (IllegalArgumentException e) {
+            printError(getStringResource("Синтаксическая ошибка: ", "Syntax error: ") + e.getMessage() + "\n");
+            logTerminalError("Синтаксическая ошибка: " + command + " - " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void runPipeline(Pipeline pipeline) throws IOException, InterruptedException {
+        List<CommandLine> stages = pipeline.getStages();
+        if (rejectForegroundOnly(stages.subList(0, stages.size() - 1))) {
+            return;
+        }
+        List<CommandRegistry.Handler> handlers = new ArrayList<>(stages.size());
+        for (CommandLine stage : stages) {
+            CommandRegistry.Command handler = commandRegistry.get(stage.getName());
+            handlers.add(handler != null ? handler.getHandler() : this::runExternal);
+        }
+
+        BufferedReader input = null;
+        if (pipeline.getInputFile() != null) {
+            File inputFile = resolvePath(pipeline.getInputFile());
+            input = new BufferedReader(new InputStreamReader(new FileInputStream(inputFile), StandardCharsets.UTF_8));
+        }
+        Writer output = null;
+        if (pipeline.getOutputFile() != null) {
+            File outputFile = resolvePath(pipeline.getOutputFile());
+            try {
+                output = new BufferedWriter(new OutputStreamWriter(
+                        new FileOutputStream(outputFile, pipeline.isAppend()), StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                closeQuietly(input);
+                throw e;
+            }
+            invalidateListing(outputFile);
+        }
+
+        List<Future<?>> upstream = new ArrayList<>();
+        Job job = currentJob.get();
+        for (int i = 0; i < stages.size() - 1; i++) {
+            Pipe pipe = new Pipe(PIPE_CAPACITY_CHUNKS);
+            BufferedReader stageIn = input;
+            Writer stageOut = new BufferedWriter(pipe.getWriter());
+            CommandRegistry.Handler handler = handlers.get(i);
+            CommandLine stage = stages.get(i);
+            upstream.add(CommandExecutor.stagePool().submit(() -> {
+                currentJob.set(job);
+                try {
+                    runStage(handler, stage, stageIn, stageOut);
+                } finally {
+                    currentJob.remove();
+                }
+            }));
+            input = new BufferedReader(pipe.getReader());
+        }
+
+        try {
+            runStage(handlers.get(handlers.size() - 1), stages.get(stages.size() - 1), input, output);
+            for (Future<?> future : upstream) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            for (Future<?> future : upstream) {
+                future.cancel(true);
+            }
+            printError(getStringResource("Конвейер прерван\n", "Pipeline interrupted\n"));
+        } catch (ExecutionException e) {
+            logAppError("Ошибка стадии конвейера: " + e.getCause());
+        }
+        logToFile(terminalLog, "PIPELINE: " + stages.size() + " стадий"
+                + (pipeline.getOutputFile() != null ? " > " + pipeline.getOutputFile() : ""));
+    }
+
+    private boolean rejectForegroundOnly(List<CommandLine> stages) {
+        for (CommandLine stage : stages) {
+            CommandRegistry.Command command = commandRegistry.get(stage.getName());
+            if (command != null && isForegroundOnly(command.getName())) {
+                String errorMsg = getStringResource("Команду '" + stage.getName() + "' нельзя запускать в фоне или в середине конвейера",
+                        "Command '" + stage.getName() + "' cannot run in the background or mid-pipeline");
+                printError(errorMsg + "\n");
+                logTerminalError(errorMsg);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isForegroundOnly(String name) {
+        switch (name) {
+            case "cd":
+            case "back":
+            case "more":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private boolean ownsPager() {
+        return !isOutputRedirected() && currentJob.get() == null;
+    }
+
+    private void runStage(CommandRegistry.Handler handler, CommandLine line, BufferedReader input, Writer output) {
+        stageInput.set(input);
+        stageOutput.set(output);
+        CommandMetrics.Sample sample = beginSample(line.getName());
+        boolean failed = false;
+        try {
+            handler.run(line);
+        } catch (InterruptedIOException e) {
+            Thread.currentThread().interrupt();
+        } catch (UncheckedIOException e) {
+            IOException cause = e.getCause();
+            if (!(cause instanceof InterruptedIOException) && !"Broken pipe".equals(cause.getMessage())) {
+                failed = true;
+                printError(line.getName() + ": " + cause.getMessage() + "\n");
+            }
+        } catch (Exception e) {
+            failed = true;
+            String errorMsg = getStringResource("Ошибка выполнения команды '", "Error executing command '") + line.getName() + "': " + e.getMessage();
+            printError(errorMsg + "\n");
+            logTerminalError(errorMsg);
+        } finally {
+            endSample(sample, failed);
+            stageInput.remove();
+            stageOutput.remove();
+            closeQuietly(output);
+            closeQuietly(input);
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable == null) {
+            return;
+        }
+        try {
+            closeable.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private File resolvePath(String path) {
+        return path.startsWith("/") ? new File(path) : new File(currentDir + "/" + path);
+    }
+
+    private void registerCommands() {
+        commandRegistry.register("help", "help", "Показать эту справку", "Show this help",
+                CommandRegistry.Completion.NONE, line -> showHelp());
+        commandRegistry.register("pwd", "pwd", "Показать текущую директорию", "Show current directory",
+                CommandRegistry.Completion.NONE, line -> print(currentDir + "\n"));
+        commandRegistry.register("ls", "ls/dir [-l] [-a] [-S|-t] [-r] [dir]", "Список файлов", "List files",
+                CommandRegistry.Completion.DIRECTORY, line -> listFiles(line.getArguments()));
+        commandRegistry.alias("dir", "ls");
+        commandRegistry.register("cd", "cd [dir]", "Сменить директорию", "Change directory",
+                CommandRegistry.Completion.DIRECTORY, line -> {
+                    if (line.size() == 0) {
+                        changeDirectory(getExternalFilesDir(null) != null ?
+                                getExternalFilesDir(null).getAbsolutePath() :
+                                Environment.getExternalStorageDirectory().getAbsolutePath());
+                    } else {
+                        changeDirectory(line.joinArguments());
+                    }
+                });
+        commandRegistry.register("cat", "cat [-n N] [+line] [file]", "Прочитать файл постранично (также less)",
+                "Read file page by page (also less)", CommandRegistry.Completion.PATH, line -> readFile(line.getArguments()));
+        commandRegistry.alias("less", "cat");
+        commandRegistry.register("more", "more", "Следующая страница файла или списка", "Next page of the file or listing",
+                CommandRegistry.Completion.NONE, line -> showNextPage());
+        commandRegistry.register("head", "head [-n N] [file]", "Первые строки файла", "First lines of a file",
+                CommandRegistry.Completion.PATH, line -> showHead(line.getArguments()));
+        commandRegistry.register("tail", "tail [-n N] [-f] [file]", "Последние строки файла (-f: следить за файлом)",
+                "Last lines of a file (-f: follow appended data)",
+                CommandRegistry.Completion.PATH, line -> showTail(line.getArguments()));
+        commandRegistry.register("rm", "rm [-rf] [--dry-run] [file]", "Удалить файл или дерево", "Remove file or tree",
+                CommandRegistry.Completion.PATH, line -> removeCommand(line))
+                .completeWords("-r", "-rf", "--dry-run");
+        commandRegistry.register("mkdir", "mkdir [dir]", "Создать директорию", "Create directory",
+                CommandRegistry.Completion.DIRECTORY, line -> createDirectory(line.joinArguments()));
+        commandRegistry.register("touch", "touch [file]", "Создать пустой файл", "Create empty file",
+                CommandRegistry.Completion.PATH, line -> createFile(line.joinArguments()));
+        commandRegistry.register("echo", "echo [text]", "Вывести текст", "Output text",
+                CommandRegistry.Completion.NONE, line -> echoText(line.joinArguments()));
+        commandRegistry.register("mv", "mv [src] [dest]", "Переместить/переименовать файл", "Move/rename file",
+                CommandRegistry.Completion.PATH, line -> {
+                    if (line.size() == 2) {
+                        moveFile(line.get(0), line.get(1));
+                    } else {
+                        printError(getStringResource("Использование: mv <источник> <назначение>\n", "Usage: mv <source> <destination>\n"));
+                        logTerminalError("Неверная команда mv: " + line.getRawArguments());
+                    }
+                });
+        commandRegistry.register("cp", "cp [-r] [src] [dest]", "Копировать файлы", "Copy files",
+                CommandRegistry.Completion.PATH, line -> copyFiles(line))
+                .completeWords("-r");
+        commandRegistry.register("du", "du [-sh] [-d N] [-n N] [dir]", "Размер директорий", "Disk usage of directories",
+                CommandRegistry.Completion.DIRECTORY, line -> diskUsageCommand(line))
+                .completeWords("-s", "-h", "-sh", "-d", "-n", "--max-depth=", "--top=");
+        commandRegistry.register("dupes", "dupes [--min-size N] [dir]", "Найти дубликаты файлов", "Find duplicate files",
+                CommandRegistry.Completion.DIRECTORY, line -> findDuplicates(line))
+                .completeWords("--min-size");
+        commandRegistry.register("jobs", "jobs", "Список фоновых задач (cmd &)", "List background jobs (cmd &)",
+                CommandRegistry.Completion.NONE, line -> listJobs());
+        commandRegistry.register("fg", "fg [%n]", "Вывести фоновую задачу на передний план", "Bring a job to the foreground",
+                CommandRegistry.Completion.NONE, line -> foregroundJob(line));
+        commandRegistry.register("kill", "kill %n", "Прервать фоновую задачу", "Kill a background job",
+                CommandRegistry.Completion.NONE, line -> killJob(line));
+        commandRegistry.register("shell", "shell [sh|su|off]", "Постоянная оболочка для внешних команд",
+                "Persistent shell for external commands", CommandRegistry.Completion.NONE,
+                line -> handleShellCommand(line.joinArguments()))
+                .completeWords("sh", "su", "off", "status");
+        commandRegistry.register("clear", "clear", "Очистить экран", "Clear screen",
+                CommandRegistry.Completion.NONE, line -> outputSink.run(() -> {
+                    scrollback.clear();
+                    renderScrollback();
+                }));
+        commandRegistry.register("find", "find [dir] [name] [-name|-type|-size|-mtime|-maxdepth]", "Найти файлы", "Find files",
+                CommandRegistry.Completion.DIRECTORY, line -> findFile(line))
+                .completeWords("-name", "-iname", "-regex", "-type", "-size", "-mtime", "-maxdepth");
+        commandRegistry.register("grep", "grep [-rinclF] [-A|-B|-C N] pattern [files]", "Искать текст в файлах",
+                "Search text in files", CommandRegistry.Completion.PATH, line -> grepCommand(line))
+                .completeWords("-r", "-i", "-n", "-c", "-l", "-F", "-A", "-B", "-C");
+        commandRegistry.register("locate", "locate [name]", "Быстрый поиск по индексу файлов", "Fast search in the file index",
+                CommandRegistry.Completion.NONE, line -> locateFile(line.joinArguments()));
+        commandRegistry.register("updatedb", "updatedb", "Перестроить индекс файлов", "Rebuild the file index",
+                CommandRegistry.Completion.NONE, line -> rebuildFileIndex());
+        commandRegistry.register("date", "date", "Показать текущую дату/время", "Show current date/time",
+                CommandRegistry.Completion.NONE, line -> showDate());
+        commandRegistry.register("write", "write [file] \"[text]\"", "Записать текст в файл", "Write text to file",
+                CommandRegistry.Completion.PATH, line -> handleWriteCommand(line));
+        commandRegistry.register("history", "history [N]", "Показать историю команд (!n, !префикс, !!, Ctrl+R)",
+                "Show command history (!n, !prefix, !!, Ctrl+R)", CommandRegistry.Completion.NONE,
+                line -> showCommandHistory(line.getArguments()));
+        commandRegistry.register("back", "back", "Вернуться к предыдущей директории", "Go back to previous directory",
+                CommandRegistry.Completion.NONE, line -> goBackDirectory());
+        commandRegistry.register("logs", "logs [terminal|app|error] [-n N]", "Показать последние строки логов", "Show last log lines",
+                CommandRegistry.Completion.NONE, line -> showLogs(line.getArguments()))
+                .completeWords("terminal", "app", "error", "-n");
+        commandRegistry.register("cache", "cache [stats|clear]", "Статистика или очистка кеша директорий",
+                "Directory cache statistics or reset", CommandRegistry.Completion.NONE, line -> handleCacheCommand(line.joinArguments()))
+                .completeWords("stats", "clear");
+        commandRegistry.register("stats", "stats [reset|dump]", "Задержки и объём вывода по командам",
+                "Per-command latency and output statistics", CommandRegistry.Completion.NONE,
+                line -> handleStatsCommand(line.joinArguments()))
+                .completeWords("reset", "dump");
+        commandRegistry.register("bkuzn", "bkuzn", "Принудительная перезагрузка устройства", "Force reboot device",
+                CommandRegistry.Completion.NONE, line -> forceRebootDevice());
+    }
+
+    private void forceRebootDevice() {
+        print(getStringResource("Попытка перезагрузки устройства...\n", "Attempting to reboot device...\n"));
+        logAppInfo("Попытка перезагрузки устройства");
+
+        try {
+            PowerManager powerManager = (PowerManager) getSystemService(Context.POWER_SERVICE);
+            if (powerManager != null) {
+                Method rebootMethod = powerManager.getClass().getMethod("reboot", String.class);
+                rebootMethod.invoke(powerManager, "recovery");
+                print(getStringResource("Команда перезагрузки отправлена успешно\n", "Reboot command sent successfully\n"));
+                logAppInfo("Команда перезагрузки отправлена успешно");
+            }
+        } catch (Exception e1) {
+            String errorMsg1 = getStringResource("Метод 1 не удался: ", "Method 1 failed: ") + e1.getMessage();
+            print(errorMsg1 + "\n");
+            logAppError(errorMsg1);
+
+            try {
+                Runtime.getRuntime().exec(new String[]{"su", "-c", "reboot"});
+                print(getStringResource("Команда перезагрузки через root выполнена\n", "Root reboot command executed\n"));
+                logAppInfo("Команда перезагрузки через root выполнена");
+            } catch (Exception e2) {
+                String errorMsg2 = getStringResource("Метод 2 не удался: ", "Method 2 failed: ") + e2.getMessage();
+                print(errorMsg2 + "\n");
+                logAppError(errorMsg2);
+
+                try {
+                    Runtime.getRuntime().exec("reboot");
+                    print(getStringResource("Стандартная команда перезагрузки выполнена\n", "Standard reboot command executed\n"));
+                    logAppInfo("Стандартная команда перезагрузки выполнена");
+                } catch (Exception e3) {
+                    String errorMsg3 = getStringResource("Все методы перезагрузки не удались: ", "All reboot methods failed: ") + e3.getMessage();
+                    print(errorMsg3 + "\n");
+                    print(getStringResource("Устройство, вероятно, не рутировано или приложение не подписано системным сертификатом\n", "Device is probably not rooted or app not signed with system certificate\n"));
+                    logAppError(errorMsg3);
+                }
+            }
+        }
+    }
+
+    private void handleWriteCommand(CommandLine line) {
+        BufferedReader input = stageInput.get();
+        if (line.size() == 1 && input != null) {
+            writeToFile(line.get(0), input);
+            return;
+        }
+        if (line.size() < 2) {
+            printError(getStringResource("Использование: write имя_файла \"текст\"\n", "Usage: write filename \"text\"\n"));
+            logTerminalError("Неверный формат команды write: " + line.getRawArguments());
+            return;
+        }
+
+        List<String> arguments = line.getArguments();
+        writeToFile(arguments.get(0), new StringReader(String.join(" ", arguments.subList(1, arguments.size()))));
+    }
+
+    private void showHelp() {
+        boolean russian = isRussianLanguage();
+        print(getStringResource("Доступные команды:\n", "Available commands:\n"));
+        for (CommandRegistry.Command command : commandRegistry.getCommands()) {
+            print(String.format(Locale.US, "%-10s - %s\n", command.getUsage(), command.getHelp(russian)));
+        }
+        print(getStringResource("a | b, > f, >> f, < f - Конвейеры и перенаправление\n", "a | b, > f, >> f, < f - Pipes and redirection\n"));
+        print(getStringResource("Ctrl+C     - Прервать выполняющуюся команду\n", "Ctrl+C     - Interrupt the running command\n"));
+        print(getStringResource("cmd &      - Запустить команду в фоне (jobs, fg, kill)\n", "cmd &      - Run a command in the background (jobs, fg, kill)\n"));
+        print(getStringResource("Другие команды запускаются как программы (Ctrl+D - конец ввода)\n",
+                "Other commands run as programs (Ctrl+D - end of input)\n"));
+    }
+
+    private void changeDirectory(String path) {
+        if (path == null || path.isEmpty()) {
+            printError(getStringResource("Использование: cd <директория>\n", "Usage: cd <directory>\n"));
+            logTerminalError("Пустая команда cd");
+            return;
+        }
+
+        File newDir;
+        if (path.startsWith("/")) {
+            newDir = new File(path);
+        } else if (path.equals("..")) {
+            newDir = new File(currentDir).getParentFile();
+            if (newDir == null) {
+                printError(getStringResource("Уже в корневой директории\n", "Already in root directory\n"));
+                return;
+            }
+        } else if (path.equals("~")) {
+            newDir = getExternalFilesDir(null) != null ?
+                    getExternalFilesDir(null) :
+                    Environment.getExternalStorageDirectory();
+        } else if (path.equals("-")) {
+            if (directoryHistory.size() > 1) {
+                String previousDir = directoryHistory.pop();
+                newDir = new File(previousDir);
+            } else {
+                printError(getStringResource("Нет предыдущей директории\n", "No previous directory\n"));
+                return;
+            }
+        } else {
+            newDir = new File(currentDir + "/" + path);
+        }
+
+        if (newDir != null && newDir.exists() && newDir.isDirectory()) {
+            if (newDir.canRead()) {
+                directoryHistory.push(currentDir);
+                currentDir = newDir.getAbsolutePath();
+                logToFile(terminalLog, "CD: " + currentDir);
+            } else {
+                String errorMsg = getStringResource("Доступ запрещен: ", "Access denied: ") + path;
+                printError(errorMsg + "\n");
+                logTerminalError(errorMsg);
+            }
+        } else {
+            String errorMsg = getStringResource("Директория не найдена: ", "Directory not found: ") + path;
+            printError(errorMsg + "\n");
+            logTerminalError(errorMsg);
+        }
+    }
+
+    private void goBackDirectory() {
+        if (directoryHistory.size() > 1) {
+            String previousDir = directoryHistory.pop();
+            currentDir = directoryHistory.peek();
+            directoryHistory.push(previousDir);
+            print(getStringResource("Вернулись в: ", "Returned to: ") + currentDir + "\n");
+            logToFile(terminalLog, "BACK: " + currentDir);
+        } else {
+            printError(getStringResource("Нет предыдущей директории\n", "No previous directory\n"));
+            logTerminalError("Нет доступной предыдущей директории");
+        }
+    }
+
+    private void listFiles(List<String> args) {
+        boolean longFormat = false;
+        boolean includeHidden = false;
+        boolean reverse = false;
+        DirectoryLister.SortKey sortKey = DirectoryLister.SortKey.NAME;
+        String path = null;
+
+        for (String arg : args) {
+            if (arg.startsWith("-") && arg.length() > 1) {
+                for (int i = 1; i < arg.length(); i++) {
+                    switch (arg.charAt(i)) {
+                        case 'l':
+                            longFormat = true;
+                            break;
+                        case 'a':
+                            includeHidden = true;
+                            break;
+                        case 'S':
+                            sortKey = DirectoryLister.SortKey.SIZE;
+                            break;
+                        case 't':
+                            sortKey = DirectoryLister.SortKey.TIME;
+                            break;
+                        case 'r':
+                            reverse = true;
+                            break;
+                        default:
+                            printError(getStringResource("Использование: ls [-l] [-a] [-S|-t] [-r] [директория]\n", "Usage: ls [-l] [-a] [-S|-t] [-r] [directory]\n"));
+                            logTerminalError("Неверная команда ls: " + String.join(" ", args));
+                            return;
+                    }
+                }
+            } else {
+                path = arg;
+            }
+        }
+
+        File directory;
+        if (path == null) {
+            directory = new File(currentDir);
+        } else if (path.startsWith("/")) {
+            directory = new File(path);
+        } else {
+            directory = new File(currentDir + "/" + path);
+        }
+
+        if (!directory.canRead()) {
+            printError(getStringResource("Доступ запрещен\n", "Access denied\n"));
+            logTerminalError("Доступ запрещен для директории: " + directory.getPath());
+            return;
+        }
+
+        List<DirectoryLister.Entry> entries;
+        try {
+            entries = filterListing(directoryCache.list(directory), includeHidden);
+        } catch (IOException e) {
+            printError(getStringResource("Ошибка чтения директории\n", "Error reading directory\n"));
+            logTerminalError("Ошибка чтения директории: " + directory.getPath());
+            return;
+        }
+
+        if (entries.isEmpty()) {
+            print(getStringResource("Директория пуста\n", "Directory is empty\n"));
+            return;
+        }
+
+        recordVisited(entries.size());
+        DirectoryLister.sort(entries, sortKey, reverse);
+        if (ownsPager()) {
+            closePager();
+        }
+        showListingPage(entries, 0, longFormat);
+    }
+
+    private List<DirectoryLister.Entry> filterListing(List<DirectoryLister.Entry> cached, boolean includeHidden) {
+        List<DirectoryLister.Entry> entries = new ArrayList<>(cached.size());
+        for (DirectoryLister.Entry entry : cached) {
+            if (includeHidden || !entry.name.startsWith(".")) {
+                entries.add(entry);
+            }
+        }
+        return entries;
+    }
+
+    private void showListingPage(List<DirectoryLister.Entry> entries, int first, boolean longFormat) {
+        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm", Locale.getDefault());
+        int end = ownsPager() ? Math.min(entries.size(), first + LS_PAGE_ENTRIES) : entries.size();
+
+        StringBuilder output = new StringBuilder();
+        for (int i = first; i < end; i++) {
+            DirectoryLister.Entry entry = entries.get(i);
+            if (!entry.attributesAvailable) {
+                output.append("📄 ").append(entry.name).append(getStringResource(" (ошибка доступа)\n", " (access error)\n"));
+            } else if (longFormat) {
+                output.append(entry.isDirectory ? "📁 DIR" : "📄 FILE").append('\t')
+                        .append(sdf.format(new Date(entry.lastModified))).append('\t')
+                        .append(entry.name);
+                if (!entry.isDirectory) {
+                    output.append(" (").append(formatFileSize(entry.size)).append(')');
+                }
+                output.append('\n');
+            } else {
+                output.append(entry.isDirectory ? "📁 " : "📄 ").append(entry.name).append('\n');
+            }
+        }
+        print(output.toString());
+
+        if (end < entries.size()) {
+            pagerNext = () -> showListingPage(entries, end, longFormat);
+            print(getStringResource("--- записи " + (first + 1) + "-" + end + " из " + entries.size() + ", 'more' для продолжения ---\n",
+                    "--- entries " + (first + 1) + "-" + end + " of " + entries.size() + ", 'more' to continue ---\n"));
+        } else {
+            pagerNext = null;
+        }
+    }
+
+    private String formatFileSize(long size) {
+        if (size < 1024) return size + " B";
+        if (size < 1024 * 1024) return (size / 1024) + " KB";
+        if (size < 1024L * 1024 * 1024) return (size / (1024 * 1024)) + " MB";
+        return String.format(Locale.US, "%.1f GB", size / (1024.0 * 1024 * 1024));
+    }
+
+    private static final class PagingArgs {
+        int count;
+        long firstLine;
+        String filename;
+    }
+
+    private PagingArgs parsePagingArgs(List<String> args, int defaultCount) {
+        PagingArgs paging = new PagingArgs();
+        paging.count = defaultCount;
+
+        int i = 0;
+        try {
+            for (; i < args.size(); i++) {
+                if (args.get(i).equals("-n") && i + 1 < args.size()) {
+                    paging.count = Integer.parseInt(args.get(++i));
+                } else if (args.get(i).startsWith("+") && args.get(i).length() > 1) {
+                    paging.firstLine = Long.parseLong(args.get(i).substring(1)) - 1;
+                } else {
+                    break;
+                }
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+
+        paging.filename = String.join(" ", args.subList(i, args.size()));
+
+        if (paging.count <= 0 || paging.firstLine < 0 || paging.filename.isEmpty()) {
+            return null;
+        }
+        return paging;
+    }
+
+    private PagedFile openPagedFile(String filename) {
+        File file;
+        if (filename.startsWith("/")) {
+            file = new File(filename);
+        } else {
+            file = new File(currentDir + "/" + filename);
+        }
+
+        if (!file.exists() || file.isDirectory()) {
+            String errorMsg = getStringResource("Файл не найден: ", "File not found: ") + filename;
+            printError(errorMsg + "\n");
+            logTerminalError(errorMsg);
+            return null;
+        }
+
+        if (!file.canRead()) {
+            String errorMsg = getStringResource("Доступ запрещен: ", "Access denied: ") + filename;
+            printError(errorMsg + "\n");
+            logTerminalError(errorMsg);
+            return null;
+        }
+
+        try {
+            return new PagedFile(file);
+        } catch (IOException e) {
+            String errorMsg = getStringResource("Ошибка чтения: ", "Read error: ") + e.getMessage();
+            printError(errorMsg + "\n");
+            logTerminalError(errorMsg);
+            return null;
+        }
+    }
+
+    private void readFile(List<String> args) throws IOException {
+        BufferedReader input = stageInput.get();
+        if (args.isEmpty() && input != null) {
+            copy(input, null);
+            return;
+        }
+
+        PagingArgs paging = parsePagingArgs(args, CAT_PAGE_LINES);
+        if (paging == null) {
+            printError(getStringResource("Использование: cat [-n строк] [+строка] <имя_файла>\n", "Usage: cat [-n lines] [+line] <filename>\n"));
+            logTerminalError("Неверная команда cat: " + String.join(" ", args));
+            return;
+        }
+
+        if (!ownsPager()) {
+            streamFile(paging);
+            return;
+        }
+
+        closePager();
+        PagedFile file = openPagedFile(paging.filename);
+        if (file == null) {
+            return;
+        }
+
+        pagerFile = file;
+        pagerPageSize = paging.count;
+        showPage(paging.firstLine);
+    }
+
+    private void streamFile(PagingArgs paging) throws IOException {
+        File file = resolvePath(paging.filename);
+        if (!file.isFile() || !file.canRead()) {
+            String errorMsg = getStringResource("Файл не найден: ", "File not found: ") + paging.filename;
+            printError(errorMsg + "\n");
+            logTerminalError(errorMsg);
+            return;
+        }
+
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            for (long skipped = 0; skipped < paging.firstLine && reader.readLine() != null; skipped++) {
+            }
+            long copied = copy(reader, null);
+            logToFile(terminalLog, "CAT: " + paging.filename + " - " + copied + " символов в конвейер");
+        }
+    }
+
+    private long copy(Reader source, Writer target) throws IOException {
+        char[] buffer = new char[STREAM_BUFFER_CHARS];
+        long total = 0;
+        int read;
+        while ((read = source.read(buffer)) != -1) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedIOException();
+            }
+            if (target != null) {
+                target.write(buffer, 0, read);
+            } else {
+                print(new String(buffer, 0, read));
+            }
+            total += read;
+        }
+        return total;
+    }
+
+    private void showNextPage() {
+        if (pagerNext == null) {
+            printError(getStringResource("Нечего продолжать, используйте cat или ls\n", "Nothing to continue, use cat or ls\n"));
+            return;
+        }
+        pagerNext.run();
+    }
+
+    private void showPage(long firstLine) {
+        try {
+            List<String> lines = pagerFile.readLines(firstLine, pagerPageSize);
+            printLines(lines);
+
+            long nextLine = firstLine + lines.size();
+            logToFile(terminalLog, "CAT: " + pagerFile.getFile().getName() + " (" + lines.size() + " строк прочитано)");
+            if (!lines.isEmpty() && pagerFile.hasLine(nextLine)) {
+                pagerNext = () -> showPage(nextLine);
+                print(getStringResource("--- строки " + (firstLine + 1) + "-" + nextLine + ", 'more' для продолжения ---\n",
+                        "--- lines " + (firstLine + 1) + "-" + nextLine + ", 'more' to continue ---\n"));
+            } else {
+                closePager();
+            }
+        } catch (IOException e) {
+            String errorMsg = getStringResource("Ошибка чтения: ", "Read error: ") + e.getMessage();
+            printError(errorMsg + "\n");
+            logTerminalError(errorMsg);
+            closePager();
+        }
+    }
+
+    private void closePager() {
+        pagerNext = null;
+        if (pagerFile != null) {
+            try {
+                pagerFile.close();
+            } catch (IOException e) {
+            }
+            pagerFile = null;
+        }
+    }
+
+    private void showHead(List<String> args) {
+        PagingArgs paging = parsePagingArgs(args, HEAD_TAIL_LINES);
+        if (paging == null) {
+            printError(getStringResource("Использование: head [-n строк] <имя_файла>\n", "Usage: head [-n lines] <filename>\n"));
+            logTerminalError("Неверная команда head: " + String.join(" ", args));
+            return;
+        }
+
+        PagedFile file = openPagedFile(paging.filename);
+        if (file == null) {
+            return;
+        }
+
+        try (PagedFile pagedFile = file) {
+            printLines(pagedFile.readLines(paging.firstLine, paging.count));
+        } catch (IOException e) {
+            String errorMsg = getStringResource("Ошибка чтения: ", "Read error: ") + e.getMessage();
+            printError(errorMsg + "\n");
+            logTerminalError(errorMsg);
+        }
+    }
+
+    private void showTail(List<String> args) {
+        List<String> options = new ArrayList<>(args);
+        boolean follow = options.remove("-f");
+        PagingArgs paging = parsePagingArgs(options, HEAD_TAIL_LINES);
+        if (paging == null) {
+            printError(getStringResource("Использование: tail [-n строк] [-f] <имя_файла>\n", "Usage: tail [-n lines] [-f] <filename>\n"));
+            logTerminalError("Неверная команда tail: " + String.join(" ", args));
+            return;
+        }
+
+        PagedFile file = openPagedFile(paging.filename);
+        if (file == null) {
+            return;
+        }
+
+        long position;
+        try (PagedFile pagedFile = file) {
+            printLines(pagedFile.tail(paging.count));
+            position = pagedFile.size();
+        } catch (IOException e) {
+            String errorMsg = getStringResource("Ошибка чтения: ", "Read error: ") + e.getMessage();
+            printError(errorMsg + "\n");
+            logTerminalError(errorMsg);
+            return;
+        }
+
+        if (follow) {
+            followFile(file.getFile(), position);
+        }
+    }
+
+    private void followFile(File file, long position) {
+        FileFollower follower;
+        try {
+            follower = new FileFollower(file, position, terminal::inodeOf);
+        } catch (IOException e) {
+            String errorMsg = getStringResource("Ошибка чтения: ", "Read error: ") + e.getMessage();
+            printError(errorMsg + "\n");
+            logTerminalError(errorMsg);
+            return;
+        }
+
+        String name = file.getName();
+        FileObserver observer = new FileObserver(file.getAbsoluteFile().getParent(), FOLLOW_EVENTS) {
+            @Override
+            public void onEvent(int event, String path) {
+                if (name.equals(path)) {
+                    follower.wake();
+                }
+            }
+        };
+        observer.startWatching();
+        boolean foreground = currentJob.get() == null;
+        if (foreground) {
+            foregroundFollower = follower;
+            console().accept(getStringResource("tail: слежение за файлом, Enter — остановить\n",
+                    "tail: following the file, press Enter to stop\n"));
+        }
+        logToFile(terminalLog, "TAIL -F: " + file.getPath());
+
+        FileFollower.Listener listener = new FileFollower.Listener() {
+            @Override
+            public void onText(String text) {
+                print(text);
+            }
+
+            @Override
+            public void onTruncated() {
+                printWarning(getStringResource("tail: файл усечён\n", "tail: file truncated\n"));
+            }
+
+            @Override
+            public void onReplaced() {
+                printWarning(getStringResource("tail: файл заменён, чтение нового файла\n", "tail: file replaced, following new file\n"));
+            }
+
+            @Override
+            public void onMissing() {
+                printWarning(getStringResource("tail: файл недоступен, ожидание\n", "tail: file became inaccessible, waiting\n"));
+            }
+        };
+
+        try {
+            while (!Thread.currentThread().isInterrupted() && !follower.isStopped()) {
+                follower.poll(listener);
+                follower.await(FOLLOW_FALLBACK_POLL_MS);
+            }
+        } catch (InterruptedException | ClosedByInterruptException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            String errorMsg = getStringResource("Ошибка чтения: ", "Read error: ") + e.getMessage();
+            printError(errorMsg + "\n");
+            logTerminalError(errorMsg);
+        } finally {
+            if (foreground) {
+                foregroundFollower = null;
+            }
+            observer.stopWatching();
+            closeQuietly(follower);
+            logToFile(terminalLog, "TAIL -F: остановлено - " + file.getPath() + ", прочитано байт: " + follower.getBytesRead());
+        }
+    }
+
+    private static Object inodeOf(File file) throws IOException {
+        try {
+            StructStat stat = Os.stat(file.getPath());
+            return stat.st_dev + ":" + stat.st_ino;
+        } catch (ErrnoException e) {
+            throw new IOException(e.getMessage());
+        }
+    }
+
+    private void printLines(List<String> lines) {
+        StringBuilder output = new StringBuilder();
+        for (String line : lines) {
+            output.append(line).append('\n');
+        }
+        print(output.toString());
+    }
+
+    private boolean copyThenDelete(File source, File destination) {
+        try {
+            FileCopier.Result result = new FileCopier(CommandExecutor.parallelPool(), copyListener()).copy(source, destination);
+            invalidateListing(destination);
+            if (result.errors > 0 || result.skippedLinks > 0) {
+                return false;
+            }
+        } catch (IOException e) {
+            printError(e.getMessage() + "\n");
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            printError(getStringResource("Копирование прервано\n", "Copy interrupted\n"));
+            return false;
+        }
+
+        boolean deleted;
+        try {
+            deleted = new FileRemover(CommandExecutor.parallelPool(), null, false).remove(source).errors == 0;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            deleted = false;
+        }
+        invalidateListing(source);
+        if (!deleted) {
+            printError(getStringResource("Скопировано, но источник не удалён: ", "Copied, but source was not removed: ")
+                    + source.getPath() + "\n");
+        }
+        return true;
+    }
+
+    private void copyFiles(CommandLine line) {
+        boolean recursive = false;
+        List<String> paths = new ArrayList<>();
+        for (String arg : line.getArguments()) {
+            if (arg.equals("-r") || arg.equals("-R")) {
+                recursive = true;
+            } else {
+                paths.add(arg);
+            }
+        }
+        if (paths.size() < 2) {
+            printError(getStringResource("Использование: cp [-r] <источник...> <назначение>\n", "Usage: cp [-r] <source...> <destination>\n"));
+            logTerminalError("Неверная команда cp: " + line.getRawArguments());
+            return;
         }
-    }
 
-    private void changeDirectory(String path) {
-        if (path == null || path.isEmpty()) {
-            outputView.append(getStringResource("Использование: cd <директория>\n", "Usage: cd <directory>\n"));
-            logTerminalError("Пустая команда cd");
+        File destination = resolvePath(paths.get(paths.size() - 1));
+        if (paths.size() > 2 && !destination.isDirectory()) {
+            String errorMsg = getStringResource("Назначение не является директорией: ", "Destination is not a directory: ") + destination.getPath();
+            printError(errorMsg + "\n");
+            logTerminalError(errorMsg);
             return;
         }
 
-        File newDir;
-        if (path.startsWith("/")) {
-            newDir = new File(path);
-        } else if (path.equals("..")) {
-            newDir = new File(currentDir).getParentFile();
-            if (newDir == null) {
-                outputView.append(getStringResource("Уже в корневой директории\n", "Already in root directory\n"));
-                return;
+        for (String path : paths.subList(0, paths.size() - 1)) {
+            File source = resolvePath(path);
+            if (!source.exists()) {
+                String errorMsg = getStringResource("Исходный файл не найден: ", "Source file not found: ") + path;
+                printError(errorMsg + "\n");
+                logTerminalError(errorMsg);
+                continue;
             }
-        } else if (path.equals("~")) {
-            newDir = getExternalFilesDir(null) != null ?
-                    getExternalFilesDir(null) :
-                    Environment.getExternalStorageDirectory();
-        } else if (path.equals("-")) {
-            if (directoryHistory.size() > 1) {
-                String previousDir = directoryHistory.pop();
-                newDir = new File(previousDir);
-            } else {
-                outputView.append(getStringResource("Нет предыдущей директории\n", "No previous directory\n"));
-                return;
+            if (source.isDirectory() && !recursive) {
+                printError(getStringResource("Пропущена директория (используйте -r): ", "Omitting directory (use -r): ") + path + "\n");
+                continue;
             }
-        } else {
-            newDir = new File(currentDir + "/" + path);
-        }
 
-        if (newDir != null && newDir.exists() && newDir.isDirectory()) {
-            if (newDir.canRead()) {
-                directoryHistory.push(currentDir);
-                currentDir = newDir.getAbsolutePath();
-                logToFile(terminalLog, "CD: " + currentDir);
-            } else {
-                String errorMsg = getStringResource("Доступ запрещен: ", "Access denied: ") + path;
-                outputView.append(errorMsg + "\n");
+            File target = destination.isDirectory() ? new File(destination, source.getName()) : destination;
+            try {
+                FileCopier.Result result = new FileCopier(CommandExecutor.parallelPool(), copyListener()).copy(source, target);
+                recordVisited(result.files);
+                invalidateListing(target);
+                String summary = path + getStringResource(" в ", " to ") + target.getPath()
+                        + " (" + result.files + getStringResource(" файлов, ", " files, ") + formatFileSize(result.bytes)
+                        + ", " + formatFileSize(result.getBytesPerSecond()) + "/s";
+                if (result.skippedLinks > 0) {
+                    summary += getStringResource(", пропущено ссылок: ", ", links skipped: ") + result.skippedLinks;
+                }
+                if (result.errors > 0) {
+                    printError(getStringResource("Скопировано с ошибками: ", "Copied with errors: ") + summary
+                            + getStringResource(", ошибок: ", ", errors: ") + result.errors + ")\n");
+                } else {
+                    print(getStringResource("Скопировано: ", "Copied: ") + summary + ")\n");
+                }
+                logToFile(terminalLog, "CP: " + source.getPath() + " -> " + target.getPath() + " - " + result.files
+                        + " файлов, " + result.bytes + " байт, ошибок: " + result.errors + ", пропущено ссылок: " + result.skippedLinks);
+            } catch (IOException e) {
+                String errorMsg = getStringResource("Ошибка копирования: ", "Copy error: ") + path + ": " + e.getMessage();
+                printError(errorMsg + "\n");
                 logTerminalError(errorMsg);
+            } catch (InterruptedException e) {
+                invalidateListing(target);
+                printError(getStringResource("Копирование прервано\n", "Copy interrupted\n"));
+                logToFile(terminalLog, "CP: " + source.getPath() + " - прервано");
+                return;
             }
-        } else {
-            String errorMsg = getStringResource("Директория не найдена: ", "Directory not found: ") + path;
-            outputView.append(errorMsg + "\n");
-            logTerminalError(errorMsg);
         }
     }
 
-    private void goBackDirectory() {
-        if (directoryHistory.size() > 1) {
-            String previousDir = directoryHistory.pop();
-            currentDir = directoryHistory.peek();
-            directoryHistory.push(previousDir);
-            outputView.append(getStringResource("Вернулись в: ", "Returned to: ") + currentDir + "\n");
-            logToFile(terminalLog, "BACK: " + currentDir);
-        } else {
-            outputView.append(getStringResource("Нет предыдущей директории\n", "No previous directory\n"));
-            logTerminalError("Нет доступной предыдущей директории");
-        }
-    }
+    private FileCopier.Listener copyListener() {
+        CommandMetrics.Sample sample = currentSample.get();
+        return new FileCopier.Listener() {
+            @Override
+            public void onProgress(long copiedBytes, long totalBytes, long copiedFiles, long totalFiles, long elapsedNanos) {
+                long rate = elapsedNanos > 0 ? copiedBytes * 1_000_000_000L / elapsedNanos : copiedBytes;
+                printWarning("… " + formatFileSize(copiedBytes) + " / " + formatFileSize(totalBytes) + ", "
+                        + copiedFiles + "/" + totalFiles + getStringResource(" файлов, ", " files, ")
+                        + formatFileSize(rate) + "/s\n");
+            }
 
-    private void listFiles() {
-        File directory = new File(currentDir);
+            @Override
+            public void onError(File file, IOException e) {
+                String errorMsg = getStringResource("Ошибка копирования: ", "Copy error: ") + file.getPath() + ": " + e.getMessage();
+                markFailed(sample);
+                printError(errorMsg + "\n");
+                logTerminalError(errorMsg);
+            }
 
-        if (!directory.canRead()) {
-            outputView.append(getStringResource("Доступ запрещен\n", "Access denied\n"));
-            logTerminalError("Доступ запрещен для директории: " + currentDir);
+            @Override
+            public void onSkipped(File link) {
+                printWarning(getStringResource("Пропущена символическая ссылка: ", "Skipping symbolic link: ") + link.getPath() + "\n");
+            }
+        };
+    }
+
+    private void diskUsageCommand(CommandLine line) {
+        boolean human = false;
+        int maxDepth = Integer.MAX_VALUE;
+        int top = 0;
+        List<String> paths = new ArrayList<>();
+        try {
+            List<String> args = line.getArguments();
+            for (int i = 0; i < args.size(); i++) {
+                String arg = args.get(i);
+                if (arg.startsWith("--max-depth=")) {
+                    maxDepth = parseCount(arg.substring("--max-depth=".length()));
+                } else if (arg.startsWith("--top=")) {
+                    top = parseCount(arg.substring("--top=".length()));
+                } else if (arg.equals("-d") || arg.equals("-n")) {
+                    if (i + 1 >= args.size()) {
+                        throw new IllegalArgumentException(arg);
+                    }
+                    int value = parseCount(args.get(++i));
+                    if (arg.equals("-d")) {
+                        maxDepth = value;
+                    } else {
+                        top = value;
+                    }
+                } else if (arg.matches("-[sh]+")) {
+                    human |= arg.indexOf('h') >= 0;
+                    if (arg.indexOf('s') >= 0) {
+                        maxDepth = 0;
+                    }
+                } else if (arg.startsWith("-") && arg.length() > 1) {
+                    throw new IllegalArgumentException(arg);
+                } else {
+                    paths.add(arg);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            printError(getStringResource("Использование: du [-s] [-h] [-d N|--max-depth=N] [-n N|--top=N] [директория...]\n",
+                    "Usage: du [-s] [-h] [-d N|--max-depth=N] [-n N|--top=N] [dir...]\n"));
+            logTerminalError("Неверная команда du: " + line.getRawArguments());
             return;
         }
+        if (paths.isEmpty()) {
+            paths.add(".");
+        }
 
-        File[] files = directory.listFiles();
-
-        if (files == null) {
-            outputView.append(getStringResource("Ошибка чтения директории\n", "Error reading directory\n"));
-            logTerminalError("Ошибка чтения директории: " + currentDir);
-            return;
+        for (String path : paths) {
+            File root = new File(DirectoryCache.normalize(resolvePath(path).getPath()));
+            if (!root.isDirectory()) {
+                String errorMsg = getStringResource("Директория не найдена: ", "Directory not found: ") + path;
+                printError(errorMsg + "\n");
+                logTerminalError(errorMsg);
+                continue;
+            }
+            try {
+                DiskUsage.Result result = diskUsage.measure(root, maxDepth, top);
+                recordVisited(result.directories);
+                StringBuilder output = new StringBuilder();
+                appendDiskUsage(output, result.root, human);
+                if (!result.largest.isEmpty()) {
+                    output.append(getStringResource("Крупнейшие директории:\n", "Largest directories:\n"));
+                    for (DiskUsage.Node node : result.largest) {
+                        output.append(formatDiskUsage(node.bytes, human)).append('\t').append(node.directory.getPath()).append('\n');
+                    }
+                }
+                print(output.toString());
+                if (!isOutputRedirected()) {
+                    print(result.directories + getStringResource(" директорий (", " directories (") + result.cachedDirectories
+                            + getStringResource(" из кеша), ", " cached), ") + TimeUnit.NANOSECONDS.toMillis(result.elapsedNanos) + " ms\n");
+                }
+                logToFile(terminalLog, "DU: " + root.getPath() + " - " + result.root.bytes + " байт, " + result.directories
+                        + " директорий, из кеша: " + result.cachedDirectories);
+            } catch (InterruptedException e) {
+                printError(getStringResource("Подсчёт прерван\n", "Disk usage interrupted\n"));
+                logToFile(terminalLog, "DU: " + root.getPath() + " - прервано");
+                return;
+            }
         }
+    }
 
-        if (files.length == 0) {
-            outputView.append(getStringResource("Директория пуста\n", "Directory is empty\n"));
+    private void findDuplicates(CommandLine line) {
+        long minSize = 1;
+        List<String> paths = new ArrayList<>();
+        try {
+            List<String> args = line.getArguments();
+            for (int i = 0; i < args.size(); i++) {
+                String arg = args.get(i);
+                if (arg.equals("--min-size")) {
+                    if (i + 1 >= args.size()) {
+                        throw new IllegalArgumentException(arg);
+                    }
+                    minSize = ByteSize.parse(args.get(++i));
+                } else if (arg.startsWith("--min-size=")) {
+                    minSize = ByteSize.parse(arg.substring("--min-size=".length()));
+                } else if (arg.startsWith("-") && arg.length() > 1) {
+                    throw new IllegalArgumentException(arg);
+                } else {
+                    paths.add(arg);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            printError(getStringResource("Использование: dupes [--min-size N[k|M|G]] [директория...]\n",
+                    "Usage: dupes [--min-size N[k|M|G]] [dir...]\n"));
+            logTerminalError("Неверная команда dupes: " + line.getRawArguments());
             return;
         }
+        if (paths.isEmpty()) {
+            paths.add(".");
+        }
+
+        boolean redirected = isOutputRedirected();
+        Consumer<String> out = printer();
+        Consumer<String> errors = console();
+        CommandMetrics.Sample sample = currentSample.get();
+        List<File> files = Collections.synchronizedList(new ArrayList<>());
+        DuplicateFinder finder = new DuplicateFinder(CommandExecutor.parallelPool(), new DuplicateFinder.Listener() {
+            @Override
+            public void onGroup(long size, List<File> group) {
+                StringBuilder output = new StringBuilder();
+                if (!redirected) {
+                    output.append("📑 ").append(group.size()).append(" × ").append(formatFileSize(size)).append('\n');
+                }
+                for (File file : group) {
+                    output.append(file.getPath()).append('\n');
+                }
+                out.accept(output.append('\n').toString());
+            }
 
-        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm", Locale.getDefault());
+            @Override
+            public void onError(File file, IOException e) {
+                markFailed(sample);
+                errors.accept(getStringResource("Ошибка чтения ", "Error reading ") + file.getPath() + ": " + e.getMessage() + "\n");
+            }
+        }, terminal::inodeOf);
 
-        for (File file : files) {
-            try {
-                if (!file.canRead()) {
-                    outputView.append("📄 " + file.getName() + getStringResource(" (доступ запрещен)\n", " (access denied)\n"));
+        try {
+            for (String path : paths) {
+                File root = resolvePath(path);
+                if (!root.isDirectory()) {
+                    String errorMsg = getStringResource("Директория не найдена: ", "Directory not found: ") + path;
+                    printError(errorMsg + "\n");
+                    logTerminalError(errorMsg);
                     continue;
                 }
+                new ParallelFinder(FindQuery.allFiles(), files::add).find(root);
+            }
+            if (!redirected) {
+                print(getStringResource("Проверка дубликатов среди ", "Checking for duplicates among ") + files.size()
+                        + getStringResource(" файлов...\n", " files...\n"));
+            }
 
-                String type = file.isDirectory() ? "📁 DIR" : "📄 FILE";
-                String size = file.isFile() ? " (" + formatFileSize(file.length()) + ")" : "";
-                String modified = sdf.format(new Date(file.lastModified()));
-                outputView.append(String.format("%s\t%s\t%s%s\n", type, modified, file.getName(), size));
-            } catch (SecurityException e) {
-                outputView.append("📄 " + file.getName() + getStringResource(" (ошибка доступа)\n", " (access error)\n"));
-            } catch (Exception e) {
-                outputView.append("📄 " + file.getName() + getStringResource(" (ошибка)\n", " (error)\n"));
+            DuplicateFinder.Result result = finder.find(files, minSize);
+            recordVisited(result.scannedFiles);
+            if (!redirected) {
+                print(getStringResource("Групп: ", "Groups: ") + result.groups
+                        + getStringResource(", лишних копий: ", ", redundant copies: ") + result.duplicateFiles
+                        + getStringResource(", можно освободить: ", ", reclaimable: ") + formatFileSize(result.reclaimableBytes) + "\n");
+                print(getStringResource("Полностью прочитано файлов: ", "Fully read files: ") + result.fullyHashedFiles
+                        + getStringResource(" из ", " of ") + result.candidateFiles + getStringResource(" кандидатов, ", " candidates, ")
+                        + formatFileSize(result.bytesRead) + ", " + TimeUnit.NANOSECONDS.toMillis(result.elapsedNanos) + " ms\n");
             }
+            logToFile(terminalLog, "DUPES: " + line.getRawArguments() + " - групп: " + result.groups
+                    + ", освобождаемо: " + result.reclaimableBytes + " байт");
+        } catch (InterruptedException e) {
+            finder.cancel();
+            printError(getStringResource("Поиск дубликатов прерван\n", "Duplicate search interrupted\n"));
+            logToFile(terminalLog, "DUPES: " + line.getRawArguments() + " - прервано");
         }
     }
 
-    private String formatFileSize(long size) {
-        if (size < 1024) return size + " B";
-        if (size < 1024 * 1024) return (size / 1024) + " KB";
-        return (size / (1024 * 1024)) + " MB";
+    private void appendDiskUsage(StringBuilder output, DiskUsage.Node node, boolean human) {
+        for (DiskUsage.Node child : node.children) {
+            appendDiskUsage(output, child, human);
+        }
+        output.append(formatDiskUsage(node.bytes, human)).append('\t').append(node.directory.getPath()).append('\n');
+        if (output.length() >= STREAM_BUFFER_CHARS) {
+            print(output.toString());
+            output.setLength(0);
+        }
     }
 
-    private void readFile(String filename) {
-        if (filename == null || filename.isEmpty()) {
-            outputView.append(getStringResource("Использование: cat <имя_файла>\n", "Usage: cat <filename>\n"));
-            logTerminalError("Пустая команда cat");
-            return;
-        }
+    private String formatDiskUsage(long bytes, boolean human) {
+        return human ? formatFileSize(bytes) : String.valueOf((bytes + 1023) / 1024);
+    }
 
-        File file;
-        if (filename.startsWith("/")) {
-            file = new File(filename);
-        } else {
-            file = new File(currentDir + "/" + filename);
+    private int parseCount(String value) {
+        try {
+            int count = Integer.parseInt(value);
+            if (count < 0) {
+                throw new IllegalArgumentException(value);
+            }
+            return count;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(value);
         }
+    }
 
-        if (!file.exists() || file.isDirectory()) {
-            String errorMsg = getStringResource("Файл не найден: ", "File not found: ") + filename;
-            outputView.append(errorMsg + "\n");
-            logTerminalError(errorMsg);
+    private void removeCommand(CommandLine line) {
+        boolean recursive = false;
+        boolean force = false;
+        boolean dryRun = false;
+        List<String> paths = new ArrayList<>();
+        for (String arg : line.getArguments()) {
+            if (arg.equals("--dry-run")) {
+                dryRun = true;
+            } else if (arg.matches("-[rRf]+")) {
+                recursive |= arg.indexOf('r') >= 0 || arg.indexOf('R') >= 0;
+                force |= arg.indexOf('f') >= 0;
+            } else {
+                paths.add(arg);
+            }
+        }
+        if (paths.isEmpty()) {
+            if (!force) {
+                printError(getStringResource("Использование: rm [-r] [-f] [--dry-run] <файл...>\n",
+                        "Usage: rm [-r] [-f] [--dry-run] <file...>\n"));
+                logTerminalError("Пустая команда rm");
+            }
             return;
         }
 
-        if (!file.canRead()) {
-            String errorMsg = getStringResource("Доступ запрещен: ", "Access denied: ") + filename;
-            outputView.append(errorMsg + "\n");
-            logTerminalError(errorMsg);
-            return;
+        for (String path : paths) {
+            File file = resolvePath(path);
+            if (force && !file.exists()) {
+                continue;
+            }
+            if (!recursive && !dryRun || !file.exists()) {
+                removeFile(path);
+                continue;
+            }
+            if (file.isDirectory() && !recursive) {
+                printError(getStringResource("Это директория (используйте -r): ", "Is a directory (use -r): ") + path + "\n");
+                continue;
+            }
+            if (!removeTree(path, file, dryRun)) {
+                return;
+            }
         }
+    }
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String line;
-            int lineCount = 0;
-            while ((line = reader.readLine()) != null && lineCount < 100) {
-                outputView.append(line + "\n");
-                lineCount++;
+    private boolean removeTree(String path, File file, boolean dryRun) {
+        CommandMetrics.Sample sample = currentSample.get();
+        FileRemover remover = new FileRemover(CommandExecutor.parallelPool(), new FileRemover.Listener() {
+            @Override
+            public void onProgress(long files, long directories, long bytes, long elapsedNanos) {
+                printWarning("… " + files + getStringResource(" файлов, ", " files, ") + directories
+                        + getStringResource(" директорий, ", " directories, ") + formatFileSize(bytes) + "\n");
             }
-            if (lineCount == 100) {
-                outputView.append(getStringResource("... (файл обрезан, слишком большой)\n", "... (file truncated, too large)\n"));
+
+            @Override
+            public void onError(File failed, IOException e) {
+                String errorMsg = getStringResource("Ошибка удаления: ", "Delete error: ") + failed.getPath() + ": " + e.getMessage();
+                markFailed(sample);
+                printError(errorMsg + "\n");
+                logTerminalError(errorMsg);
             }
-            logToFile(terminalLog, "CAT: " + filename + " (" + lineCount + " строк прочитано)");
-        } catch (IOException e) {
-            String errorMsg = getStringResource("Ошибка чтения: ", "Read error: ") + e.getMessage();
-            outputView.append(errorMsg + "\n");
-            logTerminalError(errorMsg);
+        }, dryRun);
+
+        try {
+            FileRemover.Result result = remover.remove(file);
+            recordVisited(result.files + result.directories);
+            if (!dryRun) {
+                invalidateListing(file);
+            }
+            String totals = result.files + getStringResource(" файлов, ", " files, ") + result.directories
+                    + getStringResource(" директорий, ", " directories, ") + formatFileSize(result.bytes)
+                    + ", " + TimeUnit.NANOSECONDS.toMillis(result.elapsedNanos) + " ms";
+            if (dryRun) {
+                print(getStringResource("Будет удалено: ", "Would remove: ") + path + " (" + totals + ")\n");
+            } else {
+                print(getStringResource("Удалено: ", "Deleted: ") + path + " (" + totals + ")\n");
+            }
+            logToFile(terminalLog, "RM: " + file.getPath() + (dryRun ? " (dry-run)" : "") + " - " + result.files
+                    + " файлов, " + result.directories + " директорий, ошибок: " + result.errors);
+            return true;
+        } catch (InterruptedException e) {
+            invalidateListing(file);
+            printError(getStringResource("Удаление прервано\n", "Removal interrupted\n"));
+            logToFile(terminalLog, "RM: " + file.getPath() + " - прервано");
+            return false;
         }
     }
 
     private void removeFile(String filename) {
         if (filename == null || filename.isEmpty()) {
-            outputView.append(getStringResource("Использование: rm <имя_файла>\n", "Usage: rm <filename>\n"));
+            printError(getStringResource("Использование: rm <имя_файла>\n", "Usage: rm <filename>\n"));
             logTerminalError("Пустая команда rm");
             return;
         }
@@ -676,37 +2389,39 @@ public class terminal extends AppCompatActivity {
 
         if (!file.exists()) {
             String errorMsg = getStringResource("Файл не найден: ", "File not found: ") + filename;
-            outputView.append(errorMsg + "\n");
+            printError(errorMsg + "\n");
             logTerminalError(errorMsg);
             return;
         }
 
         if (!file.canWrite()) {
             String errorMsg = getStringResource("Доступ запрещен: ", "Access denied: ") + filename;
-            outputView.append(errorMsg + "\n");
+            printError(errorMsg + "\n");
             logTerminalError(errorMsg);
             return;
         }
 
-        if (file.isDirectory() && file.listFiles() != null && file.listFiles().length > 0) {
-            outputView.append(getStringResource("Нельзя удалить: Директория не пуста\n", "Cannot remove: Directory not empty\n"));
+        String[] children = file.isDirectory() ? file.list() : null;
+        if (children != null && children.length > 0) {
+            printError(getStringResource("Нельзя удалить: Директория не пуста\n", "Cannot remove: Directory not empty\n"));
             logTerminalError("Нельзя удалить непустую директорию: " + filename);
             return;
         }
 
         if (file.delete()) {
-            outputView.append(getStringResource("Удалено: ", "Deleted: ") + filename + "\n");
+            invalidateListing(file);
+            print(getStringResource("Удалено: ", "Deleted: ") + filename + "\n");
             logToFile(terminalLog, "RM: " + filename + " - УСПЕХ");
         } else {
             String errorMsg = getStringResource("Ошибка удаления: ", "Delete error: ") + filename;
-            outputView.append(errorMsg + "\n");
+            printError(errorMsg + "\n");
             logTerminalError(errorMsg);
         }
     }
 
     private void createDirectory(String dirname) {
         if (dirname == null || dirname.isEmpty()) {
-            outputView.append(getStringResource("Использование: mkdir <директория>\n", "Usage: mkdir <directory>\n"));
+            printError(getStringResource("Использование: mkdir <директория>\n", "Usage: mkdir <directory>\n"));
             logTerminalError("Пустая команда mkdir");
             return;
         }
@@ -719,7 +2434,7 @@ public class terminal extends AppCompatActivity {
         }
 
         if (newDir.exists()) {
-            outputView.append(getStringResource("Директория уже существует: ", "Directory already exists: ") + dirname + "\n");
+            printError(getStringResource("Директория уже существует: ", "Directory already exists: ") + dirname + "\n");
             logTerminalError("Директория уже существует: " + dirname);
             return;
         }
@@ -727,24 +2442,25 @@ public class terminal extends AppCompatActivity {
         File parentDir = newDir.getParentFile();
         if (parentDir != null && !parentDir.canWrite()) {
             String errorMsg = getStringResource("Доступ запрещен: ", "Access denied: ") + parentDir.getAbsolutePath();
-            outputView.append(errorMsg + "\n");
+            printError(errorMsg + "\n");
             logTerminalError(errorMsg);
             return;
         }
 
         if (newDir.mkdir()) {
-            outputView.append(getStringResource("Директория создана: ", "Directory created: ") + dirname + "\n");
+            invalidateListing(newDir);
+            print(getStringResource("Директория создана: ", "Directory created: ") + dirname + "\n");
             logToFile(terminalLog, "MKDIR: " + dirname + " - УСПЕХ");
         } else {
             String errorMsg = getStringResource("Ошибка создания директории: ", "Error creating directory: ") + dirname;
-            outputView.append(errorMsg + "\n");
+            printError(errorMsg + "\n");
             logTerminalError(errorMsg);
         }
     }
 
     private void createFile(String filename) {
         if (filename == null || filename.isEmpty()) {
-            outputView.append(getStringResource("Использование: touch <имя_файла>\n", "Usage: touch <filename>\n"));
+            printError(getStringResource("Использование: touch <имя_файла>\n", "Usage: touch <filename>\n"));
             logTerminalError("Пустая команда touch");
             return;
         }
@@ -757,7 +2473,7 @@ public class terminal extends AppCompatActivity {
         }
 
         if (newFile.exists()) {
-            outputView.append(getStringResource("Файл уже существует: ", "File already exists: ") + filename + "\n");
+            printError(getStringResource("Файл уже существует: ", "File already exists: ") + filename + "\n");
             logTerminalError("Файл уже существует: " + filename);
             return;
         }
@@ -765,44 +2481,42 @@ public class terminal extends AppCompatActivity {
         File parentDir = newFile.getParentFile();
         if (parentDir != null && !parentDir.canWrite()) {
             String errorMsg = getStringResource("Доступ запрещен: ", "Access denied: ") + parentDir.getAbsolutePath();
-            outputView.append(errorMsg + "\n");
+            printError(errorMsg + "\n");
             logTerminalError(errorMsg);
             return;
         }
 
         try {
             if (newFile.createNewFile()) {
-                outputView.append(getStringResource("Файл создан: ", "File created: ") + filename + "\n");
+                invalidateListing(newFile);
+                print(getStringResource("Файл создан: ", "File created: ") + filename + "\n");
                 logToFile(terminalLog, "TOUCH: " + filename + " - УСПЕХ");
             } else {
                 String errorMsg = getStringResource("Ошибка создания файла: ", "Error creating file: ") + filename;
-                outputView.append(errorMsg + "\n");
+                printError(errorMsg + "\n");
                 logTerminalError(errorMsg);
             }
         } catch (IOException e) {
             String errorMsg = getStringResource("Ошибка: ", "Error: ") + e.getMessage();
-            outputView.append(errorMsg + "\n");
+            printError(errorMsg + "\n");
             logTerminalError(errorMsg);
         }
     }
 
     private void echoText(String text) {
         if (text == null || text.isEmpty()) {
-            outputView.append(getStringResource("Использование: echo <текст>\n", "Usage: echo <text>\n"));
+            printError(getStringResource("Использование: echo <текст>\n", "Usage: echo <text>\n"));
             logTerminalError("Пустая команда echo");
             return;
         }
 
-        if (text.startsWith("\"") && text.endsWith("\"")) {
-            text = text.substring(1, text.length() - 1);
-        }
-        outputView.append(text + "\n");
+        print(text + "\n");
         logToFile(terminalLog, "ECHO: " + text);
     }
 
     private void moveFile(String source, String destination) {
         if (source == null || destination == null || source.isEmpty() || destination.isEmpty()) {
-            outputView.append(getStringResource("Использование: mv <источник> <назначение>\n", "Usage: mv <source> <destination>\n"));
+            printError(getStringResource("Использование: mv <источник> <назначение>\n", "Usage: mv <source> <destination>\n"));
             logTerminalError("Неверная команда mv: источник или назначение пустое");
             return;
         }
@@ -824,14 +2538,14 @@ public class terminal extends AppCompatActivity {
 
         if (!srcFile.exists()) {
             String errorMsg = getStringResource("Исходный файл не найден: ", "Source file not found: ") + source;
-            outputView.append(errorMsg + "\n");
+            printError(errorMsg + "\n");
             logTerminalError(errorMsg);
             return;
         }
 
         if (!srcFile.canWrite()) {
             String errorMsg = getStringResource("Доступ запрещен: ", "Access denied: ") + source;
-            outputView.append(errorMsg + "\n");
+            printError(errorMsg + "\n");
             logTerminalError(errorMsg);
             return;
         }
@@ -840,7 +2554,7 @@ public class terminal extends AppCompatActivity {
         if (destParent != null && !destParent.exists()) {
             if (!destParent.mkdirs()) {
                 String errorMsg = getStringResource("Ошибка создания директории: ", "Error creating directory: ") + destParent.getAbsolutePath();
-                outputView.append(errorMsg + "\n");
+                printError(errorMsg + "\n");
                 logTerminalError(errorMsg);
                 return;
             }
@@ -848,68 +2562,313 @@ public class terminal extends AppCompatActivity {
 
         if (destParent != null && !destParent.canWrite()) {
             String errorMsg = getStringResource("Доступ запрещен: ", "Access denied: ") + destParent.getAbsolutePath();
-            outputView.append(errorMsg + "\n");
+            printError(errorMsg + "\n");
             logTerminalError(errorMsg);
             return;
         }
 
         if (srcFile.renameTo(destFile)) {
-            outputView.append(getStringResource("Перемещено: ", "Moved: ") + source + getStringResource(" в ", " to ") + destination + "\n");
+            invalidateListing(srcFile);
+            invalidateListing(destFile);
+            print(getStringResource("Перемещено: ", "Moved: ") + source + getStringResource(" в ", " to ") + destination + "\n");
             logToFile(terminalLog, "MV: " + source + " -> " + destination + " - УСПЕХ");
+        } else if (!destFile.exists() && copyThenDelete(srcFile, destFile)) {
+            print(getStringResource("Перемещено: ", "Moved: ") + source + getStringResource(" в ", " to ") + destination + "\n");
+            logToFile(terminalLog, "MV: " + source + " -> " + destination + " - УСПЕХ (копирование)");
         } else {
             String errorMsg = getStringResource("Ошибка перемещения: ", "Error moving: ") + source + getStringResource(" в ", " to ") + destination;
-            outputView.append(errorMsg + "\n");
+            printError(errorMsg + "\n");
             logTerminalError(errorMsg);
         }
     }
 
-    private void findFile(String pattern) {
-        if (pattern == null || pattern.isEmpty()) {
-            outputView.append(getStringResource("Использование: find <шаблон>\n", "Usage: find <pattern>\n"));
+    private void findFile(CommandLine line) {
+        if (line.size() == 0) {
+            printError(getStringResource("Использование: find [директория] [шаблон] [-name|-iname|-regex шаблон] [-type f|d] [-size ±N[k|M|G]] [-mtime ±дни] [-maxdepth N]\n",
+                    "Usage: find [dir] [pattern] [-name|-iname|-regex pattern] [-type f|d] [-size ±N[k|M|G]] [-mtime ±days] [-maxdepth N]\n"));
             logTerminalError("Пустая команда find");
             return;
         }
 
-        outputView.append(getStringResource("Поиск файлов содержащих '", "Searching for files containing '") + pattern + "'...\n");
-        findFilesRecursive(new File(currentDir), pattern, 0);
+        FindQuery query;
+        try {
+            query = FindQuery.parse(line.getArgumentArray());
+        } catch (IllegalArgumentException e) {
+            String errorMsg = getStringResource("Неверные параметры find: ", "Invalid find arguments: ") + e.getMessage();
+            printError(errorMsg + "\n");
+            logTerminalError(errorMsg);
+            return;
+        }
+
+        File root;
+        String startPath = query.getStartPath();
+        if (startPath == null) {
+            root = new File(currentDir);
+        } else if (startPath.startsWith("/")) {
+            root = new File(startPath);
+        } else {
+            root = new File(currentDir + "/" + startPath);
+        }
+
+        if (!root.isDirectory() || !root.canRead()) {
+            String errorMsg = getStringResource("Директория не найдена: ", "Directory not found: ") + root.getPath();
+            printError(errorMsg + "\n");
+            logTerminalError(errorMsg);
+            return;
+        }
+
+        if (!isOutputRedirected()) {
+            print(getStringResource("Поиск файлов по запросу '", "Searching for files matching '") + line.getRawArguments() + "'...\n");
+        }
+        if (query.isNameOnly() && fileIndex.isFresh() && fileIndex.covers(root)) {
+            findFilesIndexed(root, query);
+        } else {
+            findFilesRecursive(root, query);
+        }
+    }
+
+    private void findFilesIndexed(File root, FindQuery query) {
+        try {
+            long found = fileIndex.search(query.getSubstring(), root, query.getMaxDepth(), findListener());
+            if (!isOutputRedirected()) {
+                print(getStringResource("Найдено (индекс): ", "Found (index): ") + found + "\n");
+            }
+            logToFile(terminalLog, "FIND: " + root.getPath() + " - " + found + " найдено по индексу");
+        } catch (InterruptedException e) {
+            printError(getStringResource("Поиск прерван\n", "Search interrupted\n"));
+        }
+    }
+
+    private ParallelFinder.Listener findListener() {
+        Consumer<String> out = printer();
+        if (!isOutputRedirected()) {
+            return file -> out.accept("🔍 " + file.getAbsolutePath() + "\n");
+        }
+        return file -> out.accept(file.getAbsolutePath() + "\n");
     }
 
-    private void findFilesRecursive(File directory, String pattern, int depth) {
-        if (depth > 5) return;
+    private void locateFile(String pattern) {
+        if (pattern == null || pattern.isEmpty()) {
+            printError(getStringResource("Использование: locate <шаблон>\n", "Usage: locate <pattern>\n"));
+            logTerminalError("Пустая команда locate");
+            return;
+        }
 
-        if (!directory.exists() || !directory.canRead()) {
+        if (!fileIndex.isReady()) {
+            printError(getStringResource("Индекс файлов еще не построен, используйте updatedb\n", "File index is not built yet, use updatedb\n"));
             return;
         }
 
-        File[] files = directory.listFiles();
-        if (files == null) return;
+        if (!fileIndex.isFresh()) {
+            printWarning(getStringResource("Внимание: индекс файлов устарел, используйте updatedb\n", "Warning: file index is stale, use updatedb\n"));
+        }
 
-        for (File file : files) {
-            try {
-                if (!file.canRead()) continue;
+        try {
+            long found = fileIndex.search(pattern, fileIndex.getRoot(), Integer.MAX_VALUE,
+                    file -> print("🔍 " + file.getAbsolutePath() + "\n"));
+            print(getStringResource("Найдено: ", "Found: ") + found + "\n");
+            logToFile(terminalLog, "LOCATE: " + pattern + " - " + found + " найдено");
+        } catch (InterruptedException e) {
+            printError(getStringResource("Поиск прерван\n", "Search interrupted\n"));
+        }
+    }
 
-                if (file.getName().toLowerCase().contains(pattern.toLowerCase())) {
-                    outputView.append("🔍 " + file.getAbsolutePath() + "\n");
-                }
+    private void rebuildFileIndex() {
+        print(getStringResource("Построение индекса файлов: ", "Building file index: ") + fileIndex.getRoot().getAbsolutePath() + "\n");
+        if (updateFileIndex()) {
+            print(getStringResource("Индекс обновлен, записей: ", "Index updated, entries: ") + fileIndex.size() + "\n");
+        } else if (Thread.currentThread().isInterrupted()) {
+            printError(getStringResource("Построение индекса прервано\n", "Index build interrupted\n"));
+        } else {
+            printError(getStringResource("Индекс уже обновляется\n", "Index is already being updated\n"));
+        }
+    }
+
+    private void findFilesRecursive(File root, FindQuery query) {
+        ParallelFinder finder = new ParallelFinder(query, findListener(), directoryCache);
+        try {
+            long found = finder.find(root);
+            if (!isOutputRedirected()) {
+                print(getStringResource("Найдено: ", "Found: ") + found + "\n");
+            }
+            logToFile(terminalLog, "FIND: " + root.getPath() + " - " + found + " найдено");
+        } catch (InterruptedException e) {
+            printError(getStringResource("Поиск прерван\n", "Search interrupted\n"));
+            logToFile(terminalLog, "FIND: " + root.getPath() + " - прервано");
+        } finally {
+            recordVisited(finder.getVisitedCount());
+        }
+    }
 
+    private void grepCommand(CommandLine line) throws IOException {
+        Grep grep;
+        try {
+            grep = Grep.parse(line.getArgumentArray());
+        } catch (IllegalArgumentException e) {
+            printError(getStringResource("Использование: grep [-rinclF] [-A|-B|-C N] шаблон [файлы]\n",
+                    "Usage: grep [-rinclF] [-A|-B|-C N] pattern [files]\n") + e.getMessage() + "\n");
+            logTerminalError("Неверная команда grep: " + line.getRawArguments());
+            return;
+        }
+
+        Grep.Output output = grepOutput();
+        if (grep.getPaths().isEmpty() && !grep.isRecursive()) {
+            BufferedReader input = stageInput.get();
+            if (input == null) {
+                printError(getStringResource("Не указаны файлы для поиска\n", "No files to search\n"));
+                return;
+            }
+            grep.search(input, null, output);
+            return;
+        }
+
+        List<String> paths = grep.getPaths().isEmpty() ? Collections.singletonList(".") : grep.getPaths();
+        List<File> files = Collections.synchronizedList(new ArrayList<>());
+        try {
+            for (String path : paths) {
+                File file = resolvePath(path);
                 if (file.isDirectory()) {
-                    findFilesRecursive(file, pattern, depth + 1);
+                    if (!grep.isRecursive()) {
+                        printError(getStringResource("Это директория: ", "Is a directory: ") + path + "\n");
+                        continue;
+                    }
+                    new ParallelFinder(FindQuery.allFiles(), files::add).find(file);
+                } else if (file.isFile()) {
+                    files.add(file);
+                } else {
+                    printError(getStringResource("Файл не найден: ", "File not found: ") + path + "\n");
                 }
-            } catch (SecurityException e) {
             }
+
+            long matches = grep.searchFiles(files, files.size() > 1 || grep.isRecursive(), output,
+                    CommandExecutor.parallelPool());
+            recordVisited(files.size());
+            logToFile(terminalLog, "GREP: " + line.getRawArguments() + " - " + matches + " совпадений в " + files.size() + " файлах");
+        } catch (InterruptedException e) {
+            grep.cancel();
+            printError(getStringResource("Поиск прерван\n", "Search interrupted\n"));
+            logToFile(terminalLog, "GREP: " + line.getRawArguments() + " - прервано");
+        }
+    }
+
+    private Grep.Output grepOutput() {
+        Consumer<String> out = printer();
+        Consumer<String> errors = console();
+        CommandMetrics.Sample sample = currentSample.get();
+        return new Grep.Output() {
+            @Override
+            public void write(String text) {
+                out.accept(text);
+            }
+
+            @Override
+            public void error(File file, IOException e) {
+                markFailed(sample);
+                errors.accept(getStringResource("Ошибка чтения ", "Error reading ") + file.getPath() + ": " + e.getMessage() + "\n");
+            }
+        };
+    }
+
+    private void invalidateListing(File file) {
+        directoryCache.invalidate(file);
+        File parent = file.getParentFile();
+        if (parent != null) {
+            directoryCache.invalidate(parent);
+        }
+    }
+
+    private void handleCacheCommand(String args) {
+        if (args.isEmpty() || args.equals("stats")) {
+            print(getStringResource("Директорий в кеше: ", "Cached directories: ") + directoryCache.getDirectoryCount() + "\n");
+            print(getStringResource("Записей в кеше: ", "Cached entries: ") + directoryCache.getEntryCount() + "\n");
+            print(getStringResource("Попаданий: ", "Hits: ") + directoryCache.getHits()
+                    + getStringResource(", промахов: ", ", misses: ") + directoryCache.getMisses()
+                    + String.format(Locale.US, " (%.1f%%)", directoryCache.getHitRate() * 100) + "\n");
+            print(getStringResource("Инвалидаций: ", "Invalidations: ") + directoryCache.getInvalidations()
+                    + getStringResource(", вытеснений: ", ", evictions: ") + directoryCache.getEvictions() + "\n");
+            print(getStringResource("Размеров директорий (du): ", "Directory sizes (du): ") + diskUsage.getCachedDirectoryCount() + "\n");
+        } else if (args.equals("clear")) {
+            directoryCache.clear();
+            diskUsage.clear();
+            print(getStringResource("Кеш директорий очищен\n", "Directory cache cleared\n"));
+            logToFile(terminalLog, "CACHE: очищен");
+        } else {
+            printError(getStringResource("Использование: cache [stats|clear]\n", "Usage: cache [stats|clear]\n"));
+            logTerminalError("Неверная команда cache: " + args);
+        }
+    }
+
+    private void handleStatsCommand(String args) {
+        if (args.isEmpty()) {
+            showStats();
+        } else if (args.equals("reset")) {
+            commandMetrics.reset();
+            print(getStringResource("Статистика сброшена\n", "Statistics reset\n"));
+            logToFile(terminalLog, "STATS: сброшено");
+        } else if (args.equals("dump")) {
+            File file = dumpMetrics();
+            if (file != null) {
+                print(getStringResource("Метрики сохранены: ", "Metrics saved: ") + file.getPath() + "\n");
+            } else {
+                printError(getStringResource("Не удалось сохранить метрики\n", "Failed to save metrics\n"));
+            }
+        } else {
+            printError(getStringResource("Использование: stats [reset|dump]\n", "Usage: stats [reset|dump]\n"));
+            logTerminalError("Неверная команда stats: " + args);
+        }
+    }
+
+    private void showStats() {
+        List<CommandMetrics.Stats> snapshot = commandMetrics.snapshot();
+        StringBuilder output = new StringBuilder();
+        output.append(getStringResource("С ", "Since ")).append(new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.getDefault())
+                .format(new Date(commandMetrics.getStartedAt()))).append("\n");
+        output.append(String.format(Locale.US, "%-10s %6s %8s %8s %8s %8s %9s %7s %8s %5s\n",
+                getStringResource("команда", "command"), "n", "p50", "p90", "p99", "max",
+                getStringResource("вывод", "output"), getStringResource("строк", "lines"),
+                getStringResource("записей", "visited"), "jank"));
+        for (CommandMetrics.Stats stats : snapshot) {
+            LatencyHistogram latency = stats.getLatency();
+            output.append(String.format(Locale.US, "%-10s %6d %8s %8s %8s %8s %9s %7d %8d %5d",
+                    stats.getName(), latency.getCount(), formatDuration(latency.getValueAtPercentile(50)),
+                    formatDuration(latency.getValueAtPercentile(90)), formatDuration(latency.getValueAtPercentile(99)),
+                    formatDuration(latency.getMaxNanos()), formatFileSize(stats.getBytes()), stats.getLines(),
+                    stats.getVisited(), stats.getJankyFrames()));
+            if (stats.getErrors() > 0) {
+                output.append(getStringResource("  ошибок: ", "  errors: ")).append(stats.getErrors());
+            }
+            output.append("\n");
+        }
+        if (snapshot.isEmpty()) {
+            output.append(getStringResource("Нет данных\n", "No data\n"));
+        }
+        output.append(getStringResource("Кадров вывода: ", "Output frames: ")).append(commandMetrics.getFrames())
+                .append(getStringResource(", медленных (>16 мс): ", ", janky (>16 ms): ")).append(commandMetrics.getJankyFrames())
+                .append(getStringResource(", самый долгий: ", ", slowest: ")).append(formatDuration(commandMetrics.getSlowestFrameNanos()))
+                .append(", ").append(formatFileSize(commandMetrics.getFrameChars())).append("\n");
+        print(output.toString());
+    }
+
+    private String formatDuration(long nanos) {
+        if (nanos < TimeUnit.MILLISECONDS.toNanos(1)) {
+            return TimeUnit.NANOSECONDS.toMicros(nanos) + "us";
         }
+        if (nanos < TimeUnit.SECONDS.toNanos(1)) {
+            return String.format(Locale.US, "%.1fms", nanos / 1e6);
+        }
+        return String.format(Locale.US, "%.2fs", nanos / 1e9);
     }
 
     private void showDate() {
         SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.getDefault());
         String currentDate = sdf.format(new Date());
-        outputView.append(currentDate + "\n");
+        print(currentDate + "\n");
         logToFile(terminalLog, "DATE: " + currentDate);
     }
 
-    private void writeToFile(String filename, String text) {
+    private void writeToFile(String filename, Reader source) {
         if (filename == null || filename.isEmpty()) {
-            outputView.append(getStringResource("Использование: write имя_файла \"текст\"\n", "Usage: write filename \"text\"\n"));
+            printError(getStringResource("Использование: write имя_файла \"текст\"\n", "Usage: write filename \"text\"\n"));
             logTerminalError("Пустая команда write");
             return;
         }
@@ -925,7 +2884,7 @@ public class terminal extends AppCompatActivity {
         if (parentDir != null && !parentDir.exists()) {
             if (!parentDir.mkdirs()) {
                 String errorMsg = getStringResource("Ошибка создания директории: ", "Error creating directory: ") + parentDir.getAbsolutePath();
-                outputView.append(errorMsg + "\n");
+                printError(errorMsg + "\n");
                 logTerminalError(errorMsg);
                 return;
             }
@@ -933,38 +2892,107 @@ public class terminal extends AppCompatActivity {
 
         if (parentDir != null && !parentDir.canWrite()) {
             String errorMsg = getStringResource("Доступ запрещен: ", "Access denied: ") + parentDir.getAbsolutePath();
-            outputView.append(errorMsg + "\n");
+            printError(errorMsg + "\n");
             logTerminalError(errorMsg);
             return;
         }
 
-        try (FileWriter writer = new FileWriter(file, false)) {
-            writer.write(text);
-            outputView.append(getStringResource("Текст записан в файл: ", "Text written to file: ") + filename + "\n");
-            logToFile(terminalLog, "WRITE: " + filename + " - УСПЕХ (" + text.length() + " символов)");
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file, false), StandardCharsets.UTF_8)) {
+            long written = copy(source, writer);
+            invalidateListing(file);
+            print(getStringResource("Текст записан в файл: ", "Text written to file: ") + filename + "\n");
+            logToFile(terminalLog, "WRITE: " + filename + " - УСПЕХ (" + written + " символов)");
         } catch (IOException e) {
             String errorMsg = getStringResource("Ошибка записи: ", "Write error: ") + e.getMessage();
-            outputView.append(errorMsg + "\n");
+            printError(errorMsg + "\n");
             logTerminalError(errorMsg);
         }
     }
 
-    private void showCommandHistory() {
-        if (commandHistory.isEmpty()) {
-            outputView.append(getStringResource("История команд пуста\n", "Command history is empty\n"));
+    private void showCommandHistory(List<String> args) {
+        int count = DEFAULT_HISTORY_LINES;
+        if (!args.isEmpty()) {
+            try {
+                count = Integer.parseInt(args.get(0));
+            } catch (NumberFormatException e) {
+                count = -1;
+            }
+        }
+        if (count <= 0 || args.size() > 1) {
+            printError(getStringResource("Использование: history [количество]\n", "Usage: history [count]\n"));
+            logTerminalError("Неверная команда history: " + String.join(" ", args));
+            return;
+        }
+
+        int total = commandHistory.size();
+        List<String> history = commandHistory.tail(count);
+        if (history.isEmpty()) {
+            print(getStringResource("История команд пуста\n", "Command history is empty\n"));
+            return;
+        }
+
+        StringBuilder output = new StringBuilder(getStringResource("История команд:\n", "Command history:\n"));
+        int first = total - history.size() + 1;
+        for (int i = 0; i < history.size(); i++) {
+            output.append(first + i).append(": ").append(history.get(i)).append('\n');
+        }
+        print(output.toString());
+        logToFile(terminalLog, "HISTORY: показано " + history.size() + " команд");
+    }
+
+    private void showLogs(List<String> args) {
+        File logFile = terminalLog;
+        int lineCount = DEFAULT_LOG_LINES;
+
+        for (int i = 0; i < args.size(); i++) {
+            String arg = args.get(i);
+            if (arg.equals("-n") && i + 1 < args.size()) {
+                try {
+                    lineCount = Integer.parseInt(args.get(++i));
+                } catch (NumberFormatException e) {
+                    lineCount = -1;
+                }
+            } else if (arg.equals("terminal")) {
+                logFile = terminalLog;
+            } else if (arg.equals("app")) {
+                logFile = terminalAppLog;
+            } else if (arg.equals("error")) {
+                logFile = terminalAppErrorLog;
+            } else {
+                lineCount = -1;
+            }
+        }
+
+        if (lineCount <= 0) {
+            printError(getStringResource("Использование: logs [terminal|app|error] [-n строк]\n", "Usage: logs [terminal|app|error] [-n lines]\n"));
+            logTerminalError("Неверная команда logs: " + String.join(" ", args));
+            return;
+        }
+
+        if (logFile == null) {
+            printError(getStringResource("Логи не инициализированы\n", "Logs are not initialized\n"));
             return;
         }
 
-        outputView.append(getStringResource("История команд:\n", "Command history:\n"));
-        for (int i = 0; i < commandHistory.size(); i++) {
-            outputView.append((i + 1) + ": " + commandHistory.get(i) + "\n");
+        logWriter.drain(LOG_DRAIN_TIMEOUT_MS);
+
+        try {
+            List<String> lines = LogRotator.tail(logFile, lineCount);
+            if (lines.isEmpty()) {
+                print(getStringResource("Лог пуст\n", "Log is empty\n"));
+                return;
+            }
+            printLines(lines);
+        } catch (IOException e) {
+            String errorMsg = getStringResource("Ошибка чтения: ", "Read error: ") + e.getMessage();
+            printError(errorMsg + "\n");
+            logTerminalError(errorMsg);
         }
-        logToFile(terminalLog, "HISTORY: показано " + commandHistory.size() + " команд");
     }
 
     private void updatePrompt() {
-        String prompt = "\n$ ";
-        outputView.append(prompt);
+        print("\n");
+        outputSink.run(() -> appendOutput("$ ", true));
     }
 
     @Override
@@ -978,5 +3006,40 @@ public class terminal extends AppCompatActivity {
     protected void onPause() {
         super.onPause();
         hideKeyboard();
+        logWriter.drain(LOG_DRAIN_TIMEOUT_MS);
+        CommandExecutor.sharedPool().execute(this::dumpMetrics);
+
+        if (fileIndex != null && fileIndex.isDirty()) {
+            CommandExecutor.sharedPool().execute(() -> {
+                try {
+                    fileIndex.save(fileIndexStore);
+                } catch (IOException e) {
+                    logAppError("Ошибка сохранения индекса файлов: " + e.getMessage());
+                }
+            });
+        }
+    }
+
+    @Override
+    protected void onDestroy() {
+        commandExecutor.shutdown();
+        synchronized (jobs) {
+            for (Job job : jobs) {
+                job.cancel();
+            }
+        }
+        ShellSession session = shellSession;
+        if (session != null) {
+            session.destroy();
+        }
+        if (fileIndexWatcher != null) {
+            fileIndexWatcher.stop();
+        }
+        if (directoryCacheWatcher != null) {
+            directoryCache.setObserver(null);
+            directoryCacheWatcher.stop();
+        }
+        logWriter.close(LOG_DRAIN_TIMEOUT_MS);
+        super.onDestroy();
     }
 }
\ No newline at end of file
@@ -0,0 +1,88 @@
+package terminal.manager.benchmarks;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import terminal.manager.PagedFile;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CatBenchmark {
+
+    private static final int PAGE_LINES = 1000;
+
+    @Param({"16", "256", "1024"})
+    public int megabytes;
+
+    private File root;
+    private File file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        root = SyntheticTree.createTempRoot("cat-bench");
+        file = new File(root, "large.txt");
+        SyntheticTree.createTextFile(file, megabytes * 1024L * 1024L);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        SyntheticTree.delete(root);
+    }
+
+    @Benchmark
+    public long pagedFullScan(Blackhole blackhole) throws IOException {
+        long line = 0;
+        try (PagedFile paged = new PagedFile(file)) {
+            List<String> page;
+            while (!(page = paged.readLines(line, PAGE_LINES)).isEmpty()) {
+                blackhole.consume(page);
+                line += page.size();
+            }
+        }
+        return line;
+    }
+
+    @Benchmark
+    public List<String> pagedTail() throws IOException {
+        try (PagedFile paged = new PagedFile(file)) {
+            return paged.tail(100);
+        }
+    }
+
+    @Benchmark
+    public long bufferedReaderBaseline(Blackhole blackhole) throws IOException {
+        long lines = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                blackhole.consume(line);
+                lines++;
+            }
+        }
+        return lines;
+    }
+}
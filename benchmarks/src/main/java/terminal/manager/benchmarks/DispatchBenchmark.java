@@ -0,0 +1,70 @@
+package terminal.manager.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import terminal.manager.CommandLine;
+import terminal.manager.CommandRegistry;
+import terminal.manager.Pipeline;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DispatchBenchmark {
+
+    // Names registered by the app. Handlers are no-ops: this measures parsing and registry lookup, not the commands.
+    private static final String[] COMMANDS = {
+            "help", "pwd", "ls", "cd", "cat", "more", "head", "tail", "rm", "mkdir", "touch", "echo", "mv", "cp",
+            "du", "dupes", "jobs", "fg", "kill", "shell", "clear", "find", "grep", "locate", "updatedb", "date",
+            "write", "history", "back", "logs", "cache", "stats", "bkuzn"
+    };
+
+    @Param({"ls -la /sdcard/Download", "cat notes.txt | grep -n 'todo' | head -n 20 > out.txt",
+            "find /sdcard -name '*.jpg' -size +1M &"})
+    public String line;
+
+    private CommandRegistry registry;
+
+    @Setup
+    public void setUp() {
+        registry = new CommandRegistry();
+        for (String name : COMMANDS) {
+            registry.register(name, name, name, name, CommandRegistry.Completion.PATH, command -> {
+            });
+        }
+        registry.alias("dir", "ls");
+        registry.alias("less", "cat");
+    }
+
+    @Benchmark
+    public void parseCommandLine(Blackhole blackhole) {
+        blackhole.consume(CommandLine.parse(line));
+    }
+
+    @Benchmark
+    public void parseAndLookup(Blackhole blackhole) throws Exception {
+        Pipeline pipeline = Pipeline.parse(line);
+        for (CommandLine stage : pipeline.getStages()) {
+            CommandRegistry.Command command = registry.get(stage.getName());
+            if (command != null) {
+                command.getHandler().run(stage);
+            }
+            blackhole.consume(command);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package terminal.manager.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import terminal.manager.DirectoryCache;
+import terminal.manager.DirectoryLister;
+import terminal.manager.FindQuery;
+import terminal.manager.ParallelFinder;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FindBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int files;
+
+    @Param({"-name *.java", "-type d", "file-99"})
+    public String query;
+
+    private File root;
+    private ForkJoinPool pool;
+    private DirectoryCache cache;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, InterruptedException {
+        root = SyntheticTree.createTempRoot("find-bench");
+        SyntheticTree.createTree(root, files, 16, 200);
+        pool = new ForkJoinPool();
+        cache = new DirectoryCache(new DirectoryLister(true), 1 << 14, files * 2);
+        new ParallelFinder(FindQuery.parse(new String[]{"-type", "f"}), file -> {
+        }, pool, cache).find(root);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        pool.shutdown();
+        SyntheticTree.delete(root);
+    }
+
+    @Benchmark
+    public long findUncached() throws InterruptedException {
+        return run(null);
+    }
+
+    @Benchmark
+    public long findCached() throws InterruptedException {
+        return run(cache);
+    }
+
+    private long run(DirectoryCache directoryCache) throws InterruptedException {
+        LongAdder matches = new LongAdder();
+        ParallelFinder finder = new ParallelFinder(FindQuery.parse(query.split(" ")),
+                file -> matches.increment(), pool, directoryCache);
+        finder.find(root);
+        return matches.sum() + finder.getVisitedCount();
+    }
+}
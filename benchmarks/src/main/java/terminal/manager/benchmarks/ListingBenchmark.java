@@ -0,0 +1,73 @@
+package terminal.manager.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import terminal.manager.DirectoryCache;
+import terminal.manager.DirectoryLister;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ListingBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int entries;
+
+    @Param({"true", "false"})
+    public boolean useNio;
+
+    private File root;
+    private DirectoryLister lister;
+    private DirectoryCache cache;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        root = SyntheticTree.createTempRoot("ls-bench");
+        SyntheticTree.createFlat(root, entries);
+        lister = new DirectoryLister(useNio);
+        cache = new DirectoryCache(lister, 4, entries + 1);
+        cache.list(root);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        SyntheticTree.delete(root);
+    }
+
+    @Benchmark
+    public List<DirectoryLister.Entry> listUncached() throws IOException {
+        return lister.list(root, false);
+    }
+
+    @Benchmark
+    public List<DirectoryLister.Entry> listSortedBySize() throws IOException {
+        List<DirectoryLister.Entry> listed = lister.list(root, false);
+        DirectoryLister.sort(listed, DirectoryLister.SortKey.SIZE, false);
+        return listed;
+    }
+
+    @Benchmark
+    public List<DirectoryLister.Entry> listCached() throws IOException {
+        return cache.listSortedByName(root);
+    }
+}
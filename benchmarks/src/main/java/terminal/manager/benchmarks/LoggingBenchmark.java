@@ -0,0 +1,79 @@
+package terminal.manager.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import terminal.manager.AsyncLogWriter;
+import terminal.manager.LogRotator;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoggingBenchmark {
+
+    private static final int BATCH = 10_000;
+
+    @Param({"false", "true"})
+    public boolean rotate;
+
+    private File root;
+    private File log;
+    private AsyncLogWriter writer;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        root = SyntheticTree.createTempRoot("log-bench");
+        log = new File(root, "terminal.log");
+        writer = rotate
+                ? new AsyncLogWriter(new LogRotator(4L * 1024 * 1024, TimeUnit.DAYS.toMillis(1), 3,
+                ForkJoinPool.commonPool()))
+                : new AsyncLogWriter();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        writer.close(10_000);
+        ForkJoinPool.commonPool().awaitQuiescence(10, TimeUnit.SECONDS);
+        SyntheticTree.delete(root);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public boolean enqueueAndDrain() {
+        for (int i = 0; i < BATCH; i++) {
+            writer.log(log, "Команда выполнена: ls -la /sdcard/Download #" + i);
+        }
+        return writer.drain(10_000);
+    }
+
+    @Benchmark
+    @Threads(4)
+    @OperationsPerInvocation(BATCH)
+    public boolean enqueueContendedAndDrain() {
+        for (int i = 0; i < BATCH; i++) {
+            writer.log(log, "Команда выполнена: cat notes.txt | grep todo #" + i);
+        }
+        return writer.drain(10_000);
+    }
+}
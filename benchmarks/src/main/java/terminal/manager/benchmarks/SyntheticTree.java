@@ -0,0 +1,98 @@
+package terminal.manager.benchmarks;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Random;
+
+final class SyntheticTree {
+
+    private static final String[] EXTENSIONS = {".txt", ".log", ".java", ".png", ".json"};
+
+    private SyntheticTree() {
+    }
+
+    static File createTempRoot(String prefix) throws IOException {
+        return Files.createTempDirectory(prefix).toFile();
+    }
+
+    static void createFlat(File directory, int entries) throws IOException {
+        Files.createDirectories(directory.toPath());
+        for (int i = 0; i < entries; i++) {
+            String name = "entry-" + i + EXTENSIONS[i % EXTENSIONS.length];
+            if (i % 50 == 0) {
+                Files.createDirectory(new File(directory, name + ".d").toPath());
+            } else {
+                Files.createFile(new File(directory, name).toPath());
+            }
+        }
+    }
+
+    static void createTree(File root, int files, int fanout, int filesPerDirectory) throws IOException {
+        Files.createDirectories(root.toPath());
+        int created = 0;
+        int directoryIndex = 0;
+        while (created < files) {
+            File directory = directoryFor(root, directoryIndex++, fanout);
+            Files.createDirectories(directory.toPath());
+            for (int i = 0; i < filesPerDirectory && created < files; i++, created++) {
+                String name = "file-" + created + EXTENSIONS[created % EXTENSIONS.length];
+                Files.createFile(new File(directory, name).toPath());
+            }
+        }
+    }
+
+    private static File directoryFor(File root, int index, int fanout) {
+        StringBuilder path = new StringBuilder();
+        int remaining = index;
+        do {
+            path.insert(0, File.separator + "dir-" + (remaining % fanout));
+            remaining /= fanout;
+        } while (remaining > 0);
+        return new File(root, path.toString());
+    }
+
+    static void createTextFile(File file, long bytes) throws IOException {
+        Random random = new Random(42);
+        long written = 0;
+        try (BufferedWriter writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            StringBuilder line = new StringBuilder();
+            while (written < bytes) {
+                line.setLength(0);
+                line.append(written).append(' ');
+                int words = 4 + random.nextInt(12);
+                for (int i = 0; i < words; i++) {
+                    line.append("word").append(random.nextInt(1000)).append(' ');
+                }
+                line.append('\n');
+                writer.append(line);
+                written += line.length();
+            }
+        }
+    }
+
+    static void delete(File root) throws IOException {
+        if (root == null || !root.exists()) {
+            return;
+        }
+        Files.walkFileTree(root.toPath(), new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException e) throws IOException {
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
@@ -0,0 +1,223 @@
+package terminal.manager;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+public final class AsyncLogWriter {
+
+    private static final long FLUSH_INTERVAL_MS = 1000;
+    private static final int BUFFER_SIZE = 16 * 1024;
+    private static final long ROTATION_RETRY_MS = 10 * 60 * 1000;
+
+    private static final class Entry {
+        final File file;
+        final String message;
+        final long timestamp;
+        final CountDownLatch drained;
+
+        Entry(File file, String message, long timestamp, CountDownLatch drained) {
+            this.file = file;
+            this.message = message;
+            this.timestamp = timestamp;
+            this.drained = drained;
+        }
+    }
+
+    private static final class LogChannel {
+        final FileChannel channel;
+        final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        final long segmentStart;
+        long size;
+        long rotationRetryAt;
+        boolean rotationFailureLogged;
+
+        LogChannel(FileChannel channel, long segmentStart) throws IOException {
+            this.channel = channel;
+            this.segmentStart = segmentStart;
+            this.size = channel.size();
+        }
+    }
+
+    private final ConcurrentLinkedQueue<Entry> queue = new ConcurrentLinkedQueue<>();
+    private final Map<File, LogChannel> channels = new HashMap<>();
+    private final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.getDefault());
+    private final LogRotator rotator;
+    private final Thread thread;
+    private volatile boolean closed;
+    private long cachedSecond = -1;
+    private String cachedStamp;
+    private long lastFlushTime;
+
+    public AsyncLogWriter() {
+        this(null);
+    }
+
+    public AsyncLogWriter(LogRotator rotator) {
+        this.rotator = rotator;
+        thread = new Thread(this::run, "terminal-log-writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public void log(File file, String message) {
+        if (file == null || closed) {
+            return;
+        }
+        queue.offer(new Entry(file, message, System.currentTimeMillis(), null));
+    }
+
+    public boolean drain(long timeoutMs) {
+        if (closed) {
+            return false;
+        }
+        CountDownLatch drained = new CountDownLatch(1);
+        queue.offer(new Entry(null, null, 0, drained));
+        LockSupport.unpark(thread);
+        try {
+            return drained.await(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    public void close(long timeoutMs) {
+        drain(timeoutMs);
+        closed = true;
+        LockSupport.unpark(thread);
+    }
+
+    private void run() {
+        while (true) {
+            Entry entry;
+            while ((entry = queue.poll()) != null) {
+                if (entry.drained != null) {
+                    flushAll();
+                    entry.drained.countDown();
+                } else {
+                    write(entry);
+                }
+            }
+
+            if (System.currentTimeMillis() - lastFlushTime >= FLUSH_INTERVAL_MS) {
+                flushAll();
+            }
+
+            if (closed && queue.isEmpty()) {
+                break;
+            }
+            LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(FLUSH_INTERVAL_MS));
+        }
+        closeAll();
+    }
+
+    private void write(Entry entry) {
+        LogChannel logChannel = channels.get(entry.file);
+        try {
+            if (logChannel != null && rotator != null && entry.timestamp >= logChannel.rotationRetryAt
+                    && rotator.shouldRotate(logChannel.size, logChannel.segmentStart, entry.timestamp)) {
+                flush(logChannel);
+                if (rotator.rotate(entry.file)) {
+                    closeChannel(entry.file);
+                    logChannel = null;
+                } else {
+                    logChannel.rotationRetryAt = entry.timestamp + ROTATION_RETRY_MS;
+                    if (!logChannel.rotationFailureLogged) {
+                        logChannel.rotationFailureLogged = true;
+                        append(logChannel, entry.timestamp, "Не удалось выполнить ротацию журнала: " + entry.file.getName());
+                    }
+                }
+            }
+            if (logChannel == null) {
+                long segmentStart = rotator != null ? rotator.segmentStart(entry.file, entry.timestamp) : entry.timestamp;
+                logChannel = new LogChannel(new FileOutputStream(entry.file, true).getChannel(), segmentStart);
+                channels.put(entry.file, logChannel);
+            }
+
+            append(logChannel, entry.timestamp, entry.message);
+        } catch (IOException e) {
+            closeChannel(entry.file);
+        }
+    }
+
+    private void append(LogChannel logChannel, long timestamp, String message) throws IOException {
+        byte[] bytes = ("[" + formatTimestamp(timestamp) + "] " + message + "\n").getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > logChannel.buffer.remaining()) {
+            flush(logChannel);
+        }
+        if (bytes.length > logChannel.buffer.capacity()) {
+            writeFully(logChannel.channel, ByteBuffer.wrap(bytes));
+        } else {
+            logChannel.buffer.put(bytes);
+        }
+        logChannel.size += bytes.length;
+    }
+
+    private String formatTimestamp(long timestamp) {
+        long second = timestamp / 1000;
+        if (second != cachedSecond) {
+            cachedSecond = second;
+            cachedStamp = dateFormat.format(new Date(timestamp));
+        }
+        return cachedStamp;
+    }
+
+    private void flushAll() {
+        lastFlushTime = System.currentTimeMillis();
+        for (File file : channels.keySet().toArray(new File[0])) {
+            try {
+                flush(channels.get(file));
+            } catch (IOException e) {
+                closeChannel(file);
+            }
+        }
+    }
+
+    private void flush(LogChannel logChannel) throws IOException {
+        if (logChannel.buffer.position() == 0) {
+            return;
+        }
+        logChannel.buffer.flip();
+        try {
+            writeFully(logChannel.channel, logChannel.buffer);
+        } finally {
+            logChannel.buffer.clear();
+        }
+    }
+
+    private void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private void closeChannel(File file) {
+        LogChannel logChannel = channels.remove(file);
+        if (logChannel != null) {
+            try {
+                logChannel.channel.close();
+            } catch (IOException e) {
+            }
+        }
+    }
+
+    private void closeAll() {
+        flushAll();
+        for (File file : channels.keySet().toArray(new File[0])) {
+            closeChannel(file);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package terminal.manager;
+
+public final class ByteSize {
+
+    private ByteSize() {
+    }
+
+    public static long parse(String value) {
+        if (value.isEmpty()) {
+            throw new IllegalArgumentException(value);
+        }
+        long multiplier = unit(value.charAt(value.length() - 1));
+        String number = multiplier == 1 ? value : value.substring(0, value.length() - 1);
+        try {
+            long size = Long.parseLong(number);
+            if (size < 0) {
+                throw new IllegalArgumentException(value);
+            }
+            return Math.multiplyExact(size, multiplier);
+        } catch (NumberFormatException | ArithmeticException e) {
+            throw new IllegalArgumentException(value);
+        }
+    }
+
+    static long unit(char suffix) {
+        switch (suffix) {
+            case 'k':
+            case 'K':
+                return 1024;
+            case 'm':
+            case 'M':
+                return 1024L * 1024;
+            case 'g':
+            case 'G':
+                return 1024L * 1024 * 1024;
+            default:
+                return 1;
+        }
+    }
+}
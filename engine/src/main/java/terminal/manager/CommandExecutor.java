@@ -0,0 +1,137 @@
+package terminal.manager;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public final class CommandExecutor {
+
+    public interface Listener {
+        void onBusyChanged(boolean busy);
+    }
+
+    private static ExecutorService sharedPool;
+    private static ForkJoinPool parallelPool;
+    private static ExecutorService stagePool;
+
+    private final Executor pool;
+    private final ArrayDeque<Runnable> queue = new ArrayDeque<>();
+    private Listener listener;
+    private Runnable active;
+    private Thread runningThread;
+    private boolean busy;
+    private boolean shutdown;
+
+    public CommandExecutor() {
+        this(sharedPool());
+    }
+
+    public CommandExecutor(Executor pool) {
+        this.pool = pool;
+    }
+
+    public static synchronized ExecutorService sharedPool() {
+        if (sharedPool == null) {
+            int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+            AtomicInteger counter = new AtomicInteger();
+            sharedPool = Executors.newFixedThreadPool(threads, runnable -> {
+                Thread thread = new Thread(runnable, "terminal-worker-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return sharedPool;
+    }
+
+    public static synchronized ForkJoinPool parallelPool() {
+        if (parallelPool == null) {
+            parallelPool = new ForkJoinPool(Math.max(2, Runtime.getRuntime().availableProcessors()));
+        }
+        return parallelPool;
+    }
+
+    public static synchronized ExecutorService stagePool() {
+        if (stagePool == null) {
+            AtomicInteger counter = new AtomicInteger();
+            stagePool = Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "terminal-stage-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return stagePool;
+    }
+
+    public synchronized void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    public synchronized boolean isBusy() {
+        return busy;
+    }
+
+    public synchronized void submit(Runnable command) {
+        if (shutdown) {
+            return;
+        }
+
+        queue.offer(() -> {
+            setRunningThread(Thread.currentThread());
+            try {
+                command.run();
+            } finally {
+                setRunningThread(null);
+                Thread.interrupted();
+                scheduleNext();
+            }
+        });
+
+        if (!busy) {
+            busy = true;
+            notifyBusy(true);
+        }
+
+        if (active == null) {
+            scheduleNext();
+        }
+    }
+
+    public synchronized boolean interruptCurrent() {
+        if (runningThread == null) {
+            return false;
+        }
+        runningThread.interrupt();
+        return true;
+    }
+
+    public synchronized void shutdown() {
+        shutdown = true;
+        queue.clear();
+        if (runningThread != null) {
+            runningThread.interrupt();
+        }
+    }
+
+    private synchronized void scheduleNext() {
+        active = shutdown ? null : queue.poll();
+        if (active != null) {
+            pool.execute(active);
+        } else if (busy) {
+            busy = false;
+            notifyBusy(false);
+        }
+    }
+
+    private synchronized void setRunningThread(Thread thread) {
+        runningThread = thread;
+    }
+
+    private void notifyBusy(boolean value) {
+        if (listener != null) {
+            listener.onBusyChanged(value);
+        }
+    }
+}
@@ -0,0 +1,385 @@
+package terminal.manager;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+public final class CommandHistory {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private static final char[] NO_KEYS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private static final class Node {
+        final int depth;
+        String latest;
+        int count;
+        boolean terminal;
+        char[] keys = NO_KEYS;
+        Node[] children = NO_CHILDREN;
+
+        Node(int depth, String latest) {
+            this.depth = depth;
+            this.latest = latest;
+        }
+
+        Node child(char key) {
+            int index = Arrays.binarySearch(keys, key);
+            return index >= 0 ? children[index] : null;
+        }
+
+        void putChild(char key, Node node) {
+            int index = Arrays.binarySearch(keys, key);
+            if (index >= 0) {
+                children[index] = node;
+                return;
+            }
+            int insertAt = -index - 1;
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, insertAt);
+            System.arraycopy(children, 0, newChildren, 0, insertAt);
+            System.arraycopy(keys, insertAt, newKeys, insertAt + 1, keys.length - insertAt);
+            System.arraycopy(children, insertAt, newChildren, insertAt + 1, children.length - insertAt);
+            newKeys[insertAt] = key;
+            newChildren[insertAt] = node;
+            keys = newKeys;
+            children = newChildren;
+        }
+
+        void removeChild(char key) {
+            int index = Arrays.binarySearch(keys, key);
+            if (index < 0) {
+                return;
+            }
+            char[] newKeys = new char[keys.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(keys, 0, newKeys, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(keys, index + 1, newKeys, index, keys.length - index - 1);
+            System.arraycopy(children, index + 1, newChildren, index, children.length - index - 1);
+            keys = newKeys.length == 0 ? NO_KEYS : newKeys;
+            children = newChildren.length == 0 ? NO_CHILDREN : newChildren;
+        }
+    }
+
+    private final File file;
+    private final int maxEntries;
+    private final Executor writer;
+    private final HashMap<String, Integer> slots = new HashMap<>();
+    private String[] log = new String[MIN_CAPACITY];
+    private int[] live = new int[MIN_CAPACITY + 1];
+    private int length;
+    private int first;
+    private Node root = new Node(0, null);
+
+    public CommandHistory(File file, int maxEntries, Executor writer) {
+        this.file = file;
+        this.maxEntries = maxEntries;
+        this.writer = writer;
+    }
+
+    public void load(Runnable onLoaded) {
+        writer.execute(() -> {
+            List<String> stored = new ArrayList<>();
+            int storedLines = 0;
+            if (file.exists()) {
+                try (BufferedReader reader = new BufferedReader(
+                        new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        if (!line.isEmpty()) {
+                            stored.add(line);
+                            storedLines++;
+                        }
+                    }
+                } catch (IOException e) {
+                    stored.clear();
+                }
+            }
+
+            synchronized (this) {
+                stored.addAll(tail(slots.size()));
+                rebuild(stored);
+            }
+
+            if (storedLines > size() * 2 || storedLines > maxEntries) {
+                try {
+                    compact();
+                } catch (IOException ignored) {
+                }
+            }
+            if (onLoaded != null) {
+                onLoaded.run();
+            }
+        });
+    }
+
+    public boolean add(String command) {
+        String line = command.replace('\n', ' ').replace('\r', ' ');
+        boolean isNew;
+        synchronized (this) {
+            isNew = length == 0 || !line.equals(log[length - 1]);
+            if (isNew) {
+                addEntry(line);
+            }
+        }
+        if (isNew) {
+            writer.execute(() -> append(line));
+        }
+        return isNew;
+    }
+
+    public synchronized int size() {
+        return slots.size();
+    }
+
+    public synchronized String get(int position) {
+        if (position < 0 || position >= slots.size()) {
+            throw new IndexOutOfBoundsException("Index: " + position + ", Size: " + slots.size());
+        }
+        return log[select(position)];
+    }
+
+    public synchronized List<String> tail(int count) {
+        List<String> result = new ArrayList<>(Math.min(count, slots.size()));
+        if (count <= 0 || slots.isEmpty()) {
+            return result;
+        }
+        for (int slot = select(Math.max(0, slots.size() - count)); slot < length; slot++) {
+            if (log[slot] != null) {
+                result.add(log[slot]);
+            }
+        }
+        return result;
+    }
+
+    public synchronized int searchBackward(String query, int before) {
+        int from = before >= slots.size() ? length : before <= 0 ? first : select(before);
+        for (int slot = from - 1; slot >= first; slot--) {
+            if (log[slot] != null && log[slot].contains(query)) {
+                return rank(slot);
+            }
+        }
+        return -1;
+    }
+
+    public synchronized String expand(String designator) {
+        if (slots.isEmpty() || designator.length() < 2 || designator.charAt(0) != '!') {
+            return null;
+        }
+        String event = designator.substring(1);
+        if (event.equals("!")) {
+            return log[length - 1];
+        }
+        try {
+            int number = Integer.parseInt(event);
+            int position = number < 0 ? slots.size() + number : number - 1;
+            return position >= 0 && position < slots.size() ? log[select(position)] : null;
+        } catch (NumberFormatException e) {
+            return latestWithPrefix(event);
+        }
+    }
+
+    private void rebuild(List<String> lines) {
+        slots.clear();
+        log = new String[MIN_CAPACITY];
+        live = new int[MIN_CAPACITY + 1];
+        length = 0;
+        first = 0;
+        root = new Node(0, null);
+        for (String line : lines) {
+            addEntry(line);
+        }
+    }
+
+    private void addEntry(String line) {
+        Integer previous = slots.get(line);
+        if (previous != null) {
+            log[previous] = null;
+            update(previous, -1);
+        }
+        if (length == log.length) {
+            reallocate();
+        }
+        log[length] = line;
+        update(length, 1);
+        slots.put(line, length++);
+        index(line, previous == null);
+
+        if (slots.size() > maxEntries) {
+            while (log[first] == null) {
+                first++;
+            }
+            String oldest = log[first];
+            log[first] = null;
+            update(first, -1);
+            slots.remove(oldest);
+            unindex(oldest);
+        }
+    }
+
+    private void reallocate() {
+        int capacity = Math.max(MIN_CAPACITY, slots.size() * 2);
+        String[] packed = new String[capacity];
+        int count = 0;
+        for (int slot = first; slot < length; slot++) {
+            if (log[slot] != null) {
+                packed[count] = log[slot];
+                slots.put(log[slot], count++);
+            }
+        }
+        log = packed;
+        length = count;
+        first = 0;
+        live = new int[capacity + 1];
+        for (int i = 1; i <= capacity; i++) {
+            if (i <= count) {
+                live[i]++;
+            }
+            int parent = i + (i & -i);
+            if (parent <= capacity) {
+                live[parent] += live[i];
+            }
+        }
+    }
+
+    private void update(int slot, int delta) {
+        for (int i = slot + 1; i < live.length; i += i & -i) {
+            live[i] += delta;
+        }
+    }
+
+    private int rank(int slot) {
+        int sum = 0;
+        for (int i = slot; i > 0; i -= i & -i) {
+            sum += live[i];
+        }
+        return sum;
+    }
+
+    private int select(int position) {
+        int slot = 0;
+        int remaining = position + 1;
+        for (int step = Integer.highestOneBit(live.length - 1); step > 0; step >>= 1) {
+            int next = slot + step;
+            if (next < live.length && live[next] < remaining) {
+                slot = next;
+                remaining -= live[next];
+            }
+        }
+        return slot;
+    }
+
+    private void index(String line, boolean added) {
+        Node node = root;
+        int depth = 0;
+        while (true) {
+            if (added) {
+                node.count++;
+            }
+            node.latest = line;
+            if (depth == line.length()) {
+                node.terminal = true;
+                return;
+            }
+            char key = line.charAt(depth);
+            Node child = node.child(key);
+            if (child == null) {
+                child = new Node(line.length(), line);
+                node.putChild(key, child);
+                child.count = 1;
+                child.terminal = true;
+                return;
+            }
+            String label = child.latest;
+            int common = depth;
+            while (common < child.depth && common < line.length() && label.charAt(common) == line.charAt(common)) {
+                common++;
+            }
+            if (common < child.depth) {
+                Node split = new Node(common, label);
+                split.count = child.count;
+                split.putChild(label.charAt(common), child);
+                node.putChild(key, split);
+                child = split;
+            }
+            node = child;
+            depth = common;
+        }
+    }
+
+    private void unindex(String line) {
+        Node node = root;
+        node.count--;
+        int depth = 0;
+        while (depth < line.length()) {
+            char key = line.charAt(depth);
+            Node child = node.child(key);
+            if (--child.count == 0) {
+                node.removeChild(key);
+                return;
+            }
+            node = child;
+            depth = child.depth;
+        }
+        node.terminal = false;
+    }
+
+    private String latestWithPrefix(String prefix) {
+        Node node = root;
+        int depth = 0;
+        while (depth < prefix.length()) {
+            node = node.child(prefix.charAt(depth));
+            if (node == null) {
+                return null;
+            }
+            int end = Math.min(node.depth, prefix.length());
+            if (!node.latest.regionMatches(depth, prefix, depth, end - depth)) {
+                return null;
+            }
+            depth = end;
+        }
+        return node.count > 0 ? node.latest : null;
+    }
+
+    private void append(String line) {
+        try (Writer out = new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.UTF_8)) {
+            out.write(line);
+            out.write('\n');
+        } catch (IOException ignored) {
+        }
+    }
+
+    private void compact() throws IOException {
+        List<String> snapshot;
+        synchronized (this) {
+            snapshot = tail(slots.size());
+        }
+        File temp = new File(file.getPath() + ".tmp");
+        try (BufferedWriter out = new BufferedWriter(
+                new OutputStreamWriter(new FileOutputStream(temp), StandardCharsets.UTF_8))) {
+            for (String line : snapshot) {
+                out.write(line);
+                out.write('\n');
+            }
+        }
+        if (!temp.renameTo(file)) {
+            temp.delete();
+            throw new IOException("Cannot replace " + file.getPath());
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package terminal.manager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public final class CommandLine {
+
+    static final class Token {
+        final String text;
+        final boolean operator;
+        final int start;
+        final int end;
+
+        Token(String text, boolean operator, int start, int end) {
+            this.text = text;
+            this.operator = operator;
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    private final String name;
+    private final List<String> arguments;
+    private final String rawArguments;
+
+    private CommandLine(String name, List<String> arguments, String rawArguments) {
+        this.name = name;
+        this.arguments = arguments;
+        this.rawArguments = rawArguments;
+    }
+
+    public static CommandLine parse(String line) {
+        return of(lex(line, false), line);
+    }
+
+    static CommandLine of(List<Token> tokens, String source) {
+        if (tokens.isEmpty()) {
+            return new CommandLine("", Collections.emptyList(), "");
+        }
+        List<String> arguments = new ArrayList<>(tokens.size() - 1);
+        for (int i = 1; i < tokens.size(); i++) {
+            arguments.add(tokens.get(i).text);
+        }
+        String raw = tokens.size() > 1
+                ? source.substring(tokens.get(1).start, tokens.get(tokens.size() - 1).end) : "";
+        return new CommandLine(tokens.get(0).text, Collections.unmodifiableList(arguments), raw);
+    }
+
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        for (Token token : lex(text, false)) {
+            tokens.add(token.text);
+        }
+        return tokens;
+    }
+
+    static List<Token> lex(String text, boolean operators) {
+        List<Token> tokens = new ArrayList<>();
+        StringBuilder token = new StringBuilder();
+        int start = -1;
+        char quote = 0;
+
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quote == '\'') {
+                if (c == '\'') {
+                    quote = 0;
+                } else {
+                    token.append(c);
+                }
+            } else if (quote == '"') {
+                if (c == '"') {
+                    quote = 0;
+                } else if (c == '\\' && i + 1 < text.length() && (text.charAt(i + 1) == '"' || text.charAt(i + 1) == '\\')) {
+                    token.append(text.charAt(++i));
+                } else {
+                    token.append(c);
+                }
+            } else if (Character.isWhitespace(c)) {
+                if (start >= 0) {
+                    tokens.add(new Token(token.toString(), false, start, i));
+                    token.setLength(0);
+                    start = -1;
+                }
+            } else if (operators && (c == '|' || c == '>' || c == '<' || c == '&')) {
+                if (start >= 0) {
+                    tokens.add(new Token(token.toString(), false, start, i));
+                    token.setLength(0);
+                    start = -1;
+                }
+                if (c == '>' && i + 1 < text.length() && text.charAt(i + 1) == '>') {
+                    tokens.add(new Token(">>", true, i, i + 2));
+                    i++;
+                } else {
+                    tokens.add(new Token(String.valueOf(c), true, i, i + 1));
+                }
+            } else {
+                if (start < 0) {
+                    start = i;
+                }
+                if (c == '\'' || c == '"') {
+                    quote = c;
+                } else if (c == '\\' && i + 1 < text.length()) {
+                    token.append(text.charAt(++i));
+                } else {
+                    token.append(c);
+                }
+            }
+        }
+
+        if (quote != 0) {
+            throw new IllegalArgumentException("Unterminated quote");
+        }
+        if (start >= 0) {
+            tokens.add(new Token(token.toString(), false, start, text.length()));
+        }
+        return tokens;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<String> getArguments() {
+        return arguments;
+    }
+
+    public String[] getArgumentArray() {
+        return arguments.toArray(new String[0]);
+    }
+
+    public String getRawArguments() {
+        return rawArguments;
+    }
+
+    public int size() {
+        return arguments.size();
+    }
+
+    public String get(int index) {
+        return arguments.get(index);
+    }
+
+    public String joinArguments() {
+        return String.join(" ", arguments);
+    }
+}
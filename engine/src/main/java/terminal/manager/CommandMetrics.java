@@ -0,0 +1,236 @@
+package terminal.manager;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public final class CommandMetrics {
+
+    public static final String OTHER = "(other)";
+    public static final long JANK_THRESHOLD_NANOS = TimeUnit.MILLISECONDS.toNanos(16);
+
+    private static final int MAGIC = 0x544D4554;
+    private static final int FORMAT_VERSION = 1;
+
+    public static final class Sample {
+        private final Stats stats;
+        private final long startedAt = System.nanoTime();
+        private final long jankyFramesAtStart;
+        private final AtomicLong bytes = new AtomicLong();
+        private final AtomicLong lines = new AtomicLong();
+        private final AtomicLong visited = new AtomicLong();
+        private volatile boolean failed;
+
+        Sample(Stats stats, long jankyFramesAtStart) {
+            this.stats = stats;
+            this.jankyFramesAtStart = jankyFramesAtStart;
+        }
+
+        public void addOutput(CharSequence text) {
+            int length = text.length();
+            int newlines = 0;
+            for (int i = 0; i < length; i++) {
+                if (text.charAt(i) == '\n') {
+                    newlines++;
+                }
+            }
+            bytes.addAndGet(length);
+            if (newlines > 0) {
+                lines.addAndGet(newlines);
+            }
+        }
+
+        public void addVisited(long entries) {
+            visited.addAndGet(entries);
+        }
+
+        public void markFailed() {
+            failed = true;
+        }
+    }
+
+    public static final class Stats {
+        private final String name;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final AtomicLong errors = new AtomicLong();
+        private final AtomicLong bytes = new AtomicLong();
+        private final AtomicLong lines = new AtomicLong();
+        private final AtomicLong visited = new AtomicLong();
+        private final AtomicLong jankyFrames = new AtomicLong();
+
+        Stats(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public LatencyHistogram getLatency() {
+            return latency;
+        }
+
+        public long getErrors() {
+            return errors.get();
+        }
+
+        public long getBytes() {
+            return bytes.get();
+        }
+
+        public long getLines() {
+            return lines.get();
+        }
+
+        public long getVisited() {
+            return visited.get();
+        }
+
+        public long getJankyFrames() {
+            return jankyFrames.get();
+        }
+
+        void writeTo(DataOutputStream out) throws IOException {
+            out.writeUTF(name);
+            writeVarLong(out, errors.get());
+            writeVarLong(out, bytes.get());
+            writeVarLong(out, lines.get());
+            writeVarLong(out, visited.get());
+            writeVarLong(out, jankyFrames.get());
+            latency.writeTo(out);
+        }
+    }
+
+    private final int maxCommands;
+    private final ConcurrentHashMap<String, Stats> commands = new ConcurrentHashMap<>();
+    private final AtomicLong frames = new AtomicLong();
+    private final AtomicLong frameChars = new AtomicLong();
+    private final AtomicLong jankyFrames = new AtomicLong();
+    private final AtomicLong slowestFrameNanos = new AtomicLong();
+    private final AtomicLong updates = new AtomicLong();
+    private volatile long startedAt = System.currentTimeMillis();
+
+    public CommandMetrics(int maxCommands) {
+        this.maxCommands = maxCommands;
+    }
+
+    public Sample begin(String command) {
+        Stats stats = commands.get(command);
+        if (stats == null) {
+            String name = commands.size() < maxCommands ? command : OTHER;
+            stats = commands.computeIfAbsent(name, Stats::new);
+        }
+        return new Sample(stats, jankyFrames.get());
+    }
+
+    public void end(Sample sample, boolean failed) {
+        Stats stats = sample.stats;
+        stats.latency.record(System.nanoTime() - sample.startedAt);
+        if (failed || sample.failed) {
+            stats.errors.incrementAndGet();
+        }
+        stats.bytes.addAndGet(sample.bytes.get());
+        stats.lines.addAndGet(sample.lines.get());
+        stats.visited.addAndGet(sample.visited.get());
+        stats.jankyFrames.addAndGet(jankyFrames.get() - sample.jankyFramesAtStart);
+        updates.incrementAndGet();
+    }
+
+    public void recordFrame(long elapsedNanos, int chars) {
+        frames.incrementAndGet();
+        frameChars.addAndGet(chars);
+        if (elapsedNanos > JANK_THRESHOLD_NANOS) {
+            jankyFrames.incrementAndGet();
+        }
+        long slowest;
+        while (elapsedNanos > (slowest = slowestFrameNanos.get())
+                && !slowestFrameNanos.compareAndSet(slowest, elapsedNanos)) {
+        }
+    }
+
+    public List<Stats> snapshot() {
+        List<Stats> result = new ArrayList<>(commands.values());
+        Collections.sort(result, (a, b) -> Long.compare(b.latency.getTotalNanos(), a.latency.getTotalNanos()));
+        return result;
+    }
+
+    public long getFrames() {
+        return frames.get();
+    }
+
+    public long getFrameChars() {
+        return frameChars.get();
+    }
+
+    public long getJankyFrames() {
+        return jankyFrames.get();
+    }
+
+    public long getSlowestFrameNanos() {
+        return slowestFrameNanos.get();
+    }
+
+    public long getUpdates() {
+        return updates.get();
+    }
+
+    public long getStartedAt() {
+        return startedAt;
+    }
+
+    public void reset() {
+        commands.clear();
+        frames.set(0);
+        frameChars.set(0);
+        jankyFrames.set(0);
+        slowestFrameNanos.set(0);
+        updates.incrementAndGet();
+        startedAt = System.currentTimeMillis();
+    }
+
+    public void writeTo(OutputStream stream) throws IOException {
+        DataOutputStream out = new DataOutputStream(stream);
+        out.writeInt(MAGIC);
+        out.writeByte(FORMAT_VERSION);
+        out.writeLong(startedAt);
+        out.writeLong(System.currentTimeMillis());
+        writeVarLong(out, frames.get());
+        writeVarLong(out, frameChars.get());
+        writeVarLong(out, jankyFrames.get());
+        writeVarLong(out, slowestFrameNanos.get());
+        List<Stats> stats = snapshot();
+        writeVarLong(out, stats.size());
+        for (Stats entry : stats) {
+            entry.writeTo(out);
+        }
+        out.flush();
+    }
+
+    public void dump(File file) throws IOException {
+        File temp = new File(file.getPath() + ".tmp");
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(temp))) {
+            writeTo(out);
+        }
+        if (!temp.renameTo(file)) {
+            temp.delete();
+            throw new IOException("Cannot replace " + file.getPath());
+        }
+    }
+
+    static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+}
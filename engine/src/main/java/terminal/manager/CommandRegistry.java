@@ -0,0 +1,112 @@
+package terminal.manager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public final class CommandRegistry {
+
+    public enum Completion {
+        NONE, PATH, DIRECTORY
+    }
+
+    public interface Handler {
+        void run(CommandLine line) throws Exception;
+    }
+
+    public static final class Command {
+        private final String name;
+        private final String usage;
+        private final String helpRu;
+        private final String helpEn;
+        private final Completion completion;
+        private final Handler handler;
+        private List<String> words = Collections.emptyList();
+
+        Command(String name, String usage, String helpRu, String helpEn, Completion completion, Handler handler) {
+            this.name = name;
+            this.usage = usage;
+            this.helpRu = helpRu;
+            this.helpEn = helpEn;
+            this.completion = completion;
+            this.handler = handler;
+        }
+
+        public Command completeWords(String... words) {
+            List<String> sorted = new ArrayList<>();
+            Collections.addAll(sorted, words);
+            Collections.sort(sorted);
+            this.words = Collections.unmodifiableList(sorted);
+            return this;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getUsage() {
+            return usage;
+        }
+
+        public String getHelp(boolean russian) {
+            return russian ? helpRu : helpEn;
+        }
+
+        public Completion getCompletion() {
+            return completion;
+        }
+
+        public List<String> getWords() {
+            return words;
+        }
+
+        public Handler getHandler() {
+            return handler;
+        }
+    }
+
+    private final Map<String, Command> commands = new HashMap<>();
+    private final List<Command> ordered = new ArrayList<>();
+    private List<String> names;
+
+    public synchronized Command register(String name, String usage, String helpRu, String helpEn,
+                                         Completion completion, Handler handler) {
+        Command command = new Command(name, usage, helpRu, helpEn, completion, handler);
+        if (commands.put(name, command) != null) {
+            throw new IllegalStateException("Command already registered: " + name);
+        }
+        ordered.add(command);
+        names = null;
+        return command;
+    }
+
+    public synchronized void alias(String alias, String name) {
+        Command command = commands.get(name);
+        if (command == null) {
+            throw new IllegalArgumentException("Unknown command: " + name);
+        }
+        if (commands.put(alias, command) != null) {
+            throw new IllegalStateException("Command already registered: " + alias);
+        }
+        names = null;
+    }
+
+    public synchronized Command get(String name) {
+        return commands.get(name);
+    }
+
+    public synchronized List<Command> getCommands() {
+        return Collections.unmodifiableList(new ArrayList<>(ordered));
+    }
+
+    public synchronized List<String> getNames() {
+        if (names == null) {
+            List<String> sorted = new ArrayList<>(commands.keySet());
+            Collections.sort(sorted);
+            names = Collections.unmodifiableList(sorted);
+        }
+        return names;
+    }
+}
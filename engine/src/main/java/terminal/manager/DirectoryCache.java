@@ -0,0 +1,231 @@
+package terminal.manager;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public final class DirectoryCache {
+
+    public interface Observer {
+        boolean watch(String path);
+
+        void unwatch(String path);
+    }
+
+    static final long RACY_WINDOW_MS = 2000;
+
+    private static final class Listing {
+        final List<DirectoryLister.Entry> entries;
+        final long lastModified;
+        final long listedAt;
+        final boolean trusted;
+        volatile List<DirectoryLister.Entry> sortedByName;
+
+        Listing(List<DirectoryLister.Entry> entries, long lastModified, long listedAt, boolean trusted) {
+            this.entries = entries;
+            this.lastModified = lastModified;
+            this.listedAt = listedAt;
+            this.trusted = trusted;
+        }
+    }
+
+    private final DirectoryLister lister;
+    private final int maxDirectories;
+    private final int maxEntries;
+    private final LinkedHashMap<String, Listing> listings = new LinkedHashMap<>(16, 0.75f, true);
+    private Observer observer;
+    private int cachedEntries;
+    private long generation;
+    private long hits;
+    private long misses;
+    private long invalidations;
+    private long evictions;
+
+    public DirectoryCache(DirectoryLister lister, int maxDirectories, int maxEntries) {
+        this.lister = lister;
+        this.maxDirectories = maxDirectories;
+        this.maxEntries = maxEntries;
+    }
+
+    public synchronized void setObserver(Observer observer) {
+        this.observer = observer;
+    }
+
+    public List<DirectoryLister.Entry> list(File directory) throws IOException {
+        return lookup(directory).entries;
+    }
+
+    public List<DirectoryLister.Entry> listSortedByName(File directory) throws IOException {
+        Listing listing = lookup(directory);
+        List<DirectoryLister.Entry> sorted = listing.sortedByName;
+        if (sorted == null) {
+            List<DirectoryLister.Entry> copy = new ArrayList<>(listing.entries);
+            DirectoryLister.sort(copy, DirectoryLister.SortKey.NAME, false);
+            sorted = Collections.unmodifiableList(copy);
+            listing.sortedByName = sorted;
+        }
+        return sorted;
+    }
+
+    private Listing lookup(File directory) throws IOException {
+        String path = normalize(directory.getAbsolutePath());
+        Listing listing;
+        Observer currentObserver;
+        synchronized (this) {
+            listing = listings.get(path);
+            currentObserver = observer;
+        }
+
+        if (listing != null && (listing.trusted || isUnchanged(directory, listing))) {
+            synchronized (this) {
+                hits++;
+            }
+            return listing;
+        }
+
+        boolean watched = currentObserver != null && currentObserver.watch(path);
+        long startGeneration;
+        synchronized (this) {
+            misses++;
+            startGeneration = generation;
+        }
+
+        long listedAt = System.currentTimeMillis();
+        long lastModified = directory.lastModified();
+        List<DirectoryLister.Entry> entries = Collections.unmodifiableList(lister.list(directory, true));
+
+        Listing fresh;
+        synchronized (this) {
+            boolean trusted = watched && generation == startGeneration;
+            fresh = new Listing(entries, lastModified, listedAt, trusted);
+            put(path, fresh);
+        }
+        return fresh;
+    }
+
+    public void invalidate(File file) {
+        invalidate(file.getAbsolutePath());
+    }
+
+    public synchronized void invalidate(String path) {
+        path = normalize(path);
+        generation++;
+        Listing removed = listings.remove(path);
+        if (removed != null) {
+            invalidations++;
+            cachedEntries -= removed.entries.size();
+            if (observer != null) {
+                observer.unwatch(path);
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        generation++;
+        if (observer != null) {
+            for (String path : listings.keySet()) {
+                observer.unwatch(path);
+            }
+        }
+        listings.clear();
+        cachedEntries = 0;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getInvalidations() {
+        return invalidations;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized int getDirectoryCount() {
+        return listings.size();
+    }
+
+    public synchronized int getEntryCount() {
+        return cachedEntries;
+    }
+
+    public synchronized double getHitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    static String normalize(String path) {
+        if (path.indexOf("/.") < 0 && path.indexOf("//") < 0 && (path.length() == 1 || !path.endsWith("/"))) {
+            return path;
+        }
+        ArrayDeque<String> parts = new ArrayDeque<>();
+        for (String part : path.split("/")) {
+            if (part.isEmpty() || part.equals(".")) {
+                continue;
+            }
+            if (part.equals("..")) {
+                parts.pollLast();
+            } else {
+                parts.addLast(part);
+            }
+        }
+        if (parts.isEmpty()) {
+            return "/";
+        }
+        StringBuilder normalized = new StringBuilder(path.length());
+        for (String part : parts) {
+            normalized.append('/').append(part);
+        }
+        return normalized.toString();
+    }
+
+    private boolean isUnchanged(File directory, Listing listing) {
+        long lastModified = directory.lastModified();
+        return lastModified != 0 && lastModified == listing.lastModified
+                && listing.listedAt - lastModified >= RACY_WINDOW_MS;
+    }
+
+    private void put(String path, Listing listing) {
+        if (listing.entries.size() > maxEntries) {
+            Listing previous = listings.remove(path);
+            if (previous != null) {
+                cachedEntries -= previous.entries.size();
+            }
+            if (observer != null) {
+                observer.unwatch(path);
+            }
+            return;
+        }
+        Listing previous = listings.put(path, listing);
+        if (previous != null) {
+            cachedEntries -= previous.entries.size();
+        }
+        cachedEntries += listing.entries.size();
+
+        Iterator<Map.Entry<String, Listing>> eldest = listings.entrySet().iterator();
+        while ((listings.size() > maxDirectories || cachedEntries > maxEntries) && eldest.hasNext()) {
+            Map.Entry<String, Listing> entry = eldest.next();
+            if (entry.getKey().equals(path)) {
+                continue;
+            }
+            eldest.remove();
+            evictions++;
+            cachedEntries -= entry.getValue().entries.size();
+            if (observer != null) {
+                observer.unwatch(entry.getKey());
+            }
+        }
+    }
+}
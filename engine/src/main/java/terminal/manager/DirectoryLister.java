@@ -0,0 +1,127 @@
+package terminal.manager;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+public final class DirectoryLister {
+
+    public enum SortKey {
+        NAME, SIZE, TIME
+    }
+
+    public static final class Entry {
+        public final String name;
+        public final boolean isDirectory;
+        public final long size;
+        public final long lastModified;
+        public final boolean attributesAvailable;
+
+        Entry(String name, boolean isDirectory, long size, long lastModified, boolean attributesAvailable) {
+            this.name = name;
+            this.isDirectory = isDirectory;
+            this.size = size;
+            this.lastModified = lastModified;
+            this.attributesAvailable = attributesAvailable;
+        }
+    }
+
+    private final boolean useNio;
+
+    public DirectoryLister(boolean useNio) {
+        this.useNio = useNio;
+    }
+
+    public List<Entry> list(File directory, boolean includeHidden) throws IOException {
+        return useNio ? NioReader.list(directory, includeHidden) : listWithFile(directory, includeHidden);
+    }
+
+    public static void sort(List<Entry> entries, SortKey key, boolean reverse) {
+        Comparator<Entry> comparator;
+        switch (key) {
+            case SIZE:
+                comparator = (a, b) -> Long.compare(b.size, a.size);
+                break;
+            case TIME:
+                comparator = (a, b) -> Long.compare(b.lastModified, a.lastModified);
+                break;
+            default:
+                comparator = (a, b) -> a.name.compareTo(b.name);
+        }
+        if (key != SortKey.NAME) {
+            Comparator<Entry> primary = comparator;
+            comparator = (a, b) -> {
+                int result = primary.compare(a, b);
+                return result != 0 ? result : a.name.compareTo(b.name);
+            };
+        }
+        Collections.sort(entries, reverse ? Collections.reverseOrder(comparator) : comparator);
+    }
+
+    private static List<Entry> listWithFile(File directory, boolean includeHidden) throws IOException {
+        String[] names = directory.list();
+        if (names == null) {
+            throw new IOException("Cannot read directory: " + directory.getPath());
+        }
+
+        List<Entry> entries = new ArrayList<>(names.length);
+        for (String name : names) {
+            if (!includeHidden && name.startsWith(".")) {
+                continue;
+            }
+            File file = new File(directory, name);
+            try {
+                boolean isDirectory = file.isDirectory();
+                long lastModified = file.lastModified();
+                entries.add(new Entry(name, isDirectory, isDirectory ? 0 : file.length(), lastModified, lastModified != 0));
+            } catch (SecurityException e) {
+                entries.add(new Entry(name, false, 0, 0, false));
+            }
+        }
+        return entries;
+    }
+
+    private static final class NioReader {
+
+        static List<Entry> list(File directory, boolean includeHidden) throws IOException {
+            List<Entry> entries = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory.toPath())) {
+                for (Path path : stream) {
+                    String name = path.getFileName().toString();
+                    if (!includeHidden && name.startsWith(".")) {
+                        continue;
+                    }
+                    entries.add(read(path, name));
+                }
+            }
+            return entries;
+        }
+
+        private static Entry read(Path path, String name) {
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                return fromAttributes(name, attributes);
+            } catch (IOException | SecurityException e) {
+                try {
+                    return fromAttributes(name, Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS));
+                } catch (IOException | SecurityException ignored) {
+                    return new Entry(name, false, 0, 0, false);
+                }
+            }
+        }
+
+        private static Entry fromAttributes(String name, BasicFileAttributes attributes) {
+            boolean isDirectory = attributes.isDirectory();
+            return new Entry(name, isDirectory, isDirectory ? 0 : attributes.size(),
+                    attributes.lastModifiedTime().toMillis(), true);
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package terminal.manager;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+public final class DiskUsage {
+
+    public static final class Node {
+        public final File directory;
+        public final int depth;
+        public final long bytes;
+        public final long files;
+        public final List<Node> children;
+
+        Node(File directory, int depth, long bytes, long files, List<Node> children) {
+            this.directory = directory;
+            this.depth = depth;
+            this.bytes = bytes;
+            this.files = files;
+            this.children = children;
+        }
+    }
+
+    public static final class Result {
+        public final Node root;
+        public final List<Node> largest;
+        public final long directories;
+        public final long cachedDirectories;
+        public final long elapsedNanos;
+
+        Result(Node root, List<Node> largest, long directories, long cachedDirectories, long elapsedNanos) {
+            this.root = root;
+            this.largest = largest;
+            this.directories = directories;
+            this.cachedDirectories = cachedDirectories;
+            this.elapsedNanos = elapsedNanos;
+        }
+    }
+
+    private static final class Summary {
+        final long lastModified;
+        final long listedAt;
+        final long bytes;
+        final long files;
+        final String[] subdirectories;
+
+        Summary(long lastModified, long listedAt, long bytes, long files, String[] subdirectories) {
+            this.lastModified = lastModified;
+            this.listedAt = listedAt;
+            this.bytes = bytes;
+            this.files = files;
+            this.subdirectories = subdirectories;
+        }
+    }
+
+    private final ForkJoinPool pool;
+    private final int maxSummaries;
+    private final ConcurrentHashMap<String, Summary> summaries = new ConcurrentHashMap<>();
+
+    public DiskUsage(ForkJoinPool pool, int maxSummaries) {
+        this.pool = pool;
+        this.maxSummaries = maxSummaries;
+    }
+
+    public void clear() {
+        summaries.clear();
+    }
+
+    public int getCachedDirectoryCount() {
+        return summaries.size();
+    }
+
+    public Result measure(File root, int maxDepth, int top) throws InterruptedException {
+        long started = System.nanoTime();
+        Walk walk = new Walk(maxDepth, top);
+        ForkJoinTask<Node> task = pool.submit(walk.new DirectoryTask(root, 0));
+        Node node;
+        try {
+            node = task.get();
+        } catch (InterruptedException e) {
+            walk.cancelled.set(true);
+            throw e;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+        if (walk.cancelled.get()) {
+            throw new InterruptedException();
+        }
+        if (summaries.size() > maxSummaries) {
+            summaries.clear();
+        }
+
+        List<Node> largest = new ArrayList<>(walk.largest);
+        Collections.sort(largest, (a, b) -> Long.compare(b.bytes, a.bytes));
+        return new Result(node, largest, walk.directories.get(), walk.cached.get(), System.nanoTime() - started);
+    }
+
+    private final class Walk {
+        final int maxDepth;
+        final int top;
+        final AtomicBoolean cancelled = new AtomicBoolean();
+        final AtomicLong directories = new AtomicLong();
+        final AtomicLong cached = new AtomicLong();
+        final PriorityQueue<Node> largest = new PriorityQueue<>((a, b) -> Long.compare(a.bytes, b.bytes));
+
+        Walk(int maxDepth, int top) {
+            this.maxDepth = maxDepth;
+            this.top = top;
+        }
+
+        final class DirectoryTask extends RecursiveTask<Node> {
+            private final File directory;
+            private final int depth;
+
+            DirectoryTask(File directory, int depth) {
+                this.directory = directory;
+                this.depth = depth;
+            }
+
+            @Override
+            protected Node compute() {
+                if (cancelled.get()) {
+                    return null;
+                }
+                directories.incrementAndGet();
+                Summary summary = summarize(directory);
+                if (summary == null) {
+                    return new Node(directory, depth, 0, 0, Collections.emptyList());
+                }
+
+                List<DirectoryTask> subtasks = new ArrayList<>(summary.subdirectories.length);
+                for (String name : summary.subdirectories) {
+                    DirectoryTask task = new DirectoryTask(new File(directory, name), depth + 1);
+                    task.fork();
+                    subtasks.add(task);
+                }
+
+                long bytes = summary.bytes;
+                long files = summary.files;
+                boolean keepChildren = depth < maxDepth;
+                List<Node> children = keepChildren ? new ArrayList<>(subtasks.size()) : Collections.emptyList();
+                for (DirectoryTask task : subtasks) {
+                    Node child = task.join();
+                    if (child == null) {
+                        return null;
+                    }
+                    bytes += child.bytes;
+                    files += child.files;
+                    if (keepChildren) {
+                        children.add(child);
+                    }
+                }
+
+                Node node = new Node(directory, depth, bytes, files, children);
+                if (top > 0 && depth > 0) {
+                    offerLargest(node);
+                }
+                return node;
+            }
+        }
+
+        private void offerLargest(Node node) {
+            synchronized (largest) {
+                if (largest.size() < top) {
+                    largest.add(node);
+                } else if (largest.peek().bytes < node.bytes) {
+                    largest.poll();
+                    largest.add(node);
+                }
+            }
+        }
+
+        private Summary summarize(File directory) {
+            String path = directory.getPath();
+            long lastModified = directory.lastModified();
+            Summary summary = summaries.get(path);
+            if (summary != null && summary.lastModified == lastModified
+                    && summary.listedAt - lastModified >= DirectoryCache.RACY_WINDOW_MS) {
+                cached.incrementAndGet();
+                return summary;
+            }
+
+            long listedAt = System.currentTimeMillis();
+            File[] children = directory.listFiles();
+            if (children == null) {
+                summaries.remove(path);
+                return null;
+            }
+            long bytes = 0;
+            long files = 0;
+            List<String> subdirectories = new ArrayList<>();
+            for (File child : children) {
+                if (child.isDirectory()) {
+                    if (!FileLinks.isSymbolicLink(child)) {
+                        subdirectories.add(child.getName());
+                    }
+                } else {
+                    bytes += child.length();
+                    files++;
+                }
+            }
+            summary = new Summary(lastModified, listedAt, bytes, files, subdirectories.toArray(new String[0]));
+            summaries.put(path, summary);
+            return summary;
+        }
+    }
+}
@@ -0,0 +1,386 @@
+package terminal.manager;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+public final class DuplicateFinder {
+
+    public interface Listener {
+        void onGroup(long size, List<File> files);
+
+        void onError(File file, IOException e);
+    }
+
+    public static final class Result {
+        public final long scannedFiles;
+        public final long candidateFiles;
+        public final long fullyHashedFiles;
+        public final long groups;
+        public final long duplicateFiles;
+        public final long reclaimableBytes;
+        public final long bytesRead;
+        public final long elapsedNanos;
+
+        Result(long scannedFiles, long candidateFiles, long fullyHashedFiles, long groups, long duplicateFiles,
+               long reclaimableBytes, long bytesRead, long elapsedNanos) {
+            this.scannedFiles = scannedFiles;
+            this.candidateFiles = candidateFiles;
+            this.fullyHashedFiles = fullyHashedFiles;
+            this.groups = groups;
+            this.duplicateFiles = duplicateFiles;
+            this.reclaimableBytes = reclaimableBytes;
+            this.bytesRead = bytesRead;
+            this.elapsedNanos = elapsedNanos;
+        }
+    }
+
+    private static final int EDGE_BLOCK = 4096;
+    private static final long MAP_CHUNK = 8L * 1024 * 1024;
+
+    private static final class Digest {
+        final byte[] value;
+        final int hash;
+
+        Digest(byte[] value) {
+            this.value = value;
+            this.hash = Arrays.hashCode(value);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Digest && Arrays.equals(value, ((Digest) other).value);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private final ForkJoinPool pool;
+    private final Listener listener;
+    private final FileFollower.Identity identity;
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+    private final AtomicLong fullyHashed = new AtomicLong();
+    private final AtomicLong groups = new AtomicLong();
+    private final AtomicLong duplicates = new AtomicLong();
+    private final AtomicLong reclaimable = new AtomicLong();
+    private final AtomicLong bytesRead = new AtomicLong();
+
+    public DuplicateFinder(ForkJoinPool pool, Listener listener) {
+        this(pool, listener, new FileFollower.NioIdentity());
+    }
+
+    public DuplicateFinder(ForkJoinPool pool, Listener listener, FileFollower.Identity identity) {
+        this.pool = pool;
+        this.listener = listener;
+        this.identity = identity;
+    }
+
+    public void cancel() {
+        cancelled.set(true);
+    }
+
+    public Result find(List<File> files, long minSize) throws InterruptedException {
+        long started = System.nanoTime();
+        files = distinct(files);
+        Map<Long, List<File>> bySize = new HashMap<>();
+        for (File file : files) {
+            long size = file.length();
+            if (size >= Math.max(1, minSize)) {
+                List<File> group = bySize.get(size);
+                if (group == null) {
+                    group = new ArrayList<>(2);
+                    bySize.put(size, group);
+                }
+                group.add(file);
+            }
+        }
+
+        List<SizeTask> tasks = new ArrayList<>();
+        long candidates = 0;
+        for (Map.Entry<Long, List<File>> entry : bySize.entrySet()) {
+            if (entry.getValue().size() > 1) {
+                tasks.add(new SizeTask(entry.getKey(), entry.getValue()));
+                candidates += entry.getValue().size();
+            }
+        }
+        Collections.sort(tasks, (a, b) -> Long.compare(b.size, a.size));
+
+        ForkJoinTask<Void> task = pool.submit(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(tasks);
+            }
+        });
+        try {
+            task.get();
+        } catch (InterruptedException e) {
+            cancel();
+            throw e;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+        if (cancelled.get()) {
+            throw new InterruptedException();
+        }
+        return new Result(files.size(), candidates, fullyHashed.get(), groups.get(), duplicates.get(),
+                reclaimable.get(), bytesRead.get(), System.nanoTime() - started);
+    }
+
+    private List<File> distinct(List<File> files) {
+        List<File> result = new ArrayList<>(files.size());
+        Set<Object> seen = new HashSet<>();
+        Map<String, String> canonicalParents = new HashMap<>();
+        for (File file : files) {
+            File parent = file.getAbsoluteFile().getParentFile();
+            if (parent == null) {
+                continue;
+            }
+            String canonicalParent = canonicalParents.get(parent.getPath());
+            if (canonicalParent == null) {
+                try {
+                    canonicalParent = parent.getCanonicalPath();
+                } catch (IOException e) {
+                    listener.onError(file, e);
+                    continue;
+                }
+                canonicalParents.put(parent.getPath(), canonicalParent);
+            }
+            if (FileLinks.isSymbolicLink(canonicalParent, file)) {
+                continue;
+            }
+            Object key;
+            try {
+                key = identity.of(file);
+            } catch (IOException e) {
+                key = null;
+            }
+            if (seen.add(key != null ? key : new File(canonicalParent, file.getName()).getPath())) {
+                result.add(file);
+            }
+        }
+        return result;
+    }
+
+    private final class SizeTask extends RecursiveAction {
+        final long size;
+        private final List<File> files;
+
+        SizeTask(long size, List<File> files) {
+            this.size = size;
+            this.files = files;
+        }
+
+        @Override
+        protected void compute() {
+            boolean complete = size <= 2L * EDGE_BLOCK;
+            List<List<File>> partial = split(files, file -> edgeDigest(file, size));
+            for (List<File> group : partial) {
+                if (cancelled.get()) {
+                    return;
+                }
+                if (complete) {
+                    report(group);
+                    continue;
+                }
+                for (List<File> confirmed : split(group, file -> {
+                    Digest digest = fullDigest(file, size);
+                    fullyHashed.incrementAndGet();
+                    return digest;
+                })) {
+                    report(confirmed);
+                }
+            }
+        }
+
+        private void report(List<File> group) {
+            groups.incrementAndGet();
+            duplicates.addAndGet(group.size() - 1);
+            reclaimable.addAndGet(size * (group.size() - 1));
+            listener.onGroup(size, group);
+        }
+    }
+
+    private interface Hasher {
+        Digest hash(File file) throws IOException;
+    }
+
+    private List<List<File>> split(List<File> files, Hasher hasher) {
+        List<HashTask> tasks = new ArrayList<>(files.size());
+        for (File file : files) {
+            tasks.add(new HashTask(file, hasher));
+        }
+        ForkJoinTask.invokeAll(tasks);
+
+        Map<Digest, List<File>> byDigest = new HashMap<>();
+        for (HashTask task : tasks) {
+            Digest digest = task.join();
+            if (digest == null) {
+                continue;
+            }
+            List<File> group = byDigest.get(digest);
+            if (group == null) {
+                group = new ArrayList<>(2);
+                byDigest.put(digest, group);
+            }
+            group.add(task.file);
+        }
+
+        List<List<File>> result = new ArrayList<>();
+        for (List<File> group : byDigest.values()) {
+            if (group.size() > 1) {
+                result.add(group);
+            }
+        }
+        return result;
+    }
+
+    private final class HashTask extends RecursiveTask<Digest> {
+        final File file;
+        private final Hasher hasher;
+
+        HashTask(File file, Hasher hasher) {
+            this.file = file;
+            this.hasher = hasher;
+        }
+
+        @Override
+        protected Digest compute() {
+            if (cancelled.get()) {
+                return null;
+            }
+            try {
+                return hasher.hash(file);
+            } catch (IOException e) {
+                listener.onError(file, e);
+                return null;
+            }
+        }
+    }
+
+    private Digest edgeDigest(File file, long size) throws IOException {
+        MessageDigest digest = newDigest();
+        try (FileInputStream in = new FileInputStream(file)) {
+            FileChannel channel = in.getChannel();
+            if (channel.size() != size) {
+                throw new IOException("File changed during scan");
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(size, EDGE_BLOCK));
+            readFully(channel, buffer, 0);
+            digest.update(buffer);
+            if (size > EDGE_BLOCK) {
+                long tail = Math.min(EDGE_BLOCK, size - EDGE_BLOCK);
+                buffer.clear();
+                buffer.limit((int) tail);
+                readFully(channel, buffer, size - tail);
+                digest.update(buffer);
+            }
+        }
+        return new Digest(digest.digest());
+    }
+
+    private Digest fullDigest(File file, long size) throws IOException {
+        try (FileInputStream in = new FileInputStream(file)) {
+            FileChannel channel = in.getChannel();
+            if (channel.size() != size) {
+                throw new IOException("File changed during scan");
+            }
+            int chunks = (int) ((size + MAP_CHUNK - 1) / MAP_CHUNK);
+            List<ChunkTask> tasks = new ArrayList<>(chunks);
+            for (int i = 0; i < chunks; i++) {
+                long position = i * MAP_CHUNK;
+                tasks.add(new ChunkTask(channel, position, Math.min(MAP_CHUNK, size - position)));
+            }
+            ForkJoinTask.invokeAll(tasks);
+
+            MessageDigest digest = newDigest();
+            for (ChunkTask task : tasks) {
+                if (task.error != null) {
+                    throw task.error;
+                }
+                byte[] chunk = task.join();
+                if (chunk == null) {
+                    throw new IOException("Cancelled");
+                }
+                digest.update(chunk);
+            }
+            return new Digest(digest.digest());
+        }
+    }
+
+    private final class ChunkTask extends RecursiveTask<byte[]> {
+        private final FileChannel channel;
+        private final long position;
+        private final long length;
+        IOException error;
+
+        ChunkTask(FileChannel channel, long position, long length) {
+            this.channel = channel;
+            this.position = position;
+            this.length = length;
+        }
+
+        @Override
+        protected byte[] compute() {
+            if (cancelled.get()) {
+                return null;
+            }
+            try {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                MessageDigest digest = newDigest();
+                digest.update(buffer);
+                bytesRead.addAndGet(length);
+                return digest.digest();
+            } catch (IOException e) {
+                error = e;
+                return null;
+            }
+        }
+    }
+
+    private void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("File changed during scan");
+            }
+            position += read;
+        }
+        buffer.flip();
+        bytesRead.addAndGet(buffer.remaining());
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
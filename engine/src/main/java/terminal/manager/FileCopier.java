@@ -0,0 +1,242 @@
+package terminal.manager;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+public final class FileCopier {
+
+    public interface Listener {
+        void onProgress(long copiedBytes, long totalBytes, long copiedFiles, long totalFiles, long elapsedNanos);
+
+        void onError(File file, IOException e);
+
+        void onSkipped(File link);
+    }
+
+    public static final class Result {
+        public final long files;
+        public final long bytes;
+        public final long errors;
+        public final long skippedLinks;
+        public final long elapsedNanos;
+
+        Result(long files, long bytes, long errors, long skippedLinks, long elapsedNanos) {
+            this.files = files;
+            this.bytes = bytes;
+            this.errors = errors;
+            this.skippedLinks = skippedLinks;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public long getBytesPerSecond() {
+            return elapsedNanos > 0 ? bytes * 1_000_000_000L / elapsedNanos : bytes;
+        }
+    }
+
+    private static final long TRANSFER_CHUNK = 8L * 1024 * 1024;
+    private static final long PROGRESS_INTERVAL_MS = 1000;
+
+    private static final class Job {
+        final File source;
+        final File target;
+
+        Job(File source, File target) {
+            this.source = source;
+            this.target = target;
+        }
+    }
+
+    private final ForkJoinPool pool;
+    private final Listener listener;
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+    private final AtomicLong copiedBytes = new AtomicLong();
+    private final AtomicLong copiedFiles = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong skippedLinks = new AtomicLong();
+
+    public FileCopier(ForkJoinPool pool, Listener listener) {
+        this.pool = pool;
+        this.listener = listener;
+    }
+
+    public void cancel() {
+        cancelled.set(true);
+    }
+
+    public Result copy(File source, File target) throws IOException, InterruptedException {
+        long started = System.nanoTime();
+        List<Job> jobs = new ArrayList<>();
+        List<File[]> directories = new ArrayList<>();
+        long totalBytes;
+        if (source.isDirectory()) {
+            String sourcePath = source.getCanonicalPath() + File.separator;
+            String targetPath = target.getCanonicalPath() + File.separator;
+            if (targetPath.startsWith(sourcePath)) {
+                throw new IOException("Cannot copy a directory into itself");
+            }
+            totalBytes = plan(source, target, jobs, directories);
+        } else {
+            if (source.getCanonicalPath().equals(target.getCanonicalPath())) {
+                throw new IOException("Source and destination are the same file");
+            }
+            totalBytes = source.length();
+            jobs.add(new Job(source, target));
+        }
+
+        ForkJoinTask<Void> task = pool.submit(new CopyTask(jobs, 0, jobs.size()));
+        long nextReport = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(PROGRESS_INTERVAL_MS);
+        try {
+            while (true) {
+                try {
+                    task.get(PROGRESS_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                    break;
+                } catch (TimeoutException e) {
+                    long now = System.nanoTime();
+                    if (now >= nextReport) {
+                        listener.onProgress(copiedBytes.get(), totalBytes, copiedFiles.get(), jobs.size(), now - started);
+                        nextReport = now + TimeUnit.MILLISECONDS.toNanos(PROGRESS_INTERVAL_MS);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            cancel();
+            throw e;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+        if (cancelled.get()) {
+            throw new InterruptedException();
+        }
+
+        for (int i = directories.size() - 1; i >= 0; i--) {
+            File[] pair = directories.get(i);
+            pair[1].setLastModified(pair[0].lastModified());
+        }
+        return new Result(copiedFiles.get(), copiedBytes.get(), errors.get(), skippedLinks.get(), System.nanoTime() - started);
+    }
+
+    private long plan(File source, File target, List<Job> jobs, List<File[]> directories) throws InterruptedException {
+        ArrayList<File[]> pending = new ArrayList<>();
+        pending.add(new File[]{source, target});
+        long totalBytes = 0;
+
+        while (!pending.isEmpty()) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedException();
+            }
+            File[] pair = pending.remove(pending.size() - 1);
+            if (!pair[1].isDirectory() && !pair[1].mkdirs()) {
+                fail(pair[1], new IOException("Cannot create directory"));
+                continue;
+            }
+            directories.add(pair);
+
+            File[] children = pair[0].listFiles();
+            String canonicalPath;
+            try {
+                canonicalPath = children != null ? pair[0].getCanonicalPath() : null;
+            } catch (IOException e) {
+                canonicalPath = null;
+            }
+            if (canonicalPath == null) {
+                fail(pair[0], new IOException("Cannot read directory"));
+                continue;
+            }
+            for (File child : children) {
+                File childTarget = new File(pair[1], child.getName());
+                if (FileLinks.isSymbolicLink(canonicalPath, child)) {
+                    skippedLinks.incrementAndGet();
+                    listener.onSkipped(child);
+                } else if (child.isDirectory()) {
+                    pending.add(new File[]{child, childTarget});
+                } else {
+                    jobs.add(new Job(child, childTarget));
+                    totalBytes += child.length();
+                }
+            }
+        }
+        return totalBytes;
+    }
+
+    private final class CopyTask extends RecursiveAction {
+        private final List<Job> jobs;
+        private final int from;
+        private final int to;
+
+        CopyTask(List<Job> jobs, int from, int to) {
+            this.jobs = jobs;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (cancelled.get()) {
+                return;
+            }
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new CopyTask(jobs, from, middle), new CopyTask(jobs, middle, to));
+                return;
+            }
+            if (from < to) {
+                try {
+                    copyFile(jobs.get(from));
+                } catch (InterruptedIOException e) {
+                    FileCopier.this.cancel();
+                } catch (IOException e) {
+                    fail(jobs.get(from).source, e);
+                }
+            }
+        }
+    }
+
+    private void copyFile(Job job) throws IOException {
+        try (FileInputStream in = new FileInputStream(job.source);
+             FileOutputStream out = new FileOutputStream(job.target)) {
+            FileChannel input = in.getChannel();
+            FileChannel output = out.getChannel();
+            long size = input.size();
+            long position = 0;
+            while (position < size) {
+                if (cancelled.get() || Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedIOException();
+                }
+                long transferred = input.transferTo(position, Math.min(TRANSFER_CHUNK, size - position), output);
+                if (transferred <= 0) {
+                    break;
+                }
+                position += transferred;
+                copiedBytes.addAndGet(transferred);
+            }
+        } catch (InterruptedIOException e) {
+            job.target.delete();
+            throw e;
+        }
+        job.target.setLastModified(job.source.lastModified());
+        copiedFiles.incrementAndGet();
+    }
+
+    private void fail(File file, IOException e) {
+        errors.incrementAndGet();
+        listener.onError(file, e);
+    }
+}
@@ -0,0 +1,202 @@
+package terminal.manager;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+
+public final class FileFollower implements Closeable {
+
+    public interface Listener {
+        void onText(String text);
+
+        void onTruncated();
+
+        void onReplaced();
+
+        void onMissing();
+    }
+
+    public interface Identity {
+        Object of(File file) throws IOException;
+    }
+
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    private final File file;
+    private final Identity identity;
+    private final ByteBuffer bytes = ByteBuffer.allocate(BUFFER_BYTES);
+    private final CharBuffer chars = CharBuffer.allocate(BUFFER_BYTES);
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private RandomAccessFile randomAccessFile;
+    private FileChannel channel;
+    private Object openedIdentity;
+    private long position;
+    private boolean missing;
+    private boolean signalled;
+    private volatile boolean stopped;
+    private long bytesRead;
+
+    public FileFollower(File file, long position) throws IOException {
+        this(file, position, new NioIdentity());
+    }
+
+    public FileFollower(File file, long position, Identity identity) throws IOException {
+        this.file = file;
+        this.identity = identity;
+        this.position = position;
+        open();
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public long getPosition() {
+        return position;
+    }
+
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    public void stop() {
+        stopped = true;
+        wake();
+    }
+
+    public boolean poll(Listener listener) throws IOException {
+        if (channel == null) {
+            if (!file.isFile()) {
+                return false;
+            }
+            open();
+            position = 0;
+            missing = false;
+            listener.onReplaced();
+        }
+
+        boolean changed = drain(listener);
+        if (channel.size() < position) {
+            position = 0;
+            resetDecoder();
+            listener.onTruncated();
+            drain(listener);
+            return true;
+        }
+
+        long before = channel.size();
+        long length = file.length();
+        long after = channel.size();
+        Object current = identify();
+        if (!file.exists()) {
+            closeChannel();
+            if (!missing) {
+                missing = true;
+                listener.onMissing();
+            }
+            return true;
+        }
+        boolean replaced = current != null && openedIdentity != null
+                ? !current.equals(openedIdentity) : length < before || length > after;
+        if (replaced) {
+            drain(listener);
+            closeChannel();
+            poll(listener);
+            return true;
+        }
+        return changed;
+    }
+
+    public void await(long timeoutMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        synchronized (this) {
+            long remaining;
+            while (!signalled && (remaining = deadline - System.currentTimeMillis()) > 0) {
+                wait(remaining);
+            }
+            signalled = false;
+        }
+    }
+
+    public synchronized void wake() {
+        signalled = true;
+        notifyAll();
+    }
+
+    @Override
+    public void close() throws IOException {
+        closeChannel();
+    }
+
+    private void open() throws IOException {
+        randomAccessFile = new RandomAccessFile(file, "r");
+        channel = randomAccessFile.getChannel();
+        openedIdentity = identify();
+        resetDecoder();
+    }
+
+    private Object identify() {
+        try {
+            return identity.of(file);
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private boolean drain(Listener listener) throws IOException {
+        boolean changed = false;
+        int read;
+        while ((read = channel.read(bytes, position)) > 0) {
+            position += read;
+            bytesRead += read;
+            bytes.flip();
+            decoder.decode(bytes, chars, false);
+            bytes.compact();
+            chars.flip();
+            if (chars.hasRemaining()) {
+                listener.onText(chars.toString());
+            }
+            chars.clear();
+            changed = true;
+        }
+        return changed;
+    }
+
+    private void resetDecoder() {
+        decoder.reset();
+        bytes.clear();
+        chars.clear();
+    }
+
+    private void closeChannel() throws IOException {
+        if (randomAccessFile != null) {
+            RandomAccessFile closing = randomAccessFile;
+            randomAccessFile = null;
+            channel = null;
+            closing.close();
+        }
+    }
+
+    static final class NioIdentity implements Identity {
+
+        @Override
+        public Object of(File file) throws IOException {
+            return Files.readAttributes(file.toPath(), BasicFileAttributes.class).fileKey();
+        }
+    }
+}
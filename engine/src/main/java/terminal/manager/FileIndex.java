@@ -0,0 +1,634 @@
+package terminal.manager;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+public final class FileIndex {
+
+    private static final int MAGIC = 0x54494458;
+    private static final int VERSION = 1;
+    private static final int MAX_DEPTH = 32;
+    private static final long STALE_AFTER_MS = 15 * 60 * 1000;
+    private static final int SEARCH_BATCH = 4096;
+
+    private static final class Entry implements Comparable<Entry> {
+        final String path;
+        final boolean isDirectory;
+
+        Entry(String path, boolean isDirectory) {
+            this.path = path;
+            this.isDirectory = isDirectory;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            return path.compareTo(other.path);
+        }
+    }
+
+    private static final class IntList {
+        int[] values = new int[4];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int last() {
+            return size == 0 ? -1 : values[size - 1];
+        }
+    }
+
+    private static final class Snapshot {
+        final long builtAt;
+        final byte[] data;
+        final int[] offsets;
+        final BitSet directories;
+        final Map<Long, int[]> trigrams;
+
+        Snapshot(long builtAt, List<Entry> entries) {
+            this.builtAt = builtAt;
+            this.offsets = new int[entries.size() + 1];
+            this.directories = new BitSet(entries.size());
+
+            byte[][] encoded = new byte[entries.size()][];
+            int total = 0;
+            for (int i = 0; i < entries.size(); i++) {
+                encoded[i] = entries.get(i).path.getBytes(StandardCharsets.UTF_8);
+                total += encoded[i].length;
+            }
+
+            this.data = new byte[total];
+            Map<Long, IntList> postings = new HashMap<>();
+            int offset = 0;
+            for (int i = 0; i < entries.size(); i++) {
+                Entry entry = entries.get(i);
+                offsets[i] = offset;
+                System.arraycopy(encoded[i], 0, data, offset, encoded[i].length);
+                offset += encoded[i].length;
+                if (entry.isDirectory) {
+                    directories.set(i);
+                }
+
+                String name = lowerCase(nameOf(entry.path));
+                for (int j = 0; j + 3 <= name.length(); j++) {
+                    IntList posting = postings.get(trigram(name, j));
+                    if (posting == null) {
+                        posting = new IntList();
+                        postings.put(trigram(name, j), posting);
+                    }
+                    if (posting.last() != i) {
+                        posting.add(i);
+                    }
+                }
+            }
+            offsets[entries.size()] = offset;
+
+            this.trigrams = new HashMap<>(postings.size() * 2);
+            for (Map.Entry<Long, IntList> posting : postings.entrySet()) {
+                trigrams.put(posting.getKey(), Arrays.copyOf(posting.getValue().values, posting.getValue().size));
+            }
+        }
+
+        int size() {
+            return offsets.length - 1;
+        }
+
+        String path(int id) {
+            return new String(data, offsets[id], offsets[id + 1] - offsets[id], StandardCharsets.UTF_8);
+        }
+
+        String name(int id) {
+            int start = offsets[id];
+            int end = offsets[id + 1];
+            int nameStart = start;
+            for (int i = end - 1; i >= start; i--) {
+                if (data[i] == '/') {
+                    nameStart = i + 1;
+                    break;
+                }
+            }
+            return new String(data, nameStart, end - nameStart, StandardCharsets.UTF_8);
+        }
+    }
+
+    private final File root;
+    private final String rootPath;
+    private volatile Snapshot snapshot;
+    private final Map<String, Boolean> added = new HashMap<>();
+    private final Set<String> removed = new HashSet<>();
+    private final Object saveLock = new Object();
+    private final Set<String> removedTrees = new HashSet<>();
+    private boolean watching;
+    private boolean dirty;
+    private long validatedAt;
+    private volatile boolean buildCancelled;
+
+    public FileIndex(File root) {
+        this.root = root.getAbsoluteFile();
+        this.rootPath = this.root.getPath();
+    }
+
+    public File getRoot() {
+        return root;
+    }
+
+    public boolean isReady() {
+        return snapshot != null;
+    }
+
+    public synchronized boolean isFresh() {
+        Snapshot current = snapshot;
+        return current != null && (watching || System.currentTimeMillis() - validatedAt < STALE_AFTER_MS);
+    }
+
+    public synchronized boolean isDirty() {
+        return dirty;
+    }
+
+    public synchronized int size() {
+        Snapshot current = snapshot;
+        return (current != null ? current.size() : 0) + added.size();
+    }
+
+    public boolean covers(File directory) {
+        String path = directory.getAbsolutePath();
+        return path.equals(rootPath) || path.startsWith(rootPath + "/");
+    }
+
+    public synchronized void setWatching(boolean watching) {
+        this.watching = watching;
+    }
+
+    public void build() throws InterruptedException {
+        ConcurrentLinkedQueue<Entry> collected = new ConcurrentLinkedQueue<>();
+        ForkJoinPool pool = CommandExecutor.parallelPool();
+        buildCancelled = false;
+        ForkJoinTask<Void> task = pool.submit(new WalkTask(root, "", 1, collected));
+        try {
+            task.get();
+        } catch (InterruptedException e) {
+            buildCancelled = true;
+            throw e;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+
+        List<Entry> entries = new ArrayList<>(collected);
+        Collections.sort(entries);
+        Snapshot built = new Snapshot(System.currentTimeMillis(), entries);
+        synchronized (this) {
+            snapshot = built;
+            validatedAt = built.builtAt;
+            added.clear();
+            removed.clear();
+            removedTrees.clear();
+            dirty = true;
+        }
+    }
+
+    public int revalidate() throws InterruptedException {
+        long started = System.currentTimeMillis();
+        long since;
+        synchronized (this) {
+            if (snapshot == null) {
+                return 0;
+            }
+            since = validatedAt - DirectoryCache.RACY_WINDOW_MS;
+        }
+
+        List<String> directories = directories();
+        directories.add(0, rootPath);
+        int rescanned = 0;
+        for (String path : directories) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            File directory = new File(path);
+            if (directory.lastModified() >= since) {
+                rescan(directory);
+                rescanned++;
+            }
+        }
+        synchronized (this) {
+            validatedAt = started;
+            dirty = true;
+        }
+        return rescanned;
+    }
+
+    private void rescan(File directory) {
+        String relative = relativePath(directory.getAbsolutePath());
+        String[] names = directory.list();
+        if (relative == null || names == null) {
+            return;
+        }
+        Set<String> known = children(relative);
+        Set<String> present = new HashSet<>(Arrays.asList(names));
+        int depth = relative.isEmpty() ? 1 : depthOf(relative) + 1;
+        for (String name : names) {
+            if (!known.contains(name)) {
+                addTree(new File(directory, name), depth);
+            }
+        }
+        for (String name : known) {
+            if (!present.contains(name)) {
+                remove(new File(directory, name).getPath());
+            }
+        }
+    }
+
+    private void addTree(File file, int depth) {
+        boolean isDirectory = file.isDirectory();
+        add(file.getAbsolutePath(), isDirectory);
+        File[] children = isDirectory && depth < MAX_DEPTH ? file.listFiles() : null;
+        if (children != null) {
+            for (File child : children) {
+                addTree(child, depth + 1);
+            }
+        }
+    }
+
+    private synchronized Set<String> children(String relative) {
+        String prefix = relative.isEmpty() ? "" : relative + "/";
+        Set<String> names = new HashSet<>();
+        Snapshot current = snapshot;
+        int low = 0;
+        int high = current.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (current.path(middle).compareTo(prefix) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        for (int id = low; id < current.size(); id++) {
+            String path = current.path(id);
+            if (!path.startsWith(prefix)) {
+                break;
+            }
+            if (path.indexOf('/', prefix.length()) < 0 && isVisible(path)) {
+                names.add(path.substring(prefix.length()));
+            }
+        }
+        for (String path : added.keySet()) {
+            if (path.startsWith(prefix) && path.indexOf('/', prefix.length()) < 0) {
+                names.add(path.substring(prefix.length()));
+            }
+        }
+        return names;
+    }
+
+    private static int depthOf(String relative) {
+        int depth = 1;
+        for (int i = 0; i < relative.length(); i++) {
+            if (relative.charAt(i) == '/') {
+                depth++;
+            }
+        }
+        return depth;
+    }
+
+    public synchronized void add(String absolutePath, boolean isDirectory) {
+        String path = relativePath(absolutePath);
+        if (path == null || path.isEmpty()) {
+            return;
+        }
+        removed.remove(path);
+        added.put(path, isDirectory);
+        dirty = true;
+    }
+
+    public synchronized void remove(String absolutePath) {
+        String path = relativePath(absolutePath);
+        if (path == null || path.isEmpty()) {
+            return;
+        }
+        String prefix = path + "/";
+        added.remove(path);
+        added.keySet().removeIf(candidate -> candidate.startsWith(prefix));
+        removed.add(path);
+        removedTrees.add(path);
+        dirty = true;
+    }
+
+    public synchronized List<String> directories() {
+        List<String> directories = new ArrayList<>();
+        Snapshot current = snapshot;
+        if (current != null) {
+            for (int id = current.directories.nextSetBit(0); id >= 0; id = current.directories.nextSetBit(id + 1)) {
+                String path = current.path(id);
+                if (isVisible(path)) {
+                    directories.add(rootPath + "/" + path);
+                }
+            }
+        }
+        for (Map.Entry<String, Boolean> entry : added.entrySet()) {
+            if (entry.getValue()) {
+                directories.add(rootPath + "/" + entry.getKey());
+            }
+        }
+        return directories;
+    }
+
+    public long search(String substring, File within, int maxDepth, ParallelFinder.Listener listener)
+            throws InterruptedException {
+        Snapshot current = snapshot;
+        String relative = relativePath(within.getAbsolutePath());
+        if (current == null || relative == null) {
+            return 0;
+        }
+        String prefix = relative.isEmpty() ? "" : relative + "/";
+
+        String needle = lowerCase(substring);
+        long matches = 0;
+        int[] candidates = candidates(current, needle);
+        int count = candidates != null ? candidates.length : current.size();
+        List<String> named = new ArrayList<>();
+        List<String> found = new ArrayList<>();
+        for (int start = 0; start < count; start += SEARCH_BATCH) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            int end = Math.min(count, start + SEARCH_BATCH);
+            for (int i = start; i < end; i++) {
+                int id = candidates != null ? candidates[i] : i;
+                if (FindQuery.containsIgnoreCase(current.name(id), needle)) {
+                    String path = current.path(id);
+                    if (isWithin(path, prefix, maxDepth)) {
+                        named.add(path);
+                    }
+                }
+            }
+            if (named.isEmpty()) {
+                continue;
+            }
+            synchronized (this) {
+                for (String path : named) {
+                    if (isVisible(path) && !added.containsKey(path)) {
+                        found.add(path);
+                    }
+                }
+            }
+            named.clear();
+            matches += deliver(found, listener);
+        }
+
+        synchronized (this) {
+            for (String path : added.keySet()) {
+                if (FindQuery.containsIgnoreCase(nameOf(path), needle) && isWithin(path, prefix, maxDepth)) {
+                    found.add(path);
+                }
+            }
+        }
+        return matches + deliver(found, listener);
+    }
+
+    private long deliver(List<String> paths, ParallelFinder.Listener listener) {
+        for (String path : paths) {
+            listener.onMatch(new File(rootPath + "/" + path));
+        }
+        int delivered = paths.size();
+        paths.clear();
+        return delivered;
+    }
+
+    public boolean load(File store) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(store), 64 * 1024))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || !in.readUTF().equals(rootPath)) {
+                return false;
+            }
+            long builtAt = in.readLong();
+            int count = in.readInt();
+            List<Entry> entries = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                boolean isDirectory = in.readBoolean();
+                byte[] bytes = new byte[in.readUnsignedShort()];
+                in.readFully(bytes);
+                entries.add(new Entry(new String(bytes, StandardCharsets.UTF_8), isDirectory));
+            }
+            Snapshot loaded = new Snapshot(builtAt, entries);
+            synchronized (this) {
+                snapshot = loaded;
+                validatedAt = builtAt;
+                added.clear();
+                removed.clear();
+                removedTrees.clear();
+                dirty = false;
+            }
+            return true;
+        } catch (IOException | RuntimeException e) {
+            return false;
+        }
+    }
+
+    public void save(File store) throws IOException {
+        synchronized (saveLock) {
+            Snapshot compacted = compact();
+            if (compacted != null) {
+                write(compacted, store);
+            }
+        }
+    }
+
+    private void write(Snapshot compacted, File store) throws IOException {
+        File temp = new File(store.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp), 64 * 1024))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(rootPath);
+            out.writeLong(compacted.builtAt);
+            out.writeInt(compacted.size());
+            for (int id = 0; id < compacted.size(); id++) {
+                int length = compacted.offsets[id + 1] - compacted.offsets[id];
+                out.writeBoolean(compacted.directories.get(id));
+                out.writeShort(length);
+                out.write(compacted.data, compacted.offsets[id], length);
+            }
+        }
+        if (!temp.renameTo(store)) {
+            temp.delete();
+            throw new IOException("Cannot replace " + store.getPath());
+        }
+    }
+
+    private synchronized Snapshot compact() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return null;
+        }
+        if (!added.isEmpty() || !removed.isEmpty() || validatedAt > current.builtAt) {
+            List<Entry> entries = new ArrayList<>(current.size() + added.size());
+            for (int id = 0; id < current.size(); id++) {
+                String path = current.path(id);
+                if (isVisible(path) && !added.containsKey(path)) {
+                    entries.add(new Entry(path, current.directories.get(id)));
+                }
+            }
+            for (Map.Entry<String, Boolean> entry : added.entrySet()) {
+                entries.add(new Entry(entry.getKey(), entry.getValue()));
+            }
+            Collections.sort(entries);
+            current = new Snapshot(Math.max(current.builtAt, validatedAt), entries);
+            snapshot = current;
+            added.clear();
+            removed.clear();
+            removedTrees.clear();
+        }
+        dirty = false;
+        return current;
+    }
+
+    private int[] candidates(Snapshot current, String needle) {
+        if (needle.length() < 3) {
+            return null;
+        }
+        int[] result = null;
+        for (int j = 0; j + 3 <= needle.length(); j++) {
+            int[] posting = current.trigrams.get(trigram(needle, j));
+            if (posting == null) {
+                return new int[0];
+            }
+            result = result == null ? posting : intersect(result, posting);
+            if (result.length == 0) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    private boolean isVisible(String path) {
+        if (removed.isEmpty() && removedTrees.isEmpty()) {
+            return true;
+        }
+        if (removed.contains(path)) {
+            return false;
+        }
+        for (int slash = path.indexOf('/'); slash >= 0; slash = path.indexOf('/', slash + 1)) {
+            if (removedTrees.contains(path.substring(0, slash))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isWithin(String path, String prefix, int maxDepth) {
+        if (!path.startsWith(prefix)) {
+            return false;
+        }
+        int depth = 1;
+        for (int i = prefix.length(); i < path.length(); i++) {
+            if (path.charAt(i) == '/' && ++depth > maxDepth) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String relativePath(String absolutePath) {
+        if (absolutePath.equals(rootPath)) {
+            return "";
+        }
+        return absolutePath.startsWith(rootPath + "/") ? absolutePath.substring(rootPath.length() + 1) : null;
+    }
+
+    private static String nameOf(String path) {
+        return path.substring(path.lastIndexOf('/') + 1);
+    }
+
+    private static String lowerCase(String text) {
+        char[] chars = text.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(chars[i]);
+        }
+        return new String(chars);
+    }
+
+    private static long trigram(String text, int index) {
+        return ((long) text.charAt(index) << 32) | ((long) text.charAt(index + 1) << 16) | text.charAt(index + 2);
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] result = new int[Math.min(a.length, b.length)];
+        int count = 0;
+        for (int i = 0, j = 0; i < a.length && j < b.length; ) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[count++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private final class WalkTask extends RecursiveAction {
+        private final File directory;
+        private final String relative;
+        private final int depth;
+        private final ConcurrentLinkedQueue<Entry> collected;
+
+        WalkTask(File directory, String relative, int depth, ConcurrentLinkedQueue<Entry> collected) {
+            this.directory = directory;
+            this.relative = relative;
+            this.depth = depth;
+            this.collected = collected;
+        }
+
+        @Override
+        protected void compute() {
+            File[] children = buildCancelled ? null : directory.listFiles();
+            if (children == null) {
+                return;
+            }
+
+            List<WalkTask> subtasks = null;
+            for (File child : children) {
+                if (buildCancelled) {
+                    return;
+                }
+                String path = relative.isEmpty() ? child.getName() : relative + "/" + child.getName();
+                boolean isDirectory = child.isDirectory();
+                collected.add(new Entry(path, isDirectory));
+                if (isDirectory && depth < MAX_DEPTH) {
+                    if (subtasks == null) {
+                        subtasks = new ArrayList<>();
+                    }
+                    subtasks.add(new WalkTask(child, path, depth + 1, collected));
+                }
+            }
+
+            if (subtasks != null) {
+                invokeAll(subtasks);
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package terminal.manager;
+
+import java.io.File;
+import java.io.IOException;
+
+final class FileLinks {
+
+    private FileLinks() {
+    }
+
+    static boolean isSymbolicLink(File file) {
+        File parent = file.getParentFile();
+        if (parent == null) {
+            return false;
+        }
+        try {
+            return isSymbolicLink(parent.getCanonicalPath(), file);
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    static boolean isSymbolicLink(String canonicalParent, File file) {
+        try {
+            File canonical = new File(canonicalParent, file.getName());
+            return !canonical.getCanonicalFile().equals(canonical.getAbsoluteFile());
+        } catch (IOException e) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package terminal.manager;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+public final class FileRemover {
+
+    public interface Listener {
+        void onProgress(long files, long directories, long bytes, long elapsedNanos);
+
+        void onError(File file, IOException e);
+    }
+
+    public static final class Result {
+        public final long files;
+        public final long directories;
+        public final long bytes;
+        public final long errors;
+        public final long elapsedNanos;
+
+        Result(long files, long directories, long bytes, long errors, long elapsedNanos) {
+            this.files = files;
+            this.directories = directories;
+            this.bytes = bytes;
+            this.errors = errors;
+            this.elapsedNanos = elapsedNanos;
+        }
+    }
+
+    private static final long PROGRESS_INTERVAL_MS = 1000;
+
+    private final ForkJoinPool pool;
+    private final Listener listener;
+    private final boolean dryRun;
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+    private final AtomicLong files = new AtomicLong();
+    private final AtomicLong directories = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+
+    public FileRemover(ForkJoinPool pool, Listener listener, boolean dryRun) {
+        this.pool = pool;
+        this.listener = listener;
+        this.dryRun = dryRun;
+    }
+
+    public void cancel() {
+        cancelled.set(true);
+    }
+
+    public Result remove(File root) throws InterruptedException {
+        long started = System.nanoTime();
+        ForkJoinTask<Void> task = pool.submit(new DirectoryTask(root));
+        long nextReport = started + TimeUnit.MILLISECONDS.toNanos(PROGRESS_INTERVAL_MS);
+        try {
+            while (true) {
+                try {
+                    task.get(PROGRESS_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                    break;
+                } catch (TimeoutException e) {
+                    long now = System.nanoTime();
+                    if (now >= nextReport && listener != null) {
+                        listener.onProgress(files.get(), directories.get(), bytes.get(), now - started);
+                        nextReport = now + TimeUnit.MILLISECONDS.toNanos(PROGRESS_INTERVAL_MS);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            cancel();
+            throw e;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+        if (cancelled.get()) {
+            throw new InterruptedException();
+        }
+        return new Result(files.get(), directories.get(), bytes.get(), errors.get(), System.nanoTime() - started);
+    }
+
+    private final class DirectoryTask extends RecursiveAction {
+        private final File directory;
+
+        DirectoryTask(File directory) {
+            this.directory = directory;
+        }
+
+        @Override
+        protected void compute() {
+            if (cancelled.get()) {
+                return;
+            }
+            if (!directory.isDirectory() || FileLinks.isSymbolicLink(directory)) {
+                removeFile(directory);
+                return;
+            }
+
+            File[] children = directory.listFiles();
+            if (children == null) {
+                fail(directory, new IOException("Cannot read directory"));
+                return;
+            }
+
+            List<DirectoryTask> subtasks = new ArrayList<>();
+            for (File child : children) {
+                if (cancelled.get()) {
+                    return;
+                }
+                if (child.isDirectory() && !FileLinks.isSymbolicLink(child)) {
+                    DirectoryTask task = new DirectoryTask(child);
+                    task.fork();
+                    subtasks.add(task);
+                } else {
+                    removeFile(child);
+                }
+            }
+            for (DirectoryTask task : subtasks) {
+                task.join();
+            }
+
+            if (cancelled.get()) {
+                return;
+            }
+            if (dryRun || directory.delete()) {
+                directories.incrementAndGet();
+            } else {
+                fail(directory, new IOException("Cannot delete directory"));
+            }
+        }
+    }
+
+    private void removeFile(File file) {
+        long size = file.length();
+        if (dryRun || file.delete()) {
+            files.incrementAndGet();
+            bytes.addAndGet(size);
+        } else {
+            fail(file, new IOException("Cannot delete file"));
+        }
+    }
+
+    private void fail(File file, IOException e) {
+        errors.incrementAndGet();
+        if (listener != null) {
+            listener.onError(file, e);
+        }
+    }
+}
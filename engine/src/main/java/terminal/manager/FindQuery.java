@@ -0,0 +1,258 @@
+package terminal.manager;
+
+import java.io.File;
+import java.util.Locale;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+public final class FindQuery {
+
+    public static final int DEFAULT_MAX_DEPTH = 6;
+
+    private static final long DAY_MS = 24L * 60 * 60 * 1000;
+
+    private String substring;
+    private Pattern namePattern;
+    private char type;
+    private int sizeSign;
+    private long sizeUnits;
+    private long sizeUnit = 1;
+    private int mtimeSign;
+    private long mtimeDays;
+    private int maxDepth = DEFAULT_MAX_DEPTH;
+    private String startPath;
+    private long now;
+
+    public static FindQuery allFiles() {
+        FindQuery query = new FindQuery();
+        query.type = 'f';
+        query.maxDepth = Integer.MAX_VALUE;
+        return query;
+    }
+
+    public static FindQuery parse(String[] args) {
+        FindQuery query = new FindQuery();
+        String positional = null;
+        String secondPositional = null;
+
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.isEmpty()) {
+                continue;
+            }
+            if (arg.startsWith("-") && arg.length() > 1) {
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value for " + arg);
+                }
+                String value = args[++i];
+                switch (arg) {
+                    case "-name":
+                        query.namePattern = compile(globToRegex(value), 0);
+                        break;
+                    case "-iname":
+                        query.namePattern = compile(globToRegex(value), Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+                        break;
+                    case "-regex":
+                        query.namePattern = compile(value, 0);
+                        break;
+                    case "-type":
+                        if (!value.equals("f") && !value.equals("d")) {
+                            throw new IllegalArgumentException("Unknown type: " + value);
+                        }
+                        query.type = value.charAt(0);
+                        break;
+                    case "-size":
+                        query.parseSize(value);
+                        break;
+                    case "-mtime":
+                        query.mtimeSign = sign(value);
+                        query.mtimeDays = parseNumber(query.mtimeSign != 0 ? value.substring(1) : value);
+                        break;
+                    case "-maxdepth":
+                        query.maxDepth = (int) parseNumber(value);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option: " + arg);
+                }
+            } else if (positional == null) {
+                positional = arg;
+            } else if (secondPositional == null) {
+                secondPositional = arg;
+            } else {
+                throw new IllegalArgumentException("Unexpected argument: " + arg);
+            }
+        }
+
+        if (secondPositional != null) {
+            query.startPath = positional;
+            query.substring = secondPositional.toLowerCase(Locale.ROOT);
+        } else if (positional != null && query.namePattern != null) {
+            query.startPath = positional;
+        } else if (positional != null) {
+            query.substring = positional.toLowerCase(Locale.ROOT);
+        }
+
+        if (query.substring == null && query.namePattern == null && query.type == 0
+                && query.sizeSign == 0 && query.sizeUnits == 0 && query.mtimeSign == 0 && query.mtimeDays == 0) {
+            throw new IllegalArgumentException("Empty query");
+        }
+        return query;
+    }
+
+    public String getStartPath() {
+        return startPath;
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public String getSubstring() {
+        return substring;
+    }
+
+    public boolean isNameOnly() {
+        return substring != null && namePattern == null && type == 0 && sizeSign == 0 && sizeUnits == 0
+                && mtimeSign == 0 && mtimeDays == 0;
+    }
+
+    void begin() {
+        now = System.currentTimeMillis();
+    }
+
+    boolean matches(DirectoryLister.Entry entry) {
+        if (!matchesName(entry.name, entry.isDirectory)) {
+            return false;
+        }
+        if (sizeSign != 0 || sizeUnits != 0) {
+            if (entry.isDirectory || !compare((entry.size + sizeUnit - 1) / sizeUnit, sizeSign, sizeUnits)) {
+                return false;
+            }
+        }
+        if (mtimeSign != 0 || mtimeDays != 0) {
+            if (!compare((now - entry.lastModified) / DAY_MS, mtimeSign, mtimeDays)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    boolean matches(File file, String name, boolean isDirectory) {
+        if (!matchesName(name, isDirectory)) {
+            return false;
+        }
+        if (sizeSign != 0 || sizeUnits != 0) {
+            if (isDirectory || !compare((file.length() + sizeUnit - 1) / sizeUnit, sizeSign, sizeUnits)) {
+                return false;
+            }
+        }
+        if (mtimeSign != 0 || mtimeDays != 0) {
+            if (!compare((now - file.lastModified()) / DAY_MS, mtimeSign, mtimeDays)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean matchesName(String name, boolean isDirectory) {
+        if (type == 'f' && isDirectory || type == 'd' && !isDirectory) {
+            return false;
+        }
+        if (substring != null && !containsIgnoreCase(name, substring)) {
+            return false;
+        }
+        return namePattern == null || namePattern.matcher(name).matches();
+    }
+
+    static boolean containsIgnoreCase(String name, String lowerCasePattern) {
+        int length = lowerCasePattern.length();
+        for (int i = 0; i + length <= name.length(); i++) {
+            if (name.regionMatches(true, i, lowerCasePattern, 0, length)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void parseSize(String value) {
+        sizeSign = sign(value);
+        String number = sizeSign != 0 ? value.substring(1) : value;
+        char suffix = number.isEmpty() ? 0 : number.charAt(number.length() - 1);
+        sizeUnit = ByteSize.unit(suffix);
+        if (sizeUnit != 1 || suffix == 'c') {
+            number = number.substring(0, number.length() - 1);
+        }
+        sizeUnits = parseNumber(number);
+    }
+
+    private static boolean compare(long actual, int sign, long expected) {
+        if (sign > 0) {
+            return actual > expected;
+        }
+        if (sign < 0) {
+            return actual < expected;
+        }
+        return actual == expected;
+    }
+
+    private static int sign(String value) {
+        if (value.startsWith("+")) {
+            return 1;
+        }
+        if (value.startsWith("-")) {
+            return -1;
+        }
+        return 0;
+    }
+
+    private static long parseNumber(String value) {
+        try {
+            long number = Long.parseLong(value);
+            if (number < 0) {
+                throw new IllegalArgumentException("Negative value: " + value);
+            }
+            return number;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number: " + value);
+        }
+    }
+
+    private static Pattern compile(String regex, int flags) {
+        try {
+            return Pattern.compile(regex, flags);
+        } catch (PatternSyntaxException e) {
+            throw new IllegalArgumentException("Invalid pattern: " + e.getDescription());
+        }
+    }
+
+    static String globToRegex(String glob) {
+        StringBuilder regex = new StringBuilder();
+        for (int i = 0; i < glob.length(); i++) {
+            char c = glob.charAt(i);
+            switch (c) {
+                case '*':
+                    regex.append(".*");
+                    break;
+                case '?':
+                    regex.append('.');
+                    break;
+                case '[':
+                    int end = glob.indexOf(']', i + 1);
+                    if (end > i + 1) {
+                        String set = glob.substring(i + 1, end);
+                        regex.append('[').append(set.startsWith("!") ? "^" + set.substring(1) : set).append(']');
+                        i = end;
+                    } else {
+                        regex.append("\\[");
+                    }
+                    break;
+                default:
+                    if ("\\.^$+{}()|".indexOf(c) >= 0) {
+                        regex.append('\\');
+                    }
+                    regex.append(c);
+            }
+        }
+        return regex.toString();
+    }
+}
@@ -0,0 +1,362 @@
+package terminal.manager;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+public final class Grep {
+
+    public interface Output {
+        void write(String text);
+
+        void error(File file, IOException e);
+    }
+
+    private static final String REGEX_CHARS = ".[]{}()*+?^$|\\";
+    private static final int FLUSH_CHARS = 8192;
+    private static final int READ_BUFFER_CHARS = 64 * 1024;
+    private static final int BINARY_CHECK_CHARS = 8192;
+    private static final int CANCEL_CHECK_LINES = 1024;
+
+    private boolean recursive;
+    private boolean ignoreCase;
+    private boolean lineNumbers;
+    private boolean countOnly;
+    private boolean filesOnly;
+    private boolean fixedStrings;
+    private int before;
+    private int after;
+    private String pattern;
+    private final List<String> paths = new ArrayList<>();
+
+    private Pattern regex;
+    private char[] literal;
+    private int[] shifts;
+
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+
+    private Grep() {
+    }
+
+    public static Grep parse(String[] args) {
+        Grep grep = new Grep();
+        boolean options = true;
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (options && arg.equals("--")) {
+                options = false;
+            } else if (options && arg.startsWith("-") && arg.length() > 1) {
+                for (int j = 1; j < arg.length(); j++) {
+                    char flag = arg.charAt(j);
+                    switch (flag) {
+                        case 'r':
+                        case 'R':
+                            grep.recursive = true;
+                            break;
+                        case 'i':
+                            grep.ignoreCase = true;
+                            break;
+                        case 'n':
+                            grep.lineNumbers = true;
+                            break;
+                        case 'c':
+                            grep.countOnly = true;
+                            break;
+                        case 'l':
+                            grep.filesOnly = true;
+                            break;
+                        case 'F':
+                            grep.fixedStrings = true;
+                            break;
+                        case 'A':
+                        case 'B':
+                        case 'C':
+                            String value;
+                            if (j + 1 < arg.length()) {
+                                value = arg.substring(j + 1);
+                            } else if (i + 1 < args.length) {
+                                value = args[++i];
+                            } else {
+                                throw new IllegalArgumentException("-" + flag + " requires a number");
+                            }
+                            int lines = parseContext(value);
+                            if (flag != 'B') {
+                                grep.after = lines;
+                            }
+                            if (flag != 'A') {
+                                grep.before = lines;
+                            }
+                            j = arg.length();
+                            break;
+                        default:
+                            throw new IllegalArgumentException("Unknown option -" + flag);
+                    }
+                }
+            } else if (grep.pattern == null) {
+                grep.pattern = arg;
+            } else {
+                grep.paths.add(arg);
+            }
+        }
+
+        if (grep.pattern == null || grep.pattern.isEmpty()) {
+            throw new IllegalArgumentException("Missing pattern");
+        }
+        grep.compile();
+        return grep;
+    }
+
+    public List<String> getPaths() {
+        return Collections.unmodifiableList(paths);
+    }
+
+    public boolean isRecursive() {
+        return recursive;
+    }
+
+    public void cancel() {
+        cancelled.set(true);
+    }
+
+    public long search(BufferedReader reader, String label, Output output) throws IOException {
+        return scan(reader, label, output);
+    }
+
+    public long searchFiles(List<File> files, boolean showNames, Output output, ForkJoinPool pool)
+            throws InterruptedException {
+        AtomicLong matches = new AtomicLong();
+        ForkJoinTask<Void> task = pool.submit(new FilesTask(files, 0, files.size(), showNames, output, matches));
+        try {
+            task.get();
+        } catch (InterruptedException e) {
+            cancel();
+            throw e;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+        return matches.get();
+    }
+
+    private final class FilesTask extends RecursiveAction {
+        private final List<File> files;
+        private final int from;
+        private final int to;
+        private final boolean showNames;
+        private final Output output;
+        private final AtomicLong matches;
+
+        FilesTask(List<File> files, int from, int to, boolean showNames, Output output, AtomicLong matches) {
+            this.files = files;
+            this.from = from;
+            this.to = to;
+            this.showNames = showNames;
+            this.output = output;
+            this.matches = matches;
+        }
+
+        @Override
+        protected void compute() {
+            if (cancelled.get()) {
+                return;
+            }
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new FilesTask(files, from, middle, showNames, output, matches),
+                        new FilesTask(files, middle, to, showNames, output, matches));
+                return;
+            }
+
+            File file = files.get(from);
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    new FileInputStream(file), StandardCharsets.UTF_8), READ_BUFFER_CHARS)) {
+                matches.addAndGet(scan(reader, showNames ? file.getPath() : null, output));
+            } catch (IOException e) {
+                output.error(file, e);
+            }
+        }
+    }
+
+    private long scan(BufferedReader reader, String label, Output output) throws IOException {
+        LineMatcher matcher = newMatcher();
+        String prefix = label != null ? label : "";
+        StringBuilder buffer = new StringBuilder();
+        String[] beforeLines = new String[before];
+        int beforeStart = 0;
+        int beforeCount = 0;
+        int afterRemaining = 0;
+        long lastPrinted = 0;
+        long lineNumber = 0;
+        long matches = 0;
+        long checkedChars = 0;
+        boolean binary = false;
+
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (lineNumber % CANCEL_CHECK_LINES == 0 && (cancelled.get() || Thread.currentThread().isInterrupted())) {
+                break;
+            }
+            if (checkedChars < BINARY_CHECK_CHARS) {
+                checkedChars += line.length();
+                binary |= line.indexOf('\0') >= 0;
+            }
+
+            if (matcher.matches(line)) {
+                matches++;
+                if (filesOnly) {
+                    buffer.append(prefix).append('\n');
+                    break;
+                }
+                if (countOnly) {
+                    continue;
+                }
+                if (binary) {
+                    buffer.append("Binary file ").append(label != null ? label : "(standard input)").append(" matches\n");
+                    break;
+                }
+
+                long first = lineNumber - beforeCount;
+                if ((before > 0 || after > 0) && lastPrinted > 0 && first > lastPrinted + 1) {
+                    buffer.append("--\n");
+                }
+                for (int k = 0; k < beforeCount; k++) {
+                    appendLine(buffer, prefix, first + k, '-', beforeLines[(beforeStart + k) % before]);
+                }
+                beforeCount = 0;
+                appendLine(buffer, prefix, lineNumber, ':', line);
+                lastPrinted = lineNumber;
+                afterRemaining = after;
+            } else if (afterRemaining > 0) {
+                appendLine(buffer, prefix, lineNumber, '-', line);
+                lastPrinted = lineNumber;
+                afterRemaining--;
+            } else if (before > 0) {
+                if (beforeCount < before) {
+                    beforeLines[(beforeStart + beforeCount) % before] = line;
+                    beforeCount++;
+                } else {
+                    beforeLines[beforeStart] = line;
+                    beforeStart = (beforeStart + 1) % before;
+                }
+            }
+
+            if (buffer.length() >= FLUSH_CHARS) {
+                output.write(buffer.toString());
+                buffer.setLength(0);
+            }
+        }
+
+        if (countOnly && !filesOnly) {
+            buffer.append(label != null ? label + ":" : "").append(matches).append('\n');
+        }
+        if (buffer.length() > 0) {
+            output.write(buffer.toString());
+        }
+        return matches;
+    }
+
+    private void appendLine(StringBuilder buffer, String prefix, long lineNumber, char separator, String line) {
+        if (!prefix.isEmpty()) {
+            buffer.append(prefix).append(separator);
+        }
+        if (lineNumbers) {
+            buffer.append(lineNumber).append(separator);
+        }
+        buffer.append(line).append('\n');
+    }
+
+    private void compile() {
+        boolean isLiteral = fixedStrings;
+        if (!isLiteral) {
+            isLiteral = true;
+            for (int i = 0; i < pattern.length() && isLiteral; i++) {
+                isLiteral = REGEX_CHARS.indexOf(pattern.charAt(i)) < 0;
+            }
+        }
+
+        if (isLiteral) {
+            literal = new char[pattern.length()];
+            for (int i = 0; i < literal.length; i++) {
+                literal[i] = fold(pattern.charAt(i));
+            }
+            shifts = new int[256];
+            Arrays.fill(shifts, literal.length);
+            for (int i = 0; i < literal.length - 1; i++) {
+                int slot = literal[i] & 0xFF;
+                shifts[slot] = Math.min(shifts[slot], literal.length - 1 - i);
+            }
+        } else {
+            try {
+                regex = Pattern.compile(pattern, ignoreCase ? Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE : 0);
+            } catch (PatternSyntaxException e) {
+                throw new IllegalArgumentException("Invalid pattern: " + e.getDescription());
+            }
+        }
+    }
+
+    private char fold(char c) {
+        return ignoreCase ? Character.toLowerCase(Character.toUpperCase(c)) : c;
+    }
+
+    private LineMatcher newMatcher() {
+        if (regex == null) {
+            return this::containsLiteral;
+        }
+        Matcher matcher = regex.matcher("");
+        return line -> matcher.reset(line).find();
+    }
+
+    private boolean containsLiteral(String text) {
+        int length = literal.length;
+        int limit = text.length() - length;
+        int last = length - 1;
+        int i = 0;
+        while (i <= limit) {
+            int j = last;
+            while (j >= 0 && fold(text.charAt(i + j)) == literal[j]) {
+                j--;
+            }
+            if (j < 0) {
+                return true;
+            }
+            i += shifts[fold(text.charAt(i + last)) & 0xFF];
+        }
+        return false;
+    }
+
+    private interface LineMatcher {
+        boolean matches(String line);
+    }
+
+    private static int parseContext(String value) {
+        try {
+            int lines = Integer.parseInt(value);
+            if (lines < 0) {
+                throw new NumberFormatException();
+            }
+            return lines;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid context length: " + value);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package terminal.manager;
+
+import java.util.function.Consumer;
+
+public final class Job {
+
+    public enum State {
+        RUNNING, DONE, KILLED
+    }
+
+    private final int id;
+    private final String command;
+    private final int maxBufferedChars;
+    private final long startedAt = System.nanoTime();
+    private final StringBuilder buffer = new StringBuilder();
+    private long droppedChars;
+    private long finishedAt;
+    private State state = State.RUNNING;
+    private Consumer<String> attached;
+    private Thread thread;
+    private boolean cancelRequested;
+
+    public Job(int id, String command, int maxBufferedChars) {
+        this.id = id;
+        this.command = command;
+        this.maxBufferedChars = maxBufferedChars;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getCommand() {
+        return command;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized long getElapsedNanos() {
+        return (state == State.RUNNING ? System.nanoTime() : finishedAt) - startedAt;
+    }
+
+    public synchronized int getBufferedChars() {
+        return buffer.length();
+    }
+
+    public synchronized boolean isAttached() {
+        return attached != null;
+    }
+
+    public synchronized boolean start() {
+        if (cancelRequested) {
+            return false;
+        }
+        thread = Thread.currentThread();
+        return true;
+    }
+
+    public synchronized void write(String text) {
+        if (attached != null) {
+            attached.accept(text);
+            return;
+        }
+        buffer.append(text);
+        if (buffer.length() > maxBufferedChars) {
+            int excess = buffer.length() - maxBufferedChars;
+            int newline = buffer.indexOf("\n", excess);
+            int cut = newline >= 0 && newline < buffer.length() - 1 ? newline + 1 : excess;
+            buffer.delete(0, cut);
+            droppedChars += cut;
+        }
+    }
+
+    public synchronized void attach(Consumer<String> sink, String droppedNotice) {
+        if (droppedChars > 0) {
+            sink.accept(droppedNotice.replace("%d", String.valueOf(droppedChars)));
+        }
+        if (buffer.length() > 0) {
+            sink.accept(buffer.toString());
+        }
+        buffer.setLength(0);
+        buffer.trimToSize();
+        droppedChars = 0;
+        attached = sink;
+    }
+
+    public synchronized void detach() {
+        attached = null;
+    }
+
+    public synchronized boolean cancel() {
+        if (state != State.RUNNING) {
+            return false;
+        }
+        cancelRequested = true;
+        if (thread != null) {
+            thread.interrupt();
+        }
+        return true;
+    }
+
+    public synchronized void finish() {
+        if (thread == Thread.currentThread()) {
+            Thread.interrupted();
+        }
+        thread = null;
+        if (state == State.RUNNING) {
+            state = cancelRequested ? State.KILLED : State.DONE;
+            finishedAt = System.nanoTime();
+            notifyAll();
+        }
+    }
+
+    public synchronized void awaitFinished() throws InterruptedException {
+        while (state == State.RUNNING) {
+            wait();
+        }
+    }
+}
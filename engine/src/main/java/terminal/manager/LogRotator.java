@@ -0,0 +1,158 @@
+package terminal.manager;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executor;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+public final class LogRotator {
+
+    private static final String SEGMENT_PATTERN = "yyyyMMdd-HHmmss";
+    private static final String GZIP_SUFFIX = ".gz";
+
+    private final long maxBytes;
+    private final long maxAgeMs;
+    private final int retainedSegments;
+    private final Executor compressor;
+
+    public LogRotator(long maxBytes, long maxAgeMs, int retainedSegments, Executor compressor) {
+        this.maxBytes = maxBytes;
+        this.maxAgeMs = maxAgeMs;
+        this.retainedSegments = retainedSegments;
+        this.compressor = compressor;
+    }
+
+    public boolean shouldRotate(long size, long segmentStart, long now) {
+        return size > 0 && (size >= maxBytes || now - segmentStart >= maxAgeMs);
+    }
+
+    public long segmentStart(File file, long now) {
+        List<File> segments = rotatedSegments(file);
+        if (segments.isEmpty()) {
+            return now;
+        }
+        String key = segmentKey(file, segments.get(segments.size() - 1));
+        try {
+            return new SimpleDateFormat(SEGMENT_PATTERN, Locale.US).parse(key.substring(0, SEGMENT_PATTERN.length())).getTime();
+        } catch (ParseException | IndexOutOfBoundsException e) {
+            return now;
+        }
+    }
+
+    public boolean rotate(File file) {
+        if (!file.exists()) {
+            return true;
+        }
+        String stamp = new SimpleDateFormat(SEGMENT_PATTERN, Locale.US).format(new Date());
+        File segment = new File(file.getParentFile(), file.getName() + "." + stamp);
+        for (int i = 1; segment.exists() || new File(segment.getPath() + GZIP_SUFFIX).exists(); i++) {
+            segment = new File(file.getParentFile(), file.getName() + "." + stamp + "-" + i);
+        }
+        if (!file.renameTo(segment)) {
+            return false;
+        }
+
+        File rotated = segment;
+        compressor.execute(() -> {
+            compress(rotated);
+            prune(file);
+        });
+        return true;
+    }
+
+    public static List<File> rotatedSegments(File file) {
+        List<File> segments = new ArrayList<>();
+        File dir = file.getParentFile();
+        File[] candidates = dir != null ? dir.listFiles() : null;
+        if (candidates == null) {
+            return segments;
+        }
+        String prefix = file.getName() + ".";
+        for (File candidate : candidates) {
+            if (candidate.getName().startsWith(prefix) && !candidate.getName().endsWith(".tmp")) {
+                segments.add(candidate);
+            }
+        }
+        Collections.sort(segments, (a, b) -> segmentKey(file, a).compareTo(segmentKey(file, b)));
+        return segments;
+    }
+
+    public static List<String> tail(File file, int lineCount) throws IOException {
+        List<File> sources = rotatedSegments(file);
+        if (file.exists()) {
+            sources.add(file);
+        }
+
+        ArrayDeque<String> result = new ArrayDeque<>();
+        for (int i = sources.size() - 1; i >= 0 && result.size() < lineCount; i--) {
+            ArrayDeque<String> segmentTail = new ArrayDeque<>();
+            int wanted = lineCount - result.size();
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(open(sources.get(i)), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (segmentTail.size() == wanted) {
+                        segmentTail.removeFirst();
+                    }
+                    segmentTail.addLast(line);
+                }
+            }
+            while (!segmentTail.isEmpty()) {
+                result.addFirst(segmentTail.removeLast());
+            }
+        }
+        return new ArrayList<>(result);
+    }
+
+    private static InputStream open(File source) throws IOException {
+        InputStream in = new FileInputStream(source);
+        return source.getName().endsWith(GZIP_SUFFIX) ? new GZIPInputStream(in, 16 * 1024) : in;
+    }
+
+    private static String segmentKey(File file, File segment) {
+        String key = segment.getName().substring(file.getName().length() + 1);
+        return key.endsWith(GZIP_SUFFIX) ? key.substring(0, key.length() - GZIP_SUFFIX.length()) : key;
+    }
+
+    private void compress(File segment) {
+        File temp = new File(segment.getPath() + GZIP_SUFFIX + ".tmp");
+        try (InputStream in = new FileInputStream(segment);
+             OutputStream out = new GZIPOutputStream(new FileOutputStream(temp), 16 * 1024)) {
+            byte[] buffer = new byte[16 * 1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+        } catch (IOException e) {
+            temp.delete();
+            return;
+        }
+        if (temp.renameTo(new File(segment.getPath() + GZIP_SUFFIX))) {
+            segment.delete();
+        } else {
+            temp.delete();
+        }
+    }
+
+    private void prune(File file) {
+        List<File> segments = rotatedSegments(file);
+        for (int i = 0; i < segments.size() - retainedSegments; i++) {
+            segments.get(i).delete();
+        }
+    }
+}
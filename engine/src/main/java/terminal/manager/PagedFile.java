@@ -0,0 +1,193 @@
+package terminal.manager;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public final class PagedFile implements Closeable {
+
+    private static final long CHUNK_SIZE = 64L * 1024 * 1024;
+    private static final int INDEX_STRIDE = 128;
+    public static final int DEFAULT_MAX_LINE_BYTES = 256 * 1024;
+
+    private final File file;
+    private final int maxLineBytes;
+    private final RandomAccessFile randomAccessFile;
+    private final FileChannel channel;
+    private final long size;
+    private final MappedByteBuffer[] chunks;
+
+    private long[] checkpoints = new long[64];
+    private int checkpointCount;
+    private long scanPosition;
+    private long scanLine;
+    private boolean scanComplete;
+
+    public PagedFile(File file) throws IOException {
+        this(file, DEFAULT_MAX_LINE_BYTES);
+    }
+
+    public PagedFile(File file, int maxLineBytes) throws IOException {
+        this.file = file;
+        this.maxLineBytes = maxLineBytes;
+        this.randomAccessFile = new RandomAccessFile(file, "r");
+        this.channel = randomAccessFile.getChannel();
+        this.size = channel.size();
+        this.chunks = new MappedByteBuffer[(int) ((size + CHUNK_SIZE - 1) / CHUNK_SIZE)];
+        if (size > 0) {
+            checkpoints[checkpointCount++] = 0;
+        } else {
+            scanComplete = true;
+        }
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public boolean hasLine(long line) throws IOException {
+        return lineStart(line) >= 0;
+    }
+
+    public List<String> readLines(long firstLine, int count) throws IOException {
+        List<String> lines = new ArrayList<>();
+        long position = lineStart(firstLine);
+        while (position >= 0 && position < size && lines.size() < count) {
+            position = readLine(position, lines);
+        }
+        return lines;
+    }
+
+    public List<String> tail(int count) throws IOException {
+        List<String> lines = new ArrayList<>();
+        if (size == 0 || count <= 0) {
+            return lines;
+        }
+
+        long end = byteAt(size - 1) == '\n' ? size - 1 : size;
+        long start = 0;
+        int found = 0;
+        for (long position = end - 1; position >= 0; position--) {
+            if (byteAt(position) == '\n' && ++found == count) {
+                start = position + 1;
+                break;
+            }
+        }
+
+        long position = start;
+        while (position < size) {
+            position = readLine(position, lines);
+        }
+        return lines;
+    }
+
+    @Override
+    public void close() throws IOException {
+        Arrays.fill(chunks, null);
+        randomAccessFile.close();
+    }
+
+    private long lineStart(long line) throws IOException {
+        if (line < 0) {
+            return -1;
+        }
+        int checkpoint = (int) (line / INDEX_STRIDE);
+        while (checkpointCount <= checkpoint && !scanComplete) {
+            long next = nextLineStart(scanPosition);
+            if (next < 0 || next >= size) {
+                scanComplete = true;
+                break;
+            }
+            scanPosition = next;
+            scanLine++;
+            if (scanLine % INDEX_STRIDE == 0) {
+                addCheckpoint(next);
+            }
+        }
+        if (checkpointCount <= checkpoint) {
+            return -1;
+        }
+
+        long position = checkpoints[checkpoint];
+        for (long i = (long) checkpoint * INDEX_STRIDE; i < line; i++) {
+            position = nextLineStart(position);
+            if (position < 0 || position >= size) {
+                return -1;
+            }
+        }
+        return position;
+    }
+
+    private void addCheckpoint(long position) {
+        if (checkpointCount == checkpoints.length) {
+            checkpoints = Arrays.copyOf(checkpoints, checkpointCount * 2);
+        }
+        checkpoints[checkpointCount++] = position;
+    }
+
+    private long nextLineStart(long position) throws IOException {
+        while (position < size) {
+            MappedByteBuffer chunk = chunk(position);
+            long base = position - position % CHUNK_SIZE;
+            int limit = chunk.limit();
+            for (int i = (int) (position - base); i < limit; i++) {
+                if (chunk.get(i) == '\n') {
+                    return base + i + 1;
+                }
+            }
+            position = base + limit;
+        }
+        return -1;
+    }
+
+    private long readLine(long position, List<String> lines) throws IOException {
+        long next = nextLineStart(position);
+        long end = next < 0 ? size : next - 1;
+        int length = (int) Math.min(end - position, maxLineBytes);
+        byte[] bytes = new byte[length];
+        copy(position, bytes);
+        if (length > 0 && bytes[length - 1] == '\r') {
+            length--;
+        }
+        String line = new String(bytes, 0, length, StandardCharsets.UTF_8);
+        lines.add(end - position > maxLineBytes ? line + "\u2026" : line);
+        return next < 0 ? size : next;
+    }
+
+    private void copy(long position, byte[] target) throws IOException {
+        int offset = 0;
+        while (offset < target.length) {
+            MappedByteBuffer chunk = chunk(position + offset);
+            int index = (int) ((position + offset) % CHUNK_SIZE);
+            int length = Math.min(target.length - offset, chunk.limit() - index);
+            for (int i = 0; i < length; i++) {
+                target[offset + i] = chunk.get(index + i);
+            }
+            offset += length;
+        }
+    }
+
+    private byte byteAt(long position) throws IOException {
+        return chunk(position).get((int) (position % CHUNK_SIZE));
+    }
+
+    private MappedByteBuffer chunk(long position) throws IOException {
+        int index = (int) (position / CHUNK_SIZE);
+        if (chunks[index] == null) {
+            long start = index * CHUNK_SIZE;
+            chunks[index] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(CHUNK_SIZE, size - start));
+        }
+        return chunks[index];
+    }
+}
@@ -0,0 +1,175 @@
+package terminal.manager;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+public final class ParallelFinder {
+
+    public interface Listener {
+        void onMatch(File file);
+    }
+
+    private final FindQuery query;
+    private final Listener listener;
+    private final ForkJoinPool pool;
+    private final DirectoryCache cache;
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+    private final AtomicLong matches = new AtomicLong();
+    private final AtomicLong visited = new AtomicLong();
+
+    public ParallelFinder(FindQuery query, Listener listener) {
+        this(query, listener, CommandExecutor.parallelPool(), null);
+    }
+
+    public ParallelFinder(FindQuery query, Listener listener, DirectoryCache cache) {
+        this(query, listener, CommandExecutor.parallelPool(), cache);
+    }
+
+    public ParallelFinder(FindQuery query, Listener listener, ForkJoinPool pool, DirectoryCache cache) {
+        this.query = query;
+        this.listener = listener;
+        this.pool = pool;
+        this.cache = cache;
+    }
+
+    public long find(File root) throws InterruptedException {
+        query.begin();
+        ForkJoinTask<Void> task = pool.submit(new DirectoryTask(root, 1));
+        try {
+            task.get();
+        } catch (InterruptedException e) {
+            cancel();
+            throw e;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+        return matches.get();
+    }
+
+    public void cancel() {
+        cancelled.set(true);
+    }
+
+    public boolean isCancelled() {
+        return cancelled.get();
+    }
+
+    public long getVisitedCount() {
+        return visited.get();
+    }
+
+    private final class DirectoryTask extends RecursiveAction {
+        private final File directory;
+        private final int depth;
+        private String canonicalPath;
+
+        DirectoryTask(File directory, int depth) {
+            this.directory = directory;
+            this.depth = depth;
+        }
+
+        @Override
+        protected void compute() {
+            if (cancelled.get()) {
+                return;
+            }
+            if (cache != null) {
+                computeCached();
+                return;
+            }
+
+            File[] children = directory.listFiles();
+            if (children == null) {
+                return;
+            }
+            visited.addAndGet(children.length);
+
+            List<DirectoryTask> subtasks = null;
+            for (File child : children) {
+                if (cancelled.get()) {
+                    return;
+                }
+                try {
+                    boolean isDirectory = child.isDirectory();
+                    if (query.matches(child, child.getName(), isDirectory)) {
+                        matches.incrementAndGet();
+                        listener.onMatch(child);
+                    }
+                    if (isDirectory && depth < query.getMaxDepth() && !isLink(child)) {
+                        if (subtasks == null) {
+                            subtasks = new ArrayList<>();
+                        }
+                        subtasks.add(new DirectoryTask(child, depth + 1));
+                    }
+                } catch (SecurityException e) {
+                }
+            }
+
+            if (subtasks != null) {
+                invokeAll(subtasks);
+            }
+        }
+
+        private void computeCached() {
+            List<DirectoryLister.Entry> entries;
+            try {
+                entries = cache.list(directory);
+            } catch (IOException | SecurityException e) {
+                return;
+            }
+            visited.addAndGet(entries.size());
+
+            List<DirectoryTask> subtasks = null;
+            for (DirectoryLister.Entry entry : entries) {
+                if (cancelled.get()) {
+                    return;
+                }
+                File child = null;
+                if (query.matches(entry)) {
+                    child = new File(directory, entry.name);
+                    matches.incrementAndGet();
+                    listener.onMatch(child);
+                }
+                if (entry.isDirectory && depth < query.getMaxDepth()) {
+                    if (child == null) {
+                        child = new File(directory, entry.name);
+                    }
+                    if (isLink(child)) {
+                        continue;
+                    }
+                    if (subtasks == null) {
+                        subtasks = new ArrayList<>();
+                    }
+                    subtasks.add(new DirectoryTask(child, depth + 1));
+                }
+            }
+
+            if (subtasks != null) {
+                invokeAll(subtasks);
+            }
+        }
+
+        private boolean isLink(File child) {
+            try {
+                if (canonicalPath == null) {
+                    canonicalPath = directory.getCanonicalPath();
+                }
+                return FileLinks.isSymbolicLink(canonicalPath, child);
+            } catch (IOException | SecurityException e) {
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package terminal.manager;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+public final class Pipe {
+
+    private static final String EOF = new String("");
+    private static final long POLL_MS = 100;
+
+    private final ArrayBlockingQueue<String> chunks;
+    private volatile boolean readerClosed;
+    private boolean writerClosed;
+
+    private final Writer writer = new Writer() {
+        @Override
+        public void write(char[] buffer, int offset, int length) throws IOException {
+            if (length > 0) {
+                put(new String(buffer, offset, length));
+            }
+        }
+
+        @Override
+        public void write(String text, int offset, int length) throws IOException {
+            if (length > 0) {
+                put(text.substring(offset, offset + length));
+            }
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() throws IOException {
+            synchronized (lock) {
+                if (writerClosed) {
+                    return;
+                }
+                writerClosed = true;
+            }
+            if (!readerClosed) {
+                put(EOF);
+            }
+        }
+    };
+
+    private final Reader reader = new Reader() {
+        private String current;
+        private int position;
+        private boolean eof;
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            if (eof) {
+                return -1;
+            }
+            if (current == null || position == current.length()) {
+                try {
+                    current = chunks.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException();
+                }
+                position = 0;
+                if (current == EOF) {
+                    eof = true;
+                    return -1;
+                }
+            }
+            int count = Math.min(length, current.length() - position);
+            current.getChars(position, position + count, buffer, offset);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public void close() {
+            readerClosed = true;
+            chunks.clear();
+        }
+    };
+
+    public Pipe(int capacity) {
+        chunks = new ArrayBlockingQueue<>(capacity);
+    }
+
+    public Writer getWriter() {
+        return writer;
+    }
+
+    public Reader getReader() {
+        return reader;
+    }
+
+    private void put(String chunk) throws IOException {
+        try {
+            while (!chunks.offer(chunk, POLL_MS, TimeUnit.MILLISECONDS)) {
+                if (readerClosed) {
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+        if (readerClosed) {
+            throw new IOException("Broken pipe");
+        }
+    }
+}
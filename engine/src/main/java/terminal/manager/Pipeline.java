@@ -0,0 +1,91 @@
+package terminal.manager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public final class Pipeline {
+
+    private final List<CommandLine> stages;
+    private final String inputFile;
+    private final String outputFile;
+    private final boolean append;
+    private final boolean background;
+
+    private Pipeline(List<CommandLine> stages, String inputFile, String outputFile, boolean append, boolean background) {
+        this.stages = stages;
+        this.inputFile = inputFile;
+        this.outputFile = outputFile;
+        this.append = append;
+        this.background = background;
+    }
+
+    public static Pipeline parse(String line) {
+        List<CommandLine.Token> tokens = CommandLine.lex(line, true);
+        List<CommandLine> stages = new ArrayList<>();
+        List<CommandLine.Token> current = new ArrayList<>();
+        String inputFile = null;
+        String outputFile = null;
+        boolean append = false;
+        boolean background = false;
+
+        for (int i = 0; i < tokens.size(); i++) {
+            CommandLine.Token token = tokens.get(i);
+            if (token.operator && token.text.equals("&")) {
+                if (i != tokens.size() - 1) {
+                    throw new IllegalArgumentException("Unexpected &");
+                }
+                background = true;
+            } else if (!token.operator) {
+                current.add(token);
+            } else if (token.text.equals("|")) {
+                if (current.isEmpty()) {
+                    throw new IllegalArgumentException("Empty pipeline stage");
+                }
+                stages.add(CommandLine.of(current, line));
+                current = new ArrayList<>();
+            } else {
+                if (i + 1 >= tokens.size() || tokens.get(i + 1).operator) {
+                    throw new IllegalArgumentException("Missing file name after " + token.text);
+                }
+                String file = tokens.get(++i).text;
+                if (token.text.equals("<")) {
+                    inputFile = file;
+                } else {
+                    outputFile = file;
+                    append = token.text.equals(">>");
+                }
+            }
+        }
+
+        if (current.isEmpty() && (!stages.isEmpty() || inputFile != null || outputFile != null || background)) {
+            throw new IllegalArgumentException("Empty pipeline stage");
+        }
+        stages.add(CommandLine.of(current, line));
+        return new Pipeline(Collections.unmodifiableList(stages), inputFile, outputFile, append, background);
+    }
+
+    public List<CommandLine> getStages() {
+        return stages;
+    }
+
+    public String getInputFile() {
+        return inputFile;
+    }
+
+    public String getOutputFile() {
+        return outputFile;
+    }
+
+    public boolean isAppend() {
+        return append;
+    }
+
+    public boolean isBackground() {
+        return background;
+    }
+
+    public boolean isSimple() {
+        return stages.size() == 1 && inputFile == null && outputFile == null;
+    }
+}
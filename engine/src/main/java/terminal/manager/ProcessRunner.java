@@ -0,0 +1,208 @@
+package terminal.manager;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+public final class ProcessRunner {
+
+    private static final int CHUNK_CHARS = 8192;
+    private static final long DESTROY_GRACE_MS = 500;
+    private static final long EXIT_IDLE_MS = 1000;
+
+    private final List<String> command;
+    private final File directory;
+    private final ExecutorService pumps;
+    private final RateLimiter limiter;
+    private Process process;
+    private boolean running;
+    private Writer input;
+    private volatile boolean detached;
+
+    public ProcessRunner(List<String> command, File directory, ExecutorService pumps, long maxCharsPerSecond) {
+        this.command = command;
+        this.directory = directory;
+        this.pumps = pumps;
+        this.limiter = new RateLimiter(maxCharsPerSecond);
+    }
+
+    public int run(Reader stdin, boolean interactive, Consumer<String> stdout, Consumer<String> stderr)
+            throws IOException, InterruptedException {
+        ProcessBuilder builder = new ProcessBuilder(command).directory(directory);
+        builder.environment().put("PWD", directory.getPath());
+        Process started = builder.start();
+        synchronized (this) {
+            process = started;
+            running = true;
+            input = new OutputStreamWriter(started.getOutputStream(), StandardCharsets.UTF_8);
+        }
+
+        AtomicLong outReading = new AtomicLong();
+        AtomicLong errReading = new AtomicLong();
+        Future<?> out = pumps.submit(() -> pump(started.getInputStream(), stdout, outReading));
+        Future<?> err = pumps.submit(() -> pump(started.getErrorStream(), stderr, errReading));
+        Future<?> in = null;
+        if (stdin != null) {
+            in = pumps.submit(() -> forward(stdin));
+        } else if (!interactive) {
+            closeInput();
+        }
+
+        try {
+            int exitCode = started.waitFor();
+            synchronized (this) {
+                running = false;
+            }
+            awaitPump(out, outReading, started.getInputStream());
+            awaitPump(err, errReading, started.getErrorStream());
+            return exitCode;
+        } catch (InterruptedException e) {
+            destroy();
+            drain(out);
+            drain(err);
+            throw e;
+        } finally {
+            if (in != null) {
+                in.cancel(true);
+            }
+            closeInput();
+        }
+    }
+
+    public synchronized boolean isRunning() {
+        return running;
+    }
+
+    public synchronized void destroy() {
+        if (process != null && running) {
+            running = false;
+            process.destroy();
+        }
+    }
+
+    public long getThrottledNanos() {
+        return limiter.getWaitedNanos();
+    }
+
+    public void writeInput(String text) throws IOException {
+        Writer writer;
+        synchronized (this) {
+            writer = input;
+        }
+        if (writer == null) {
+            throw new IOException("Input closed");
+        }
+        writer.write(text);
+        writer.flush();
+    }
+
+    public void closeInput() {
+        Writer writer;
+        synchronized (this) {
+            writer = input;
+            input = null;
+        }
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private Void pump(InputStream stream, Consumer<String> sink, AtomicLong readingSince)
+            throws IOException, InterruptedException {
+        try (Reader reader = new InputStreamReader(stream, StandardCharsets.UTF_8)) {
+            char[] buffer = new char[CHUNK_CHARS];
+            while (true) {
+                readingSince.set(System.nanoTime());
+                int read = reader.read(buffer);
+                readingSince.set(0);
+                if (read < 0 || detached) {
+                    break;
+                }
+                if (read > 0) {
+                    limiter.acquire(read);
+                    sink.accept(new String(buffer, 0, read));
+                }
+            }
+        } catch (RuntimeException | InterruptedException e) {
+            destroy();
+            throw e;
+        }
+        return null;
+    }
+
+    private Void forward(Reader stdin) throws IOException {
+        char[] buffer = new char[CHUNK_CHARS];
+        int read;
+        try {
+            while ((read = stdin.read(buffer)) >= 0) {
+                Writer writer;
+                synchronized (this) {
+                    writer = input;
+                }
+                if (writer == null) {
+                    break;
+                }
+                writer.write(buffer, 0, read);
+                writer.flush();
+            }
+        } catch (IOException e) {
+            if (!(e instanceof InterruptedIOException) && isRunning()) {
+                throw e;
+            }
+        } finally {
+            closeInput();
+        }
+        return null;
+    }
+
+    private static void drain(Future<?> pump) {
+        try {
+            pump.get(DESTROY_GRACE_MS, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            pump.cancel(true);
+        }
+    }
+
+    private void awaitPump(Future<?> pump, AtomicLong readingSince, InputStream stream) throws InterruptedException {
+        while (true) {
+            try {
+                pump.get(EXIT_IDLE_MS, TimeUnit.MILLISECONDS);
+                return;
+            } catch (TimeoutException e) {
+                long since = readingSince.get();
+                if (since != 0 && System.nanoTime() - since >= TimeUnit.MILLISECONDS.toNanos(EXIT_IDLE_MS)) {
+                    detached = true;
+                    pump.cancel(true);
+                    try {
+                        stream.close();
+                    } catch (IOException ignored) {
+                    }
+                    return;
+                }
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package terminal.manager;
+
+import java.util.concurrent.TimeUnit;
+
+final class RateLimiter {
+
+    private static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final long maxPerSecond;
+    private long windowStart;
+    private long used;
+    private long waitedNanos;
+
+    RateLimiter(long maxPerSecond) {
+        this.maxPerSecond = maxPerSecond;
+    }
+
+    void acquire(long amount) throws InterruptedException {
+        if (maxPerSecond <= 0) {
+            return;
+        }
+        long sleepNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            if (now - windowStart >= WINDOW_NANOS) {
+                windowStart = now;
+                used = 0;
+            }
+            used += amount;
+            if (used <= maxPerSecond) {
+                return;
+            }
+            sleepNanos = windowStart + WINDOW_NANOS - now;
+            waitedNanos += sleepNanos;
+        }
+        TimeUnit.NANOSECONDS.sleep(sleepNanos);
+    }
+
+    synchronized long getWaitedNanos() {
+        return waitedNanos;
+    }
+}
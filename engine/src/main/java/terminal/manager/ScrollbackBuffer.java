@@ -0,0 +1,120 @@
+package terminal.manager;
+
+public final class ScrollbackBuffer {
+
+    private final int maxLines;
+    private final int maxChars;
+    private final String[] lines;
+    private final StringBuilder partial = new StringBuilder();
+    private int head;
+    private int lineCount;
+    private int completedChars;
+    private int promptLength;
+
+    public ScrollbackBuffer(int maxLines, int maxChars) {
+        if (maxLines < 1 || maxChars < 1) {
+            throw new IllegalArgumentException("Scrollback limits must be positive");
+        }
+        this.maxLines = maxLines;
+        this.maxChars = maxChars;
+        this.lines = new String[maxLines];
+    }
+
+    public int append(CharSequence text) {
+        promptLength = 0;
+        int start = 0;
+        int evicted = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n') {
+                partial.append(text, start, i);
+                evicted += pushLine(partial.toString());
+                partial.setLength(0);
+                start = i + 1;
+            }
+        }
+        partial.append(text, start, text.length());
+        return evicted + trimToCharLimit();
+    }
+
+    public int appendPrompt(String prompt) {
+        if (prompt.indexOf('\n') >= 0) {
+            throw new IllegalArgumentException("Prompt must not contain line breaks");
+        }
+        int evicted = append(prompt);
+        promptLength = Math.min(prompt.length(), partial.length());
+        return evicted;
+    }
+
+    public int removePrompt() {
+        int removed = promptLength;
+        partial.setLength(partial.length() - removed);
+        promptLength = 0;
+        return removed;
+    }
+
+    public boolean hasPrompt() {
+        return promptLength > 0;
+    }
+
+    public void clear() {
+        for (int i = 0; i < lineCount; i++) {
+            lines[(head + i) % maxLines] = null;
+        }
+        head = 0;
+        lineCount = 0;
+        completedChars = 0;
+        partial.setLength(0);
+        promptLength = 0;
+    }
+
+    public int length() {
+        return completedChars + partial.length();
+    }
+
+    public int lineCount() {
+        return lineCount + (partial.length() > 0 ? 1 : 0);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(length());
+        for (int i = 0; i < lineCount; i++) {
+            builder.append(lines[(head + i) % maxLines]).append('\n');
+        }
+        return builder.append(partial).toString();
+    }
+
+    private int pushLine(String line) {
+        int evicted = 0;
+        if (lineCount == maxLines) {
+            evicted = evictOldest();
+        }
+        lines[(head + lineCount) % maxLines] = line;
+        lineCount++;
+        completedChars += line.length() + 1;
+        return evicted;
+    }
+
+    private int evictOldest() {
+        String oldest = lines[head];
+        lines[head] = null;
+        head = (head + 1) % maxLines;
+        lineCount--;
+        completedChars -= oldest.length() + 1;
+        return oldest.length() + 1;
+    }
+
+    private int trimToCharLimit() {
+        int evicted = 0;
+        while (lineCount > 0 && length() > maxChars) {
+            evicted += evictOldest();
+        }
+        int overflow = partial.length() - maxChars;
+        if (overflow > 0) {
+            partial.delete(0, overflow);
+            promptLength = Math.min(promptLength, partial.length());
+            evicted += overflow;
+        }
+        return evicted;
+    }
+}
@@ -0,0 +1,340 @@
+package terminal.manager;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+public final class ShellSession {
+
+    private static final int CHUNK_CHARS = 8192;
+
+    private final List<String> shell;
+    private final ExecutorService pumps;
+    private final String markerPrefix;
+    private final ReentrantLock commandLock = new ReentrantLock();
+
+    private volatile RateLimiter limiter = new RateLimiter(0);
+    private Process process;
+    private int pid;
+    private Writer input;
+    private Channel stdout;
+    private Channel stderr;
+    private long sequence;
+    private int restarts;
+    private long commands;
+
+    public ShellSession(List<String> shell, ExecutorService pumps) {
+        this.shell = shell;
+        this.pumps = pumps;
+        this.markerPrefix = "__TERMINAL_" + Long.toHexString(new SecureRandom().nextLong()) + "_";
+    }
+
+    public List<String> getShell() {
+        return shell;
+    }
+
+    public synchronized int getRestarts() {
+        return restarts;
+    }
+
+    public synchronized long getCommands() {
+        return commands;
+    }
+
+    public synchronized boolean isAlive() {
+        return process != null && !stdout.closed;
+    }
+
+    public Integer tryExecute(String command, File directory, Consumer<String> out, Consumer<String> err,
+                              long maxCharsPerSecond) throws IOException, InterruptedException {
+        if (!commandLock.tryLock()) {
+            return null;
+        }
+        try {
+            return execute(command, directory, out, err, maxCharsPerSecond);
+        } finally {
+            commandLock.unlock();
+        }
+    }
+
+    private int execute(String command, File directory, Consumer<String> out, Consumer<String> err,
+                        long maxCharsPerSecond) throws IOException, InterruptedException {
+        Channel outChannel;
+        Channel errChannel;
+        String marker;
+        synchronized (this) {
+            limiter = new RateLimiter(maxCharsPerSecond);
+            if (!isAlive()) {
+                start();
+            }
+            marker = markerPrefix + (++sequence) + "__";
+            outChannel = stdout;
+            errChannel = stderr;
+            outChannel.begin(marker, out);
+            errChannel.begin(marker, err);
+            commands++;
+            try {
+                input.write("cd -- " + quote(directory.getPath()) + "\n"
+                        + "{ " + command + "\n} </dev/null\n"
+                        + "printf '%s:%d\\n' " + marker + " \"$?\"\n"
+                        + "printf '%s:0\\n' " + marker + " >&2\n");
+                input.flush();
+            } catch (IOException e) {
+                destroy();
+                throw e;
+            }
+        }
+
+        try {
+            int exitCode = outChannel.await();
+            errChannel.await();
+            if (exitCode == Channel.CLOSED) {
+                synchronized (this) {
+                    Process dead = process;
+                    destroy();
+                    return dead != null ? dead.waitFor() : exitCode;
+                }
+            }
+            return exitCode;
+        } catch (InterruptedException e) {
+            synchronized (this) {
+                destroy();
+            }
+            throw e;
+        }
+    }
+
+    public synchronized void destroy() {
+        if (process != null) {
+            List<Integer> children = pid > 0 ? descendants(pid) : new ArrayList<>();
+            process.destroy();
+            kill(children);
+            try {
+                input.close();
+            } catch (IOException ignored) {
+            }
+            stdout.close();
+            stderr.close();
+            process = null;
+            input = null;
+            pid = 0;
+        }
+    }
+
+    private void start() throws IOException, InterruptedException {
+        if (stdout != null) {
+            destroy();
+            restarts++;
+        }
+        Process started = new ProcessBuilder(shell).start();
+        process = started;
+        input = new OutputStreamWriter(started.getOutputStream(), StandardCharsets.UTF_8);
+        stdout = new Channel(started.getInputStream());
+        stderr = new Channel(started.getErrorStream());
+        pumps.execute(stdout);
+        pumps.execute(stderr);
+
+        String marker = markerPrefix + "0__";
+        stdout.begin(marker, null);
+        stderr.begin(marker, null);
+        try {
+            input.write("printf '%s:%d\\n' " + marker + " \"$$\"\n"
+                    + "printf '%s:0\\n' " + marker + " >&2\n");
+            input.flush();
+            pid = stdout.await();
+            stderr.await();
+        } catch (IOException | InterruptedException e) {
+            destroy();
+            throw e;
+        }
+    }
+
+    public static String quote(String text) {
+        return "'" + text.replace("'", "'\\''") + "'";
+    }
+
+    static List<Integer> descendants(int root) {
+        Map<Integer, List<Integer>> children = new HashMap<>();
+        String[] entries = new File("/proc").list();
+        if (entries != null) {
+            for (String entry : entries) {
+                if (entry.isEmpty() || !Character.isDigit(entry.charAt(0))) {
+                    continue;
+                }
+                try (BufferedReader reader = new BufferedReader(new FileReader("/proc/" + entry + "/stat"))) {
+                    String stat = reader.readLine();
+                    String[] fields = stat.substring(stat.lastIndexOf(')') + 2).split(" ");
+                    int parent = Integer.parseInt(fields[1]);
+                    List<Integer> siblings = children.get(parent);
+                    if (siblings == null) {
+                        siblings = new ArrayList<>(2);
+                        children.put(parent, siblings);
+                    }
+                    siblings.add(Integer.parseInt(entry));
+                } catch (IOException | RuntimeException ignored) {
+                }
+            }
+        }
+        List<Integer> result = new ArrayList<>();
+        List<Integer> pending = new ArrayList<>();
+        pending.add(root);
+        while (!pending.isEmpty()) {
+            List<Integer> direct = children.get(pending.remove(pending.size() - 1));
+            if (direct != null) {
+                result.addAll(direct);
+                pending.addAll(direct);
+            }
+        }
+        return result;
+    }
+
+    private static void kill(List<Integer> pids) {
+        if (pids.isEmpty()) {
+            return;
+        }
+        List<String> command = new ArrayList<>(pids.size() + 2);
+        command.add("kill");
+        command.add("-9");
+        for (int child : pids) {
+            command.add(Integer.toString(child));
+        }
+        try {
+            Process killer = new ProcessBuilder(command).redirectErrorStream(true).start();
+            killer.getOutputStream().close();
+            killer.getInputStream().close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    final class Channel implements Runnable {
+        static final int CLOSED = -1;
+
+        private final InputStream stream;
+        private final StringBuilder pending = new StringBuilder();
+        private String marker;
+        private Consumer<String> sink;
+        private Integer exitCode;
+        volatile boolean closed;
+
+        Channel(InputStream stream) {
+            this.stream = stream;
+        }
+
+        synchronized void begin(String marker, Consumer<String> sink) {
+            this.marker = marker;
+            this.sink = sink;
+            this.exitCode = null;
+        }
+
+        synchronized int await() throws InterruptedException {
+            while (exitCode == null && !closed) {
+                wait();
+            }
+            return exitCode != null ? exitCode : CLOSED;
+        }
+
+        synchronized void close() {
+            closed = true;
+            notifyAll();
+        }
+
+        @Override
+        public void run() {
+            try (Reader reader = new InputStreamReader(stream, StandardCharsets.UTF_8)) {
+                char[] buffer = new char[CHUNK_CHARS];
+                int read;
+                while ((read = reader.read(buffer)) >= 0) {
+                    if (read > 0) {
+                        limiter.acquire(read);
+                        deliver(new String(buffer, 0, read));
+                    }
+                }
+            } catch (IOException | InterruptedException ignored) {
+            } catch (RuntimeException e) {
+                synchronized (ShellSession.this) {
+                    destroy();
+                }
+            } finally {
+                close();
+            }
+        }
+
+        void deliver(String chunk) {
+            while (true) {
+                String text;
+                Consumer<String> target;
+                boolean finished = false;
+                synchronized (this) {
+                    pending.append(chunk);
+                    chunk = "";
+                    target = sink;
+                    if (marker == null) {
+                        text = pending.toString();
+                        pending.setLength(0);
+                        target = null;
+                    } else {
+                        int index = pending.indexOf(marker);
+                        int end = index >= 0 ? pending.indexOf("\n", index + marker.length()) : -1;
+                        if (end >= 0) {
+                            text = pending.substring(0, index);
+                            String code = pending.substring(index + marker.length() + 1, end).trim();
+                            pending.delete(0, end + 1);
+                            exitCode = parseExitCode(code);
+                            marker = null;
+                            sink = null;
+                            finished = true;
+                        } else {
+                            int safe = index >= 0 ? index : pending.length() - partialMarker();
+                            text = pending.substring(0, safe);
+                            pending.delete(0, safe);
+                        }
+                    }
+                }
+                if (target != null && !text.isEmpty()) {
+                    target.accept(text);
+                }
+                if (!finished) {
+                    return;
+                }
+                synchronized (this) {
+                    notifyAll();
+                    if (pending.length() == 0) {
+                        return;
+                    }
+                }
+            }
+        }
+
+        private int partialMarker() {
+            for (int length = Math.min(marker.length(), pending.length()); length > 0; length--) {
+                if (pending.indexOf(marker.substring(0, length), pending.length() - length) >= 0) {
+                    return length;
+                }
+            }
+            return 0;
+        }
+
+        private int parseExitCode(String code) {
+            try {
+                return Integer.parseInt(code);
+            } catch (NumberFormatException e) {
+                return CLOSED;
+            }
+        }
+    }
+}
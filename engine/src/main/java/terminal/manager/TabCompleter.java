@@ -0,0 +1,298 @@
+package terminal.manager;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public final class TabCompleter {
+
+    static final int MAX_HISTORY_LINES = 1000;
+    private static final int MAX_HISTORY_CANDIDATES = 200;
+
+    public static final class Result {
+        public final String text;
+        public final int cursor;
+        public final List<String> candidates;
+
+        Result(String text, int cursor, List<String> candidates) {
+            this.text = text;
+            this.cursor = cursor;
+            this.candidates = candidates;
+        }
+    }
+
+    private static final class Candidates {
+        final int start;
+        final String base;
+        final boolean shellWords;
+        final List<String> values;
+
+        Candidates(int start, String base, boolean shellWords, List<String> values) {
+            this.start = start;
+            this.base = base;
+            this.shellWords = shellWords;
+            this.values = values;
+        }
+
+        String replacement(String value) {
+            if (!shellWords) {
+                return value;
+            }
+            String word = escape(base + value);
+            return value.endsWith("/") ? word : word + " ";
+        }
+    }
+
+    private final CommandRegistry registry;
+    private final DirectoryCache cache;
+    private final PrefixTrie commands = new PrefixTrie();
+    private final PrefixTrie history = new PrefixTrie();
+    private final ArrayDeque<String> historyOrder = new ArrayDeque<>();
+    private int registeredCommands = -1;
+
+    private Candidates cycle;
+    private int cycleIndex;
+    private String cycleText;
+    private int cycleCursor;
+
+    public TabCompleter(CommandRegistry registry, DirectoryCache cache) {
+        this.registry = registry;
+        this.cache = cache;
+    }
+
+    public synchronized void addHistory(List<String> lines) {
+        for (String line : lines) {
+            addHistory(line);
+        }
+    }
+
+    public synchronized void addHistory(String line) {
+        if (history.contains(line)) {
+            historyOrder.remove(line);
+        } else {
+            history.add(line);
+        }
+        historyOrder.addLast(line);
+        while (historyOrder.size() > MAX_HISTORY_LINES) {
+            history.remove(historyOrder.removeFirst());
+        }
+    }
+
+    public synchronized Result complete(String text, int cursor, File currentDir) {
+        if (cycle != null && text.equals(cycleText) && cursor == cycleCursor) {
+            cycleIndex = (cycleIndex + 1) % cycle.values.size();
+            return apply(text, cycle.start, cursor, cycle.replacement(cycle.values.get(cycleIndex)), Collections.emptyList());
+        }
+        cycle = null;
+
+        Candidates candidates = findCandidates(text, cursor, currentDir);
+        if (candidates == null || candidates.values.isEmpty()) {
+            return null;
+        }
+        if (candidates.values.size() == 1) {
+            return apply(text, candidates.start, cursor, candidates.replacement(candidates.values.get(0)), Collections.emptyList());
+        }
+
+        String common = commonPrefix(candidates.values);
+        String replacement = candidates.shellWords ? escape(candidates.base + common) : common;
+        Result result = apply(text, candidates.start, cursor, replacement, candidates.values);
+        cycle = candidates;
+        cycleIndex = -1;
+        return result;
+    }
+
+    private Result apply(String text, int start, int cursor, String replacement, List<String> candidates) {
+        String completed = text.substring(0, start) + replacement + text.substring(cursor);
+        int newCursor = start + replacement.length();
+        cycleText = completed;
+        cycleCursor = newCursor;
+        return new Result(completed, newCursor, candidates);
+    }
+
+    private Candidates findCandidates(String text, int cursor, File currentDir) {
+        int start = tokenStart(text, cursor);
+        List<CommandLine.Token> tokens;
+        try {
+            tokens = CommandLine.lex(text.substring(0, start), true);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        String prefix = unescape(text.substring(start, cursor));
+
+        List<String> before = new ArrayList<>();
+        for (CommandLine.Token token : tokens) {
+            if (token.operator && (token.text.equals("|") || token.text.equals("&"))) {
+                before.clear();
+            } else {
+                before.add(token.text);
+            }
+        }
+
+        CommandLine.Token last = tokens.isEmpty() ? null : tokens.get(tokens.size() - 1);
+        if (last != null && last.operator && !last.text.equals("|") && !last.text.equals("&")) {
+            Candidates paths = completePath(start, prefix, currentDir, false);
+            if (paths != null && !paths.values.isEmpty()) {
+                return paths;
+            }
+        } else if (before.isEmpty()) {
+            List<String> names = commandNames().complete(prefix, Integer.MAX_VALUE);
+            if (!names.isEmpty()) {
+                return new Candidates(start, "", true, names);
+            }
+        } else {
+            CommandRegistry.Command command = registry.get(before.get(0));
+            if (command != null) {
+                List<String> values = new ArrayList<>();
+                boolean offerWords = !prefix.isEmpty() || command.getCompletion() == CommandRegistry.Completion.NONE;
+                for (String word : offerWords ? command.getWords() : Collections.<String>emptyList()) {
+                    if (word.startsWith(prefix)) {
+                        values.add(word);
+                    }
+                }
+                if (!values.isEmpty()) {
+                    return new Candidates(start, "", true, values);
+                }
+                if (command.getCompletion() != CommandRegistry.Completion.NONE) {
+                    Candidates paths = completePath(start, prefix, currentDir,
+                            command.getCompletion() == CommandRegistry.Completion.DIRECTORY);
+                    if (paths != null && !paths.values.isEmpty()) {
+                        return paths;
+                    }
+                }
+            }
+        }
+
+        String line = text.substring(0, cursor);
+        List<String> lines = history.complete(line, MAX_HISTORY_CANDIDATES);
+        lines.remove(line);
+        return new Candidates(0, "", false, lines);
+    }
+
+    private Candidates completePath(int start, String prefix, File currentDir, boolean directoriesOnly) {
+        int slash = prefix.lastIndexOf('/');
+        String base = prefix.substring(0, slash + 1);
+        String namePrefix = prefix.substring(slash + 1);
+
+        File directory;
+        if (base.isEmpty()) {
+            directory = currentDir;
+        } else if (base.startsWith("/")) {
+            directory = new File(base);
+        } else {
+            directory = new File(currentDir, base);
+        }
+
+        List<DirectoryLister.Entry> entries;
+        try {
+            entries = cache.listSortedByName(directory);
+        } catch (IOException | SecurityException e) {
+            return null;
+        }
+
+        boolean includeHidden = namePrefix.startsWith(".");
+        List<String> values = new ArrayList<>();
+        for (int i = lowerBound(entries, namePrefix); i < entries.size(); i++) {
+            DirectoryLister.Entry entry = entries.get(i);
+            if (!entry.name.startsWith(namePrefix)) {
+                break;
+            }
+            if (!includeHidden && entry.name.startsWith(".") || directoriesOnly && !entry.isDirectory) {
+                continue;
+            }
+            values.add(entry.isDirectory ? entry.name + "/" : entry.name);
+        }
+        return new Candidates(start, base, true, values);
+    }
+
+    private PrefixTrie commandNames() {
+        List<String> names = registry.getNames();
+        if (names.size() != registeredCommands) {
+            for (String name : names) {
+                commands.add(name);
+            }
+            registeredCommands = names.size();
+        }
+        return commands;
+    }
+
+    private static int lowerBound(List<DirectoryLister.Entry> entries, String key) {
+        int low = 0;
+        int high = entries.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (entries.get(middle).name.compareTo(key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static String commonPrefix(List<String> values) {
+        String first = values.get(0);
+        int length = first.length();
+        for (int i = 1; i < values.size() && length > 0; i++) {
+            String value = values.get(i);
+            int j = 0;
+            int max = Math.min(length, value.length());
+            while (j < max && first.charAt(j) == value.charAt(j)) {
+                j++;
+            }
+            length = j;
+        }
+        return first.substring(0, length);
+    }
+
+    private static int tokenStart(String text, int cursor) {
+        int start = cursor;
+        while (start > 0) {
+            char c = text.charAt(start - 1);
+            boolean separator = Character.isWhitespace(c) || c == '|' || c == '>' || c == '<' || c == '&';
+            if (separator && !(start > 1 && text.charAt(start - 2) == '\\')) {
+                break;
+            }
+            start--;
+        }
+        return start;
+    }
+
+    private static String escape(String word) {
+        StringBuilder escaped = null;
+        for (int i = 0; i < word.length(); i++) {
+            char c = word.charAt(i);
+            boolean special = Character.isWhitespace(c) || c == '\\' || c == '"' || c == '\'';
+            if (special && escaped == null) {
+                escaped = new StringBuilder(word.length() + 8).append(word, 0, i);
+            }
+            if (escaped != null) {
+                if (special) {
+                    escaped.append('\\');
+                }
+                escaped.append(c);
+            }
+        }
+        return escaped != null ? escaped.toString() : word;
+    }
+
+    private static String unescape(String word) {
+        if (word.startsWith("\"") || word.startsWith("'")) {
+            word = word.substring(1);
+        }
+        if (word.indexOf('\\') < 0) {
+            return word;
+        }
+        StringBuilder unescaped = new StringBuilder(word.length());
+        for (int i = 0; i < word.length(); i++) {
+            char c = word.charAt(i);
+            if (c == '\\' && i + 1 < word.length()) {
+                c = word.charAt(++i);
+            }
+            unescaped.append(c);
+        }
+        return unescaped.toString();
+    }
+}
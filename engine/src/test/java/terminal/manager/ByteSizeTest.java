@@ -0,0 +1,31 @@
+package terminal.manager;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ByteSizeTest {
+
+    @Test
+    public void parse_acceptsSuffixesInEitherCase() {
+        assertEquals(512, ByteSize.parse("512"));
+        assertEquals(2048, ByteSize.parse("2k"));
+        assertEquals(2048, ByteSize.parse("2K"));
+        assertEquals(3L * 1024 * 1024, ByteSize.parse("3m"));
+        assertEquals(3L * 1024 * 1024, ByteSize.parse("3M"));
+        assertEquals(1024L * 1024 * 1024, ByteSize.parse("1g"));
+        assertEquals(1024L * 1024 * 1024, ByteSize.parse("1G"));
+    }
+
+    @Test
+    public void parse_rejectsInvalidValues() {
+        String[] invalid = {"", "k", "-1", "1x", "1.5M", "9223372036854775807G"};
+        for (String value : invalid) {
+            try {
+                ByteSize.parse(value);
+                fail(value);
+            } catch (IllegalArgumentException expected) {
+            }
+        }
+    }
+}
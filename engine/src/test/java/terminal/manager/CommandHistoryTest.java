@@ -0,0 +1,121 @@
+package terminal.manager;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class CommandHistoryTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private CommandHistory history(int maxEntries) throws IOException {
+        return new CommandHistory(new File(folder.getRoot(), "history" + maxEntries), maxEntries, Runnable::run);
+    }
+
+    @Test
+    public void add_movesRepeatedCommandToEnd() throws IOException {
+        CommandHistory history = history(10);
+        history.add("ls");
+        history.add("pwd");
+        history.add("ls");
+
+        assertEquals(2, history.size());
+        assertEquals("pwd", history.get(0));
+        assertEquals("ls", history.get(1));
+        assertEquals(Arrays.asList("pwd", "ls"), history.tail(5));
+        assertFalse(history.add("ls"));
+    }
+
+    @Test
+    public void expand_splitsSharedPrefixesAndForgetsEvictedCommands() throws IOException {
+        CommandHistory history = history(3);
+        history.add("git status");
+        history.add("git stash");
+        history.add("ls");
+
+        assertEquals("git stash", history.expand("!git st"));
+        assertEquals("git status", history.expand("!git statu"));
+        assertEquals("ls", history.expand("!!"));
+        assertEquals("git status", history.expand("!1"));
+        assertEquals("git stash", history.expand("!-2"));
+
+        history.add("pwd");
+        assertNull(history.expand("!git statu"));
+        assertEquals("git stash", history.expand("!git st"));
+
+        history.add("make");
+        assertNull(history.expand("!g"));
+        assertEquals("make", history.expand("!m"));
+        assertNull(history.expand("!4"));
+    }
+
+    @Test
+    public void searchBackward_returnsPositions() throws IOException {
+        CommandHistory history = history(10);
+        history.add("cat a.txt");
+        history.add("ls");
+        history.add("cat b.txt");
+
+        assertEquals(2, history.searchBackward("cat", 3));
+        assertEquals(0, history.searchBackward("cat", 2));
+        assertEquals(-1, history.searchBackward("cat", 0));
+        assertEquals(-1, history.searchBackward("rm", 3));
+    }
+
+    @Test
+    public void matchesNaiveModelUnderRandomUse() throws IOException {
+        String[] commands = {"ls", "ls -l", "ls -la", "cd ..", "cd /sdcard", "cat a", "cat ab", "git status", "git stash", "g"};
+        Random random = new Random(7);
+        CommandHistory history = history(6);
+        List<String> model = new ArrayList<>();
+        for (int step = 0; step < 2000; step++) {
+            String command = commands[random.nextInt(commands.length)];
+            history.add(command);
+            model.remove(command);
+            model.add(command);
+            if (model.size() > 6) {
+                model.remove(0);
+            }
+
+            assertEquals(model.size(), history.size());
+            for (int i = 0; i < model.size(); i++) {
+                assertEquals(model.get(i), history.get(i));
+            }
+            String query = commands[random.nextInt(commands.length)];
+            int before = random.nextInt(model.size() + 2);
+            assertEquals(naiveSearch(model, query, before), history.searchBackward(query, before));
+            for (int end = 1; end <= query.length(); end++) {
+                String prefix = query.substring(0, end);
+                assertEquals(prefix, naiveLatest(model, prefix), history.expand("!" + prefix));
+            }
+        }
+    }
+
+    private static int naiveSearch(List<String> model, String query, int before) {
+        for (int i = Math.min(before, model.size()) - 1; i >= 0; i--) {
+            if (model.get(i).contains(query)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String naiveLatest(List<String> model, String prefix) {
+        for (int i = model.size() - 1; i >= 0; i--) {
+            if (model.get(i).startsWith(prefix)) {
+                return model.get(i);
+            }
+        }
+        return null;
+    }
+}
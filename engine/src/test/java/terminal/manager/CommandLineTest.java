@@ -0,0 +1,42 @@
+package terminal.manager;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class CommandLineTest {
+
+    @Test
+    public void parse_splitsQuotedAndEscapedArguments() {
+        CommandLine line = CommandLine.parse("grep \"a b\" 'c d' e\\ f");
+
+        assertEquals("grep", line.getName());
+        assertEquals(Arrays.asList("a b", "c d", "e f"), line.getArguments());
+        assertEquals("\"a b\" 'c d' e\\ f", line.getRawArguments());
+        assertEquals("a b c d e f", line.joinArguments());
+    }
+
+    @Test
+    public void parse_keepsEscapedQuoteInsideDoubleQuotes() {
+        CommandLine line = CommandLine.parse("echo \"say \\\"hi\\\"\"");
+
+        assertEquals(Collections.singletonList("say \"hi\""), line.getArguments());
+    }
+
+    @Test
+    public void parse_emptyLine() {
+        CommandLine line = CommandLine.parse("   ");
+
+        assertEquals("", line.getName());
+        assertEquals(0, line.size());
+        assertEquals("", line.getRawArguments());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parse_rejectsUnterminatedQuote() {
+        CommandLine.parse("cat 'notes.txt");
+    }
+}
@@ -0,0 +1,24 @@
+package terminal.manager;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class CommandMetricsTest {
+
+    @Test
+    public void end_countsSamplesMarkedFailed() {
+        CommandMetrics metrics = new CommandMetrics(8);
+
+        metrics.end(metrics.begin("ls"), false);
+        CommandMetrics.Sample marked = metrics.begin("ls");
+        marked.markFailed();
+        metrics.end(marked, false);
+        metrics.end(metrics.begin("ls"), true);
+
+        CommandMetrics.Stats stats = metrics.snapshot().get(0);
+        assertEquals("ls", stats.getName());
+        assertEquals(3, stats.getLatency().getCount());
+        assertEquals(2, stats.getErrors());
+    }
+}
@@ -0,0 +1,141 @@
+package terminal.manager;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class DirectoryCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final List<String> watched = new ArrayList<>();
+    private final List<String> unwatched = new ArrayList<>();
+    private File directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = folder.newFolder("dir");
+        assertTrue(new File(directory, "a.txt").createNewFile());
+        assertTrue(new File(directory, "b.txt").createNewFile());
+        settle(directory);
+    }
+
+    private static void settle(File directory) {
+        assertTrue(directory.setLastModified(System.currentTimeMillis() - 60_000));
+    }
+
+    private DirectoryCache cache(int maxDirectories, int maxEntries, boolean watch) {
+        DirectoryCache cache = new DirectoryCache(new DirectoryLister(false), maxDirectories, maxEntries);
+        cache.setObserver(new DirectoryCache.Observer() {
+            @Override
+            public boolean watch(String path) {
+                watched.add(path);
+                return watch;
+            }
+
+            @Override
+            public void unwatch(String path) {
+                unwatched.add(path);
+            }
+        });
+        return cache;
+    }
+
+    @Test
+    public void list_servesUnchangedDirectoryFromCache() throws IOException {
+        DirectoryCache cache = cache(10, 100, false);
+
+        assertEquals(2, cache.list(directory).size());
+        assertEquals(2, cache.list(directory).size());
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getDirectoryCount());
+        assertEquals(2, cache.getEntryCount());
+    }
+
+    @Test
+    public void list_relistsRecentlyModifiedDirectory() throws IOException {
+        DirectoryCache cache = cache(10, 100, false);
+        cache.list(directory);
+        assertTrue(new File(directory, "c.txt").createNewFile());
+
+        assertEquals(3, cache.list(directory).size());
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    public void invalidate_dropsListingAndWatch() throws IOException {
+        DirectoryCache cache = cache(10, 100, true);
+        cache.list(directory);
+        assertTrue(new File(directory, "c.txt").createNewFile());
+        settle(directory);
+        cache.invalidate(new File(directory, "."));
+
+        assertEquals(1, cache.getInvalidations());
+        assertEquals(1, unwatched.size());
+        assertEquals(3, cache.list(directory).size());
+    }
+
+    @Test
+    public void list_trustsWatchedListingUntilInvalidated() throws IOException {
+        DirectoryCache cache = cache(10, 100, true);
+        cache.list(directory);
+        assertTrue(new File(directory, "c.txt").createNewFile());
+
+        assertEquals(2, cache.list(directory).size());
+        assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    public void put_evictsLeastRecentlyUsedDirectory() throws IOException {
+        File other = folder.newFolder("other");
+        settle(other);
+        DirectoryCache cache = cache(1, 100, false);
+        cache.list(directory);
+        cache.list(other);
+
+        assertEquals(1, cache.getEvictions());
+        assertEquals(1, cache.getDirectoryCount());
+        assertEquals(0, cache.getEntryCount());
+        assertTrue(unwatched.contains(directory.getAbsolutePath()));
+    }
+
+    @Test
+    public void put_skipsListingTooLargeToCache() throws IOException {
+        DirectoryCache cache = cache(10, 1, true);
+
+        assertEquals(2, cache.list(directory).size());
+        assertEquals(0, cache.getDirectoryCount());
+        assertEquals(0, cache.getEntryCount());
+        assertEquals(watched, unwatched);
+    }
+
+    @Test
+    public void clear() throws IOException {
+        DirectoryCache cache = cache(10, 100, true);
+        cache.list(directory);
+        cache.clear();
+
+        assertEquals(0, cache.getDirectoryCount());
+        assertEquals(0, cache.getEntryCount());
+        assertEquals(watched, unwatched);
+    }
+
+    @Test
+    public void normalize() {
+        assertEquals("/a/c", DirectoryCache.normalize("/a/./b/../c/"));
+        assertEquals("/a/b", DirectoryCache.normalize("/a//b"));
+        assertEquals("/", DirectoryCache.normalize("/"));
+        assertEquals("/", DirectoryCache.normalize("/.."));
+        assertEquals("/sdcard", DirectoryCache.normalize("/sdcard"));
+    }
+}
@@ -0,0 +1,102 @@
+package terminal.manager;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class DuplicateFinderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final List<List<File>> groups = Collections.synchronizedList(new ArrayList<>());
+
+    private final DuplicateFinder.Listener listener = new DuplicateFinder.Listener() {
+        @Override
+        public void onGroup(long size, List<File> files) {
+            groups.add(files);
+        }
+
+        @Override
+        public void onError(File file, IOException e) {
+            fail(file + ": " + e);
+        }
+    };
+
+    private File write(File dir, String name, String content) throws IOException {
+        File file = new File(dir, name);
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+        return file;
+    }
+
+    private List<File> listAll(File... roots) throws InterruptedException {
+        List<File> files = Collections.synchronizedList(new ArrayList<>());
+        for (File root : roots) {
+            new ParallelFinder(FindQuery.allFiles(), files::add).find(root);
+        }
+        return files;
+    }
+
+    @Test
+    public void find_reportsCopiesOnce() throws IOException, InterruptedException {
+        File root = folder.newFolder("root");
+        File a = write(root, "a.txt", "same content");
+        File b = write(root, "b.txt", "same content");
+        write(root, "c.txt", "other content");
+
+        DuplicateFinder.Result result = new DuplicateFinder(ForkJoinPool.commonPool(), listener)
+                .find(listAll(root), 1);
+
+        assertEquals(1, result.groups);
+        assertEquals(1, result.duplicateFiles);
+        assertEquals(12, result.reclaimableBytes);
+        List<File> group = new ArrayList<>(groups.get(0));
+        Collections.sort(group);
+        assertEquals(Arrays.asList(a, b), group);
+    }
+
+    @Test
+    public void find_collapsesOverlappingRoots() throws IOException, InterruptedException {
+        File root = folder.newFolder("root");
+        File sub = new File(root, "sub");
+        assertTrue(sub.mkdir());
+        write(sub, "only.txt", "unique content");
+
+        DuplicateFinder.Result result = new DuplicateFinder(ForkJoinPool.commonPool(), listener)
+                .find(listAll(root, sub, root), 1);
+
+        assertEquals(1, result.scannedFiles);
+        assertEquals(0, result.groups);
+        assertTrue(groups.isEmpty());
+    }
+
+    @Test
+    public void find_ignoresSymlinksAndHardLinks() throws IOException, InterruptedException {
+        File root = folder.newFolder("root");
+        File target = write(root, "target.txt", "linked content");
+        Files.createSymbolicLink(new File(root, "soft.txt").toPath(), target.toPath());
+        Files.createLink(new File(root, "hard.txt").toPath(), target.toPath());
+
+        DuplicateFinder.Result result = new DuplicateFinder(ForkJoinPool.commonPool(), listener)
+                .find(listAll(root), 1);
+
+        assertEquals(1, result.scannedFiles);
+        assertEquals(0, result.groups);
+        assertEquals(0, result.reclaimableBytes);
+    }
+}
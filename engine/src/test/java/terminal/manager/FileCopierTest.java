@@ -0,0 +1,55 @@
+package terminal.manager;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class FileCopierTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void copy_skipsSymlinksInsteadOfFollowingThem() throws IOException, InterruptedException {
+        File source = folder.newFolder("source");
+        File nested = new File(source, "a");
+        assertTrue(nested.mkdir());
+        assertTrue(new File(nested, "file.txt").createNewFile());
+        Files.createSymbolicLink(new File(nested, "loop").toPath(), source.toPath());
+        File target = new File(folder.getRoot(), "target");
+
+        List<File> skipped = Collections.synchronizedList(new ArrayList<>());
+        FileCopier.Result result = new FileCopier(ForkJoinPool.commonPool(), new FileCopier.Listener() {
+            @Override
+            public void onProgress(long copiedBytes, long totalBytes, long copiedFiles, long totalFiles, long elapsedNanos) {
+            }
+
+            @Override
+            public void onError(File file, IOException e) {
+                fail(file + ": " + e);
+            }
+
+            @Override
+            public void onSkipped(File link) {
+                skipped.add(link);
+            }
+        }).copy(source, target);
+
+        assertEquals(1, result.files);
+        assertEquals(0, result.errors);
+        assertEquals(1, result.skippedLinks);
+        assertEquals(Collections.singletonList(new File(nested, "loop")), skipped);
+        assertTrue(new File(target, "a/file.txt").isFile());
+        assertFalse(new File(target, "a/loop").exists());
+    }
+}
@@ -0,0 +1,109 @@
+package terminal.manager;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+public class FileFollowerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final StringBuilder events = new StringBuilder();
+
+    private final FileFollower.Listener listener = new FileFollower.Listener() {
+        @Override
+        public void onText(String text) {
+            events.append(text);
+        }
+
+        @Override
+        public void onTruncated() {
+            events.append("[truncated]");
+        }
+
+        @Override
+        public void onReplaced() {
+            events.append("[replaced]");
+        }
+
+        @Override
+        public void onMissing() {
+            events.append("[missing]");
+        }
+    };
+
+    private static void write(File file, String text, boolean append) throws IOException {
+        try (OutputStream out = new FileOutputStream(file, append)) {
+            out.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void poll_readsAppendedText() throws IOException {
+        File file = new File(folder.getRoot(), "app.log");
+        write(file, "old\n", false);
+        try (FileFollower follower = new FileFollower(file, file.length())) {
+            assertFalse(follower.poll(listener));
+            write(file, "new\n", true);
+
+            assertTrue(follower.poll(listener));
+            assertEquals("new\n", events.toString());
+            assertEquals(8, follower.getPosition());
+        }
+    }
+
+    @Test
+    public void poll_restartsAfterTruncation() throws IOException {
+        File file = new File(folder.getRoot(), "app.log");
+        write(file, "first line\n", false);
+        try (FileFollower follower = new FileFollower(file, 0)) {
+            follower.poll(listener);
+            write(file, "x\n", false);
+
+            assertTrue(follower.poll(listener));
+            assertEquals("first line\n[truncated]x\n", events.toString());
+            assertEquals(2, follower.getPosition());
+        }
+    }
+
+    @Test
+    public void poll_followsRotatedFile() throws IOException {
+        File file = new File(folder.getRoot(), "app.log");
+        write(file, "a\n", false);
+        try (FileFollower follower = new FileFollower(file, 0)) {
+            follower.poll(listener);
+            write(file, "b\n", true);
+            assertTrue(file.renameTo(new File(folder.getRoot(), "app.log.1")));
+            write(file, "c\n", false);
+
+            assertTrue(follower.poll(listener));
+            assertEquals("a\nb\n[replaced]c\n", events.toString());
+        }
+    }
+
+    @Test
+    public void poll_waitsForMissingFile() throws IOException {
+        File file = new File(folder.getRoot(), "app.log");
+        write(file, "a\n", false);
+        try (FileFollower follower = new FileFollower(file, 0)) {
+            follower.poll(listener);
+            assertTrue(file.delete());
+
+            assertTrue(follower.poll(listener));
+            assertFalse(follower.poll(listener));
+            write(file, "b\n", false);
+            follower.poll(listener);
+
+            assertEquals("a\n[missing][replaced]b\n", events.toString());
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package terminal.manager;
+
+import org.junit.Test;
+
+import java.io.File;
+
+import static org.junit.Assert.*;
+
+public class FindQueryTest {
+
+    private static final File FILE = new File("unused");
+
+    @Test
+    public void parse_substringIsCaseInsensitive() {
+        FindQuery query = FindQuery.parse(new String[]{"Report"});
+
+        assertTrue(query.isNameOnly());
+        assertEquals("report", query.getSubstring());
+        assertNull(query.getStartPath());
+        assertTrue(query.matches(FILE, "my_REPORT.pdf", false));
+        assertFalse(query.matches(FILE, "notes.txt", false));
+    }
+
+    @Test
+    public void parse_startPathAndSubstring() {
+        FindQuery query = FindQuery.parse(new String[]{"/sdcard", "jpg"});
+
+        assertEquals("/sdcard", query.getStartPath());
+        assertEquals("jpg", query.getSubstring());
+    }
+
+    @Test
+    public void parse_nameGlob() {
+        FindQuery query = FindQuery.parse(new String[]{"-name", "*.txt"});
+
+        assertFalse(query.isNameOnly());
+        assertTrue(query.matches(FILE, "a.txt", false));
+        assertFalse(query.matches(FILE, "a.txt.bak", false));
+        assertFalse(query.matches(FILE, "A.TXT", false));
+        assertTrue(FindQuery.parse(new String[]{"-iname", "*.txt"}).matches(FILE, "A.TXT", false));
+    }
+
+    @Test
+    public void parse_typeFiltersDirectories() {
+        FindQuery query = FindQuery.parse(new String[]{"-type", "d"});
+
+        assertTrue(query.matches(FILE, "photos", true));
+        assertFalse(query.matches(FILE, "photo.jpg", false));
+    }
+
+    @Test
+    public void parse_sizeUsesRoundedUpUnits() {
+        FindQuery query = FindQuery.parse(new String[]{"-size", "+1k"});
+
+        assertTrue(query.matches(new DirectoryLister.Entry("big.bin", false, 1025, 0, true)));
+        assertFalse(query.matches(new DirectoryLister.Entry("small.bin", false, 1024, 0, true)));
+        assertFalse(query.matches(new DirectoryLister.Entry("dir", true, 0, 0, true)));
+    }
+
+    @Test
+    public void parse_sizeAcceptsEitherCase() {
+        FindQuery lower = FindQuery.parse(new String[]{"-size", "-1m"});
+        FindQuery upper = FindQuery.parse(new String[]{"-size", "-1M"});
+        DirectoryLister.Entry entry = new DirectoryLister.Entry("a.bin", false, 1, 0, true);
+
+        assertFalse(lower.matches(entry));
+        assertFalse(upper.matches(entry));
+        assertTrue(FindQuery.parse(new String[]{"-size", "1g"}).matches(new DirectoryLister.Entry("b.bin", false, 1024, 0, true)));
+    }
+
+    @Test
+    public void parse_maxDepth() {
+        assertEquals(FindQuery.DEFAULT_MAX_DEPTH, FindQuery.parse(new String[]{"x"}).getMaxDepth());
+        assertEquals(2, FindQuery.parse(new String[]{"x", "-maxdepth", "2"}).getMaxDepth());
+    }
+
+    @Test
+    public void parse_rejectsInvalidQueries() {
+        String[][] invalid = {{}, {"-name"}, {"-type", "l"}, {"-maxdepth", "-1"}, {"-size", "x"}, {"-owner", "me"},
+                {"a", "b", "c"}};
+        for (String[] args : invalid) {
+            try {
+                FindQuery.parse(args);
+                fail("Expected failure for: " + String.join(" ", args));
+            } catch (IllegalArgumentException expected) {
+            }
+        }
+    }
+
+    @Test
+    public void allFiles_isUnbounded() {
+        FindQuery query = FindQuery.allFiles();
+
+        assertEquals(Integer.MAX_VALUE, query.getMaxDepth());
+        assertTrue(query.matches(FILE, "a.txt", false));
+        assertFalse(query.matches(FILE, "dir", true));
+    }
+}
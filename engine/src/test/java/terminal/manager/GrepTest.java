@@ -0,0 +1,81 @@
+package terminal.manager;
+
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.Assert.*;
+
+public class GrepTest {
+
+    private static String grep(String input, String... args) throws IOException {
+        StringBuilder output = new StringBuilder();
+        Grep.parse(args).search(new BufferedReader(new StringReader(input)), null, new Grep.Output() {
+            @Override
+            public void write(String text) {
+                output.append(text);
+            }
+
+            @Override
+            public void error(File file, IOException e) {
+                fail(e.getMessage());
+            }
+        });
+        return output.toString();
+    }
+
+    @Test
+    public void literal() throws IOException {
+        assertEquals("a foo\nfoo b\n", grep("a foo\nbar\nfoo b\nFOO\n", "foo"));
+    }
+
+    @Test
+    public void literalIgnoringCase() throws IOException {
+        assertEquals("a foo\nFOO\n", grep("a foo\nbar\nFOO\n", "-i", "Foo"));
+    }
+
+    @Test
+    public void fixedStringsTreatRegexCharsLiterally() throws IOException {
+        assertEquals("a.b\n", grep("a.b\naxb\n", "-F", "a.b"));
+    }
+
+    @Test
+    public void regexWithLineNumbers() throws IOException {
+        assertEquals("2:bar\n4:bar\n", grep("foo\nbar\nbaz\nbar\n", "-n", "^b.r$"));
+    }
+
+    @Test
+    public void contextSeparatesDisjointGroups() throws IOException {
+        assertEquals("a\nx\nb\n--\nd\nx\n", grep("a\nx\nb\nc\nd\nx\n", "-C", "1", "x"));
+    }
+
+    @Test
+    public void contextMergesOverlappingGroups() throws IOException {
+        assertEquals("1:x\n2-y\n3:x\n4-z\n", grep("x\ny\nx\nz\nw\n", "-n", "-A1", "x"));
+    }
+
+    @Test
+    public void beforeContext() throws IOException {
+        assertEquals("b\nc\nx\n", grep("a\nb\nc\nx\n", "-B", "2", "x"));
+    }
+
+    @Test
+    public void countOnly() throws IOException {
+        assertEquals("2\n", grep("x\ny\nx\n", "-c", "x"));
+    }
+
+    @Test
+    public void rejectsInvalidArguments() {
+        String[][] invalid = {{}, {"-n"}, {"-q", "x"}, {"-A", "x"}, {"a("}};
+        for (String[] args : invalid) {
+            try {
+                Grep.parse(args);
+                fail("Expected failure for: " + String.join(" ", args));
+            } catch (IllegalArgumentException expected) {
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package terminal.manager;
+
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void smallValuesHaveExactBuckets() {
+        for (long value = 0; value < 64; value++) {
+            int index = LatencyHistogram.indexOf(value);
+            assertEquals(value, index);
+            assertEquals(value, LatencyHistogram.highestEquivalent(index));
+        }
+    }
+
+    @Test
+    public void bucketsAreMonotonicAndWithinRelativeError() {
+        int previous = -1;
+        for (long value = 0; value < 1L << 20; value += 7) {
+            int index = LatencyHistogram.indexOf(value);
+            assertTrue(index >= previous);
+            previous = index;
+        }
+
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            long value = random.nextLong() & ((1L << 40) - 1);
+            int index = LatencyHistogram.indexOf(value);
+            long highest = LatencyHistogram.highestEquivalent(index);
+            assertTrue(index < LatencyHistogram.BUCKET_COUNT);
+            assertTrue(highest >= value);
+            assertTrue((highest - value) * 32 <= value);
+            if (index > 0) {
+                assertTrue(LatencyHistogram.highestEquivalent(index - 1) < value);
+            }
+        }
+    }
+
+    @Test
+    public void percentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(i));
+        }
+
+        assertEquals(1000, histogram.getCount());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(1000), histogram.getMaxNanos());
+        assertEquals(TimeUnit.MICROSECONDS.toNanos(500_500), histogram.getMeanNanos());
+        assertWithin(TimeUnit.MILLISECONDS.toNanos(500), histogram.getValueAtPercentile(50));
+        assertWithin(TimeUnit.MILLISECONDS.toNanos(990), histogram.getValueAtPercentile(99));
+        assertEquals(histogram.getMaxNanos(), histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void clampsOutOfRangeValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+
+        assertEquals(2, histogram.getCount());
+        assertEquals(0, histogram.getValueAtPercentile(50));
+        assertEquals(TimeUnit.MICROSECONDS.toNanos((1L << 40) - 1), histogram.getMaxNanos());
+    }
+
+    @Test
+    public void reset() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(3));
+        histogram.reset();
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getTotalNanos());
+        assertEquals(0, histogram.getValueAtPercentile(99));
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue("expected ~" + expected + " but was " + actual, Math.abs(actual - expected) * 32 <= expected);
+    }
+}
@@ -0,0 +1,81 @@
+package terminal.manager;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class PagedFileTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File write(String text) throws IOException {
+        File file = folder.newFile();
+        try (OutputStream out = new FileOutputStream(file)) {
+            out.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+        return file;
+    }
+
+    @Test
+    public void readLines_pagesThroughLargeFile() throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            text.append("line ").append(i).append('\n');
+        }
+        try (PagedFile file = new PagedFile(write(text.toString()))) {
+            assertEquals(Arrays.asList("line 4000", "line 4001", "line 4002"), file.readLines(4000, 3));
+            assertEquals(Arrays.asList("line 0", "line 1"), file.readLines(0, 2));
+            assertEquals(Collections.singletonList("line 4999"), file.readLines(4999, 10));
+            assertTrue(file.hasLine(4999));
+            assertFalse(file.hasLine(5000));
+            assertTrue(file.readLines(5000, 10).isEmpty());
+        }
+    }
+
+    @Test
+    public void readLines_stripsCarriageReturnAndKeepsUnicode() throws IOException {
+        try (PagedFile file = new PagedFile(write("first\r\nпривет\nlast"))) {
+            assertEquals(Arrays.asList("first", "привет", "last"), file.readLines(0, 10));
+        }
+    }
+
+    @Test
+    public void readLines_truncatesLongLines() throws IOException {
+        try (PagedFile file = new PagedFile(write("abcdefgh\nok\n"), 4)) {
+            assertEquals(Arrays.asList("abcd\u2026", "ok"), file.readLines(0, 10));
+        }
+    }
+
+    @Test
+    public void tail() throws IOException {
+        try (PagedFile file = new PagedFile(write("a\nb\nc\n"))) {
+            assertEquals(Arrays.asList("b", "c"), file.tail(2));
+            assertEquals(Arrays.asList("a", "b", "c"), file.tail(10));
+        }
+        try (PagedFile file = new PagedFile(write("a\nb\nc"))) {
+            assertEquals(Collections.singletonList("c"), file.tail(1));
+        }
+    }
+
+    @Test
+    public void emptyFile() throws IOException {
+        try (PagedFile file = new PagedFile(write(""))) {
+            List<String> lines = file.readLines(0, 10);
+            assertTrue(lines.isEmpty());
+            assertFalse(file.hasLine(0));
+            assertTrue(file.tail(5).isEmpty());
+        }
+    }
+}
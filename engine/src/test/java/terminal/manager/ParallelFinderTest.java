@@ -0,0 +1,49 @@
+package terminal.manager;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ParallelFinderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void find_doesNotFollowSymlinkCycles() throws IOException, InterruptedException {
+        File root = folder.newFolder("root");
+        File nested = new File(root, "a/b");
+        assertTrue(nested.mkdirs());
+        assertTrue(new File(nested, "match.txt").createNewFile());
+        Files.createSymbolicLink(new File(nested, "loop").toPath(), root.toPath());
+
+        List<File> found = Collections.synchronizedList(new ArrayList<>());
+        FindQuery query = FindQuery.parse(new String[]{"match", "-maxdepth", "64"});
+        long matches = new ParallelFinder(query, found::add).find(root);
+
+        assertEquals(1, matches);
+        assertEquals(new File(nested, "match.txt"), found.get(0));
+    }
+
+    @Test
+    public void find_reportsLinkButDoesNotDescend() throws IOException, InterruptedException {
+        File root = folder.newFolder("root");
+        File target = folder.newFolder("target");
+        assertTrue(new File(target, "inside.txt").createNewFile());
+        Files.createSymbolicLink(new File(root, "link").toPath(), target.toPath());
+
+        List<File> found = Collections.synchronizedList(new ArrayList<>());
+        new ParallelFinder(FindQuery.parse(new String[]{"i"}), found::add).find(root);
+
+        assertEquals(Collections.singletonList(new File(root, "link")), found);
+    }
+}
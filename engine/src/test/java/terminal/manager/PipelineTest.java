@@ -0,0 +1,82 @@
+package terminal.manager;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class PipelineTest {
+
+    @Test
+    public void parse_splitsStagesAndRedirects() {
+        Pipeline pipeline = Pipeline.parse("cat notes.txt | grep -n 'to do' | head -n 20 > out.txt");
+
+        assertEquals(3, pipeline.getStages().size());
+        assertEquals("grep", pipeline.getStages().get(1).getName());
+        assertEquals(Arrays.asList("-n", "to do"), pipeline.getStages().get(1).getArguments());
+        assertEquals("out.txt", pipeline.getOutputFile());
+        assertNull(pipeline.getInputFile());
+        assertFalse(pipeline.isAppend());
+        assertFalse(pipeline.isBackground());
+        assertFalse(pipeline.isSimple());
+    }
+
+    @Test
+    public void parse_inputAppendAndBackground() {
+        Pipeline pipeline = Pipeline.parse("sort < in.txt >> out.txt &");
+
+        assertEquals(1, pipeline.getStages().size());
+        assertEquals("in.txt", pipeline.getInputFile());
+        assertEquals("out.txt", pipeline.getOutputFile());
+        assertTrue(pipeline.isAppend());
+        assertTrue(pipeline.isBackground());
+    }
+
+    @Test
+    public void parse_operatorsWithoutSpaces() {
+        Pipeline pipeline = Pipeline.parse("cat<in.txt|wc -l>>log.txt&");
+
+        assertEquals(2, pipeline.getStages().size());
+        assertEquals("cat", pipeline.getStages().get(0).getName());
+        assertEquals(Collections.singletonList("-l"), pipeline.getStages().get(1).getArguments());
+        assertEquals("in.txt", pipeline.getInputFile());
+        assertEquals("log.txt", pipeline.getOutputFile());
+        assertTrue(pipeline.isAppend());
+        assertTrue(pipeline.isBackground());
+    }
+
+    @Test
+    public void parse_lastOutputRedirectWins() {
+        Pipeline pipeline = Pipeline.parse("echo a >> first.txt > second.txt");
+
+        assertEquals("second.txt", pipeline.getOutputFile());
+        assertFalse(pipeline.isAppend());
+        assertEquals(Collections.singletonList("a"), pipeline.getStages().get(0).getArguments());
+    }
+
+    @Test
+    public void parse_quotedAndEscapedOperatorsAreArguments() {
+        Pipeline quoted = Pipeline.parse("echo \"a|b > c\"");
+        Pipeline escaped = Pipeline.parse("echo a\\|b \\&");
+
+        assertTrue(quoted.isSimple());
+        assertEquals(Collections.singletonList("a|b > c"), quoted.getStages().get(0).getArguments());
+        assertTrue(escaped.isSimple());
+        assertFalse(escaped.isBackground());
+        assertEquals(Arrays.asList("a|b", "&"), escaped.getStages().get(0).getArguments());
+    }
+
+    @Test
+    public void parse_rejectsMalformedPipelines() {
+        String[] malformed = {"ls |", "| ls", "ls | | wc", "ls >", "ls > | wc", "> out.txt", "ls & pwd", "ls <", "&"};
+        for (String line : malformed) {
+            try {
+                Pipeline.parse(line);
+                fail("Expected failure for: " + line);
+            } catch (IllegalArgumentException expected) {
+            }
+        }
+    }
+}
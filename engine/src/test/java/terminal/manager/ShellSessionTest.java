@@ -0,0 +1,80 @@
+package terminal.manager;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+
+public class ShellSessionTest {
+
+    private static final String MARKER = "__TERMINAL_test_1__";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private ShellSession.Channel channel(ShellSession session) {
+        return session.new Channel(new ByteArrayInputStream(new byte[0]));
+    }
+
+    @Test
+    public void deliver_holdsBackMarkerSplitAcrossChunks() throws InterruptedException {
+        ShellSession.Channel channel = channel(new ShellSession(Collections.singletonList("sh"), null));
+        StringBuilder out = new StringBuilder();
+        channel.begin(MARKER, out::append);
+
+        channel.deliver("hello\n__TERM");
+        assertEquals("hello\n", out.toString());
+        channel.deliver("INAL_test_1");
+        assertEquals("hello\n", out.toString());
+        channel.deliver("__:4");
+        channel.deliver("2\nnext command output");
+
+        assertEquals(42, channel.await());
+        assertEquals("hello\n", out.toString());
+    }
+
+    @Test
+    public void deliver_releasesTextThatOnlyLooksLikeMarker() throws InterruptedException {
+        ShellSession.Channel channel = channel(new ShellSession(Collections.singletonList("sh"), null));
+        StringBuilder out = new StringBuilder();
+        channel.begin(MARKER, out::append);
+
+        channel.deliver("a__TERMINAL_");
+        assertEquals("a", out.toString());
+        channel.deliver("other\n");
+        assertEquals("a__TERMINAL_other\n", out.toString());
+        channel.deliver(MARKER + ":0\n");
+
+        assertEquals(0, channel.await());
+        assertEquals("a__TERMINAL_other\n", out.toString());
+    }
+
+    @Test
+    public void tryExecute_quotedArgumentsAndExitCode() throws IOException, InterruptedException {
+        ExecutorService pumps = Executors.newCachedThreadPool();
+        ShellSession session = new ShellSession(Collections.singletonList("sh"), pumps);
+        try {
+            StringBuilder out = new StringBuilder();
+            StringBuilder err = new StringBuilder();
+            String command = "printf '%s\\n' " + ShellSession.quote("it's $HOME; ls");
+
+            assertEquals(Integer.valueOf(0), session.tryExecute(command, folder.getRoot(), out::append, err::append, 0));
+            assertEquals("it's $HOME; ls\n", out.toString());
+            assertEquals(Integer.valueOf(3), session.tryExecute("exit 3", folder.getRoot(), out::append, err::append, 0));
+            assertFalse(session.isAlive());
+            assertEquals(Integer.valueOf(0), session.tryExecute("true", folder.getRoot(), out::append, err::append, 0));
+            assertEquals(1, session.getRestarts());
+            assertEquals("", err.toString());
+        } finally {
+            session.destroy();
+            pumps.shutdownNow();
+        }
+    }
+}